@@ -22,8 +22,8 @@ const PipelineSchedule = (props) => {
                 <div className="card-body">
                     <h2 className="card-title text-error">Important!</h2>
                     <div>
-                        <p className="mt-4">Events related to a pipeline are queued and stored in the database, with automatic deletion based on the table rotation settings configured for outbound queues.</p>
-                        <p className="mt-4">Make sure to align your pipeline schedule with the table rotation settings to prevent events from being deleted before processing.</p>
+                        <p className="mt-4">Events related to a pipeline are queued and stored in the database, with automatic deletion of the days that are past the configured data storage interval.</p>
+                        <p className="mt-4">Make sure to align your pipeline schedule with the data storage interval to prevent events from being deleted before processing.</p>
                         <p className="mt-4">To ensure optimal performance, we suggest setting the run schedule interval to a minimum of 5 minutes. Without an active associated schedule, events will only be processed on-demand.</p>
                     </div>
                 </div>
@@ -1,6 +1,7 @@
 package io.cptn.common.entities;
 
 import io.cptn.common.listeners.EntityListener;
+import io.cptn.common.listeners.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -25,7 +26,7 @@ public abstract class BaseEntity implements Serializable {
     @Column(columnDefinition = "uuid", updatable = false)
     @ToString.Include
     @EqualsAndHashCode.Include
-    @GeneratedValue
+    @TimeOrderedId
     private UUID id = null;
 
     @Getter
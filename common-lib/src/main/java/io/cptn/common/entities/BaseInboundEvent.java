@@ -2,6 +2,7 @@ package io.cptn.common.entities;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.pojos.ParsedPayload;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -14,7 +15,7 @@ import java.io.Serial;
 /* @author: kc, created on 3/30/23 */
 @MappedSuperclass
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
-public abstract class BaseInboundEvent extends BaseEntity {
+public abstract class BaseInboundEvent extends BaseEntity implements TimeOrderedEntity {
 
     @Serial
     private static final long serialVersionUID = -7945377903306555486L;
@@ -24,6 +25,10 @@ public abstract class BaseInboundEvent extends BaseEntity {
     @EqualsAndHashCode.Include
     private String payload;
 
+    //the caller's tree is not kept by setPayload, as it could still be modified afterwards
+    @Transient
+    private transient ParsedPayload parsedPayload;
+
     @Getter
     @Setter
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,11 +42,28 @@ public abstract class BaseInboundEvent extends BaseEntity {
     private State state = State.QUEUED;
 
 
+    /**
+     * The payload as a tree. It is parsed on first use and the same tree is returned until the payload changes, so
+     * callers must not modify it. Use getSerializedPayload to pass the payload on without parsing it.
+     */
     public JsonNode getPayload() {
-        return JsonHelper.deserializeJson(this.payload);
+        ParsedPayload parsed = this.parsedPayload;
+        if (parsed == null || !parsed.isParsedFrom(this.payload)) {
+            parsed = ParsedPayload.of(this.payload);
+            this.parsedPayload = parsed;
+        }
+        return parsed.tree();
     }
 
     public void setPayload(JsonNode payload) {
         this.payload = JsonHelper.serializeJson(payload);
     }
+
+    public String getSerializedPayload() {
+        return this.payload;
+    }
+
+    public void setSerializedPayload(String payload) {
+        this.payload = payload;
+    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ package io.cptn.common.entities;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.pojos.ParsedPayload;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -13,12 +14,16 @@ import org.hibernate.type.SqlTypes;
 
 @MappedSuperclass
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
-public abstract class BaseOutboundEvent extends BaseEntity {
+public abstract class BaseOutboundEvent extends BaseEntity implements TimeOrderedEntity {
 
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private String payload;
 
+    //the caller's tree is not kept by setPayload, as it could still be modified afterwards
+    @Transient
+    private transient ParsedPayload parsedPayload;
+
     @Getter
     @Setter
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,11 +47,28 @@ public abstract class BaseOutboundEvent extends BaseEntity {
     @Column(length = 4000)
     private String consoleLog;
 
+    /**
+     * The payload as a tree. It is parsed on first use and the same tree is returned until the payload changes, so
+     * callers must not modify it. Use getSerializedPayload to pass the payload on without parsing it.
+     */
     public JsonNode getPayload() {
-        return JsonHelper.deserializeJson(this.payload);
+        ParsedPayload parsed = this.parsedPayload;
+        if (parsed == null || !parsed.isParsedFrom(this.payload)) {
+            parsed = ParsedPayload.of(this.payload);
+            this.parsedPayload = parsed;
+        }
+        return parsed.tree();
     }
 
     public void setPayload(JsonNode payload) {
         this.payload = JsonHelper.serializeJson(payload);
     }
+
+    public String getSerializedPayload() {
+        return this.payload;
+    }
+
+    public void setSerializedPayload(String payload) {
+        this.payload = payload;
+    }
 }
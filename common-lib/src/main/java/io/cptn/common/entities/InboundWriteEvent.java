@@ -9,7 +9,7 @@ import java.io.Serial;
 
 /* @author: kc, created on 2/8/23 */
 @Entity
-@Table(name = "inbound_write_queue")
+@Table(name = "inbound_queue")
 @ToString(onlyExplicitlyIncluded = true)
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
 public class InboundWriteEvent extends BaseInboundEvent {
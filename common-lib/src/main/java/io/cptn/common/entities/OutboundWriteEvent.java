@@ -10,7 +10,7 @@ import java.io.Serial;
 
 /* @author: kc, created on 3/9/23 */
 @Entity
-@Table(name = "outbound_write_queue")
+@Table(name = "outbound_queue")
 @ToString(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
@@ -0,0 +1,40 @@
+package io.cptn.common.entities;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serial;
+
+/* @author: kc, created on 10/18/26 */
+@Entity
+@Table(name = "inbound_quarantine")
+@ToString(onlyExplicitlyIncluded = true, callSuper = true)
+@EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
+public class QuarantinedEvent extends BaseEntity implements TimeOrderedEntity {
+
+    @Serial
+    private static final long serialVersionUID = 4418063394265208372L;
+
+    @Getter
+    @Setter
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", name = "payload")
+    private String serializedPayload;
+
+    @Getter
+    @Setter
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_id")
+    private Source source;
+
+    //why the event was quarantined
+    @Getter
+    @Setter
+    @Column(length = 1000)
+    private String errors;
+}
@@ -0,0 +1,26 @@
+package io.cptn.common.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * What ingestion returns for a batch of events
+ */
+public enum ResponseMode {
+    //a DTO per event
+    @JsonProperty("FULL")
+    FULL,
+
+    //the number of events accepted
+    @JsonProperty("COUNT")
+    COUNT,
+
+    //the ids of the events, streamed as they are stored
+    @JsonProperty("IDS")
+    IDS,
+
+    //202 without a body
+    @JsonProperty("NONE")
+    NONE
+}
@@ -0,0 +1,18 @@
+package io.cptn.common.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * What ingestion does with an event that does not match its source's JSON Schema
+ */
+public enum SchemaViolationAction {
+    //the request fails with a 400
+    @JsonProperty("REJECT")
+    REJECT,
+
+    //the event is set aside in inbound_quarantine and never processed
+    @JsonProperty("QUARANTINE")
+    QUARANTINE
+}
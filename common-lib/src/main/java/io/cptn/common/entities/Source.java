@@ -1,11 +1,16 @@
 package io.cptn.common.entities;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.helpers.JsonHelper;
 import io.cptn.common.helpers.StringHelper;
 import io.cptn.common.listeners.HeaderConverter;
 import io.cptn.common.pojos.Header;
+import io.cptn.common.pojos.SecuredSource;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
@@ -21,11 +26,14 @@ import java.util.UUID;
 @ToString(onlyExplicitlyIncluded = true, callSuper = true)
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
-public class Source extends BaseEntity {
+public class Source extends BaseEntity implements SecuredSource {
 
     @Serial
     private static final long serialVersionUID = -3691670877572267385L;
 
+    //ids of created, updated and deleted sources are published here, so ingestion can drop its cached copies
+    public static final String CHANGES_CHANNEL = "cptn:source-changes";
+
     @Getter
     @Setter
     @Column(length = 128)
@@ -65,6 +73,74 @@ public class Source extends BaseEntity {
     @Column(name = "capture_remote_ip", columnDefinition = "boolean default false")
     private Boolean captureRemoteIP = false;
 
+    //limit in bytes for compressed request bodies once inflated, null uses the ingestion default
+    @Getter
+    @Setter
+    @Column(name = "max_decompressed_size")
+    private Long maxDecompressedSize;
+
+    //token bucket limits enforced by ingestion-svc, null or 0 means unlimited. ingestion-reactive-svc rejects sources
+    //that set them as it does not enforce them
+    @Getter
+    @Setter
+    @Column(name = "rate_limit_events_per_second")
+    private Integer rateLimitEventsPerSecond;
+
+    @Getter
+    @Setter
+    @Column(name = "rate_limit_bytes_per_second")
+    private Long rateLimitBytesPerSecond;
+
+    //number of events that can be sent at once, defaults to one second worth of events
+    @Getter
+    @Setter
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst;
+
+    //low priority sources are shed first when the inbound backlog grows too large. only ingestion-svc sheds them,
+    //ingestion-reactive-svc rejects low priority sources
+    @Getter
+    @Setter
+    @Column(name = "low_priority", columnDefinition = "boolean default false")
+    private Boolean lowPriority = false;
+
+    //default response for batches, requests can ask for another one. null returns a DTO per event
+    @Getter
+    @Setter
+    @Enumerated(EnumType.STRING)
+    @Column(name = "response_mode", length = 16)
+    private ResponseMode responseMode;
+
+    //seconds an idempotency key is remembered for, null or 0 turns duplicate suppression off. only ingestion-svc
+    //suppresses duplicates, ingestion-reactive-svc rejects sources that set a window
+    @Getter
+    @Setter
+    @Column(name = "dedup_window")
+    private Integer dedupWindow;
+
+    //JSON pointer to the idempotency key in the payload, used when the Idempotency-Key header is not sent
+    @Getter
+    @Setter
+    @Column(name = "idempotency_key_pointer", length = 256)
+    private String idempotencyKeyPointer;
+
+    //events that do not match the schema are rejected or quarantined by ingestion-svc, null turns validation off.
+    //ingestion-reactive-svc does not validate and rejects sources with a schema
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", name = "json_schema")
+    private String jsonSchema;
+
+    @Getter
+    @Setter
+    @Enumerated(EnumType.STRING)
+    @Column(name = "schema_violation_action", length = 16)
+    private SchemaViolationAction schemaViolationAction;
+
+    //maps CSV columns of uploaded files to event fields, null turns every column into a top level field
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", name = "column_mapping")
+    private String columnMapping;
+
     public Source(UUID id) {
         this.setId(id);
     }
@@ -82,6 +158,25 @@ public class Source extends BaseEntity {
         this.lastKeyRotationAt = ZonedDateTime.now();
     }
 
+    public JsonNode getJsonSchema() {
+        return JsonHelper.deserializeJson(this.jsonSchema);
+    }
+
+    public void setJsonSchema(JsonNode jsonSchema) {
+        //a JSON null clears the schema
+        this.jsonSchema = jsonSchema == null || jsonSchema.isNull() ? null : JsonHelper.serializeJson(jsonSchema);
+    }
+
+    public JsonNode getColumnMapping() {
+        return JsonHelper.deserializeJson(this.columnMapping);
+    }
+
+    public void setColumnMapping(JsonNode columnMapping) {
+        //a JSON null clears the mapping
+        this.columnMapping = columnMapping == null || columnMapping.isNull() ? null :
+                JsonHelper.serializeJson(columnMapping);
+    }
+
     public boolean hasAnyKeysSetup() {
         return primaryKey != null || secondaryKey != null;
     }
@@ -0,0 +1,10 @@
+package io.cptn.common.entities;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * Marks the event entities, whose ids are generated time ordered so that the high volume queue tables are appended
+ * to at the right end of their primary key indexes. Other entities keep random ids.
+ */
+public interface TimeOrderedEntity {
+}
@@ -5,6 +5,7 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Path;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -35,6 +36,16 @@ public class CommonExceptionHandler {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             } else if (ex instanceof UnauthorizedException) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            } else if (ex instanceof ServiceUnavailableException serviceUnavailableException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(serviceUnavailableException.getRetryAfterSeconds()))
+                        .body(error);
+            } else if (ex instanceof TooManyRequestsException tooManyRequestsException) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooManyRequestsException.getRetryAfterSeconds()))
+                        .body(error);
+            } else if (ex instanceof PayloadTooLargeException) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
             }
             return ResponseEntity.internalServerError().body(error);
         }
@@ -0,0 +1,10 @@
+package io.cptn.common.exceptions;
+
+/* @author: kc, created on 10/18/26 */
+
+public class PayloadTooLargeException extends WebApplicationException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package io.cptn.common.exceptions;
+
+import lombok.Getter;
+
+/* @author: kc, created on 10/18/26 */
+
+public class TooManyRequestsException extends WebApplicationException {
+
+    @Getter
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,10 +1,25 @@
 package io.cptn.common.helpers;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.cptn.common.exceptions.BadRequestException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 /* @author: kc, created on 3/27/23 */
 public class JsonHelper {
 
@@ -40,4 +55,275 @@ public class JsonHelper {
             throw new BadRequestException("Failed to serialize payload");
         }
     }
+
+    /**
+     * Reads a JSON array from the stream one element at a time and hands the elements over in chunks of at most
+     * chunkSize. Only the current chunk is held in memory, so the size of the array does not affect the heap.
+     *
+     * @return total number of elements read
+     */
+    public static long readArrayInChunks(InputStream inputStream, int chunkSize,
+                                         Consumer<List<JsonNode>> chunkConsumer) throws IOException {
+        return readArrayInChunks(inputStream, MAPPER.getFactory(), chunkSize, chunkConsumer);
+    }
+
+    /**
+     * Same as readArrayInChunks, for any format with a Jackson factory, such as CBOR.
+     */
+    public static long readArrayInChunks(InputStream inputStream, JsonFactory factory, int chunkSize,
+                                         Consumer<List<JsonNode>> chunkConsumer) throws IOException {
+        try (JsonParser parser = createChunkParser(inputStream, factory, chunkSize)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Payload must be a JSON array");
+            }
+            return readInChunks(parser, JsonToken.END_ARRAY, chunkSize, chunkConsumer);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Failed to deserialize payload");
+        }
+    }
+
+    /**
+     * Reads newline delimited JSON values from the stream as they arrive. A chunk is handed over once it holds
+     * chunkSize values, or once its first value is maxChunkAgeMillis old, also while the producer sends nothing, so
+     * values from slow producers are not held back until more data or the end of the stream arrives. Unless
+     * maxChunkAgeMillis is Long.MAX_VALUE the stream is parsed on a separate thread, the consumer always runs on the
+     * calling thread.
+     *
+     * @return total number of values read
+     */
+    public static long readValuesInChunks(InputStream inputStream, int chunkSize, long maxChunkAgeMillis,
+                                          Consumer<List<JsonNode>> chunkConsumer) throws IOException {
+        return readValuesInChunks(inputStream, MAPPER.getFactory(), chunkSize, maxChunkAgeMillis, chunkConsumer);
+    }
+
+    /**
+     * Same as readValuesInChunks, for any format with a Jackson factory. Binary formats are read as a sequence of
+     * root values instead of lines.
+     */
+    public static long readValuesInChunks(InputStream inputStream, JsonFactory factory, int chunkSize,
+                                          long maxChunkAgeMillis, Consumer<List<JsonNode>> chunkConsumer)
+            throws IOException {
+        try {
+            if (maxChunkAgeMillis == Long.MAX_VALUE) {
+                try (JsonParser parser = createChunkParser(inputStream, factory, chunkSize)) {
+                    parser.nextToken();
+                    return readInChunks(parser, null, chunkSize, chunkConsumer);
+                }
+            }
+            return readValuesAsTheyArrive(inputStream, createChunkParser(inputStream, factory, chunkSize), chunkSize,
+                    maxChunkAgeMillis, chunkConsumer);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Failed to deserialize payload");
+        }
+    }
+
+    /**
+     * Validates that the bytes hold a single JSON value by running them through the tokenizer and returns them as
+     * sent, without building a tree and serializing it again. When fieldName is passed and the value is an object
+     * without that top level field, fieldValue is spliced in before the closing brace, the same place
+     * ObjectNode.putIfAbsent would have added it.
+     */
+    public static String readRawJson(byte[] json, String fieldName, JsonNode fieldValue) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            JsonToken rootToken = parser.nextToken();
+            if (rootToken == null) {
+                throw new BadRequestException("Failed to deserialize payload");
+            }
+
+            boolean emptyObject = true;
+            boolean fieldPresent = false;
+            if (rootToken == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    emptyObject = false;
+                    fieldPresent |= parser.currentName().equals(fieldName);
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+            long closingOffset = parser.currentTokenLocation().getByteOffset();
+
+            if (parser.nextToken() != null) {
+                throw new BadRequestException("Payload must be a single JSON value");
+            }
+            if (fieldName == null || rootToken != JsonToken.START_OBJECT || fieldPresent) {
+                return new String(json, StandardCharsets.UTF_8);
+            }
+
+            byte[] field = ((emptyObject ? "" : ",") + MAPPER.writeValueAsString(fieldName) + ":" +
+                    serializeJson(fieldValue)).getBytes(StandardCharsets.UTF_8);
+            byte[] enriched = new byte[json.length + field.length];
+            System.arraycopy(json, 0, enriched, 0, (int) closingOffset);
+            System.arraycopy(field, 0, enriched, (int) closingOffset, field.length);
+            System.arraycopy(json, (int) closingOffset, enriched, (int) closingOffset + field.length,
+                    json.length - (int) closingOffset);
+            return new String(enriched, StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Failed to deserialize payload");
+        }
+    }
+
+    /**
+     * Reads a single value in any format with a Jackson factory into a tree.
+     */
+    public static JsonNode readValue(byte[] data, JsonFactory factory) throws IOException {
+        try (JsonParser parser = factory.createParser(data)) {
+            if (parser.nextToken() == null) {
+                throw new BadRequestException("Failed to deserialize payload");
+            }
+            JsonNode value = MAPPER.readTree(parser);
+            if (nextRootToken(parser) != null) {
+                throw new BadRequestException("Payload must be a single JSON value");
+            }
+            return value;
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Failed to deserialize payload");
+        }
+    }
+
+    /*
+        The MessagePack parser reports the end of input between root values as an error instead of returning null
+     */
+    private static JsonToken nextRootToken(JsonParser parser) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonEOFException e) {
+            if (e.getTokenBeingDecoded() != null) {
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    private static JsonParser createChunkParser(InputStream inputStream, JsonFactory factory, int chunkSize)
+            throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
+        }
+        return factory.createParser(inputStream);
+    }
+
+    /*
+        Expects the parser to be positioned on the first value. Reading stops at endToken, or at the end of the input
+        when endToken is null.
+     */
+    private static long readInChunks(JsonParser parser, JsonToken endToken, int chunkSize,
+                                     Consumer<List<JsonNode>> chunkConsumer) throws IOException {
+        long count = 0;
+        List<JsonNode> chunk = new ArrayList<>(chunkSize);
+        JsonToken token = endToken != null ? parser.nextToken() : parser.currentToken();
+        while (token != endToken) {
+            if (token == null) {
+                throw new BadRequestException("Failed to deserialize payload");
+            }
+            chunk.add(MAPPER.readTree(parser));
+            count++;
+            if (chunk.size() == chunkSize) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+            token = nextRootToken(parser);
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+        return count;
+    }
+
+    /*
+        A read blocks until the producer sends more, so the values are parsed on a reader thread and handed over
+        through a queue, which the calling thread polls until the current chunk is due. The queue holds at most one
+        chunk, so a slow consumer holds up the reader instead of values piling up in memory. This only returns once
+        the reader is done, closing the stream first when the consumer failed, so the stream is never read after.
+     */
+    private static long readValuesAsTheyArrive(InputStream inputStream, JsonParser parser, int chunkSize,
+                                               long maxChunkAgeMillis, Consumer<List<JsonNode>> chunkConsumer)
+            throws IOException {
+        BlockingQueue<Object> values = new ArrayBlockingQueue<>(chunkSize);
+        Thread reader = new Thread(() -> readValues(parser, values), "json-value-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            long count = 0;
+            long dueAt = 0;
+            List<JsonNode> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                Object value = chunk.isEmpty() ? values.take() :
+                        values.poll(dueAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (value instanceof ReadEnd end) {
+                    if (end.error() instanceof IOException e) {
+                        throw e;
+                    }
+                    if (end.error() instanceof RuntimeException e) {
+                        throw e;
+                    }
+                    if (!chunk.isEmpty()) {
+                        chunkConsumer.accept(chunk);
+                    }
+                    return count;
+                }
+                if (value != null) {
+                    if (chunk.isEmpty()) {
+                        dueAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxChunkAgeMillis);
+                    }
+                    chunk.add((JsonNode) value);
+                    count++;
+                }
+                //nothing arrived before the chunk was due, or the last value filled it or came in late
+                if (value == null || chunk.size() == chunkSize || System.nanoTime() - dueAt >= 0) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading values");
+        } finally {
+            stopReader(reader, inputStream);
+        }
+    }
+
+    private static void readValues(JsonParser parser, BlockingQueue<Object> values) {
+        Exception error = null;
+        try (parser) {
+            JsonToken token = parser.nextToken();
+            while (token != null) {
+                values.put(MAPPER.readTree(parser));
+                token = nextRootToken(parser);
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            //the caller stopped reading
+            return;
+        }
+        try {
+            values.put(new ReadEnd(error));
+        } catch (InterruptedException e) {
+            //the caller stopped reading
+        }
+    }
+
+    private static void stopReader(Thread reader, InputStream inputStream) {
+        if (!reader.isAlive()) {
+            return;
+        }
+        try {
+            //a reader blocked on the stream fails its next read
+            inputStream.close();
+        } catch (IOException e) {
+            //the reader ends once the read returns either way
+        }
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //handed over by the reader once the stream ends, with the error that ended it if any
+    private record ReadEnd(Exception error) {
+    }
 }
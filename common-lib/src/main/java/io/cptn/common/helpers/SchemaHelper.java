@@ -0,0 +1,53 @@
+package io.cptn.common.helpers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import com.networknt.schema.SpecVersionDetector;
+import com.networknt.schema.ValidationMessage;
+import io.cptn.common.exceptions.BadRequestException;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/* @author: kc, created on 10/18/26 */
+public class SchemaHelper {
+
+    //used when the schema does not declare its version with $schema
+    private static final SpecVersion.VersionFlag DEFAULT_VERSION = SpecVersion.VersionFlag.V202012;
+
+    private static final int MAX_ERRORS_LENGTH = 1000;
+
+    private SchemaHelper() {
+    }
+
+    /**
+     * Compiles a JSON Schema into a validator that can be reused across threads.
+     *
+     * @throws BadRequestException when the schema cannot be compiled
+     */
+    public static JsonSchema compile(JsonNode schema) {
+        if (schema == null || !schema.isObject()) {
+            throw new BadRequestException("JSON Schema must be an object");
+        }
+        try {
+            SpecVersion.VersionFlag version = SpecVersionDetector.detectOptionalVersion(schema)
+                    .orElse(DEFAULT_VERSION);
+            JsonSchema jsonSchema = JsonSchemaFactory.getInstance(version).getSchema(schema);
+            //references and keywords are resolved lazily, this resolves them while the schema is saved
+            jsonSchema.initializeValidators();
+            return jsonSchema;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid JSON Schema: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Joins validation errors into a single message, capped in length.
+     */
+    public static String describe(Set<ValidationMessage> errors) {
+        String description = errors.stream().map(ValidationMessage::getMessage).collect(Collectors.joining("; "));
+        return description.length() > MAX_ERRORS_LENGTH ? description.substring(0, MAX_ERRORS_LENGTH) : description;
+    }
+}
@@ -0,0 +1,48 @@
+package io.cptn.common.helpers;
+
+import io.cptn.common.exceptions.UnauthorizedException;
+import io.cptn.common.pojos.SecuredSource;
+import lombok.extern.slf4j.Slf4j;
+
+/* @author: kc, created on 10/18/26 */
+
+@Slf4j
+public class SourceKeyHelper {
+
+    private SourceKeyHelper() {
+    }
+
+    /**
+     * Checks the key sent in the Authorization header or the token parameter against the keys of a secured source.
+     * The secondary key is still accepted after a rotation, but its use is logged.
+     */
+    public static void verify(SecuredSource source, String authHeader, String token) {
+        if (Boolean.FALSE.equals(source.getSecured())) {
+            return;
+        }
+
+        if (matches(source.getPrimaryKey(), authHeader, token)) {
+            return;
+        }
+
+        if (matches(source.getSecondaryKey(), authHeader, token)) {
+            log.warn("Secondary key used for source: {}", source.getId());
+            return;
+        }
+
+        throw new UnauthorizedException("Unauthorized");
+    }
+
+    /**
+     * Whether a key that was verified before is still accepted by the source, e.g. for every message of a long-lived
+     * connection. Nothing is logged, as this runs far more often than verify.
+     */
+    public static boolean isValid(SecuredSource source, String authHeader, String token) {
+        return Boolean.FALSE.equals(source.getSecured()) || matches(source.getPrimaryKey(), authHeader, token) ||
+                matches(source.getSecondaryKey(), authHeader, token);
+    }
+
+    private static boolean matches(String key, String authHeader, String token) {
+        return key != null && (key.equals(authHeader) || key.equals(token));
+    }
+}
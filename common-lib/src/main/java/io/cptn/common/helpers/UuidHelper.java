@@ -0,0 +1,47 @@
+package io.cptn.common.helpers;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Version 7 UUIDs: a 48 bit unix timestamp in milliseconds, a 12 bit counter and 62 random bits. Ids made later sort
+    after earlier ones as Postgres compares uuids, so rows are appended to the right end of indexes on them instead of
+    landing on random pages. Ids only increase strictly within one process, replicas are apart by their clock skew,
+    so ids are not used to order events.
+ */
+public class UuidHelper {
+
+    private static final int COUNTER_BITS = 12;
+
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private static final long VERSION_7 = 0x7000L;
+
+    private static final long VARIANT = 0x8000000000000000L;
+
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    //timestamp and counter of the last id, ids from the same millisecond take the next counter value
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+    private UuidHelper() {
+    }
+
+    /**
+     * A new time ordered id. Ids from one process increase strictly, also when many are made within a millisecond or
+     * the clock goes back, in which case the timestamp of the last id is carried on. The random bits keep ids from
+     * different processes apart, they are not meant to make ids hard to guess.
+     */
+    public static UUID newTimeOrderedId() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long timestampAndCounter = LAST_TIMESTAMP_AND_COUNTER.updateAndGet(last -> Math.max(now, last + 1));
+
+        long timestamp = timestampAndCounter >>> COUNTER_BITS;
+        long mostSigBits = (timestamp << 16) | VERSION_7 | (timestampAndCounter & COUNTER_MASK);
+        long leastSigBits = (ThreadLocalRandom.current().nextLong() & RANDOM_MASK) | VARIANT;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,20 @@
+package io.cptn.common.listeners;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * Generates ids of new entities with {@link io.cptn.common.helpers.UuidHelper#newTimeOrderedId()} when they are a
+ * {@link io.cptn.common.entities.TimeOrderedEntity}, and random ids otherwise.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TimeOrderedId {
+}
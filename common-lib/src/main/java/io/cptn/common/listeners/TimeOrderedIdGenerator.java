@@ -0,0 +1,30 @@
+package io.cptn.common.listeners;
+
+import io.cptn.common.entities.TimeOrderedEntity;
+import io.cptn.common.helpers.UuidHelper;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Time ordered ids for TimeOrderedEntity, random ids like the default uuid generator for everything else
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return owner instanceof TimeOrderedEntity ? UuidHelper.newTimeOrderedId() : UUID.randomUUID();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
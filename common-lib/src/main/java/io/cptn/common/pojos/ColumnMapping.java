@@ -0,0 +1,152 @@
+package io.cptn.common.pojos;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.JsonHelper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Maps the columns of a CSV row to fields of an event. A mapping is an object from column name to a JSON pointer,
+    or to an object with a pointer and a type when the value should not be kept as a string:
+
+        {"order_id": "/order/id", "amount": {"pointer": "/amount", "type": "number"}}
+
+    Columns that are not mapped are left out. Without a mapping every column becomes a top level string field.
+ */
+public class ColumnMapping {
+
+    private static final ColumnMapping IDENTITY = new ColumnMapping(null);
+
+    //null maps every column to a top level field
+    private final Map<String, Target> targets;
+
+    private ColumnMapping(Map<String, Target> targets) {
+        this.targets = targets;
+    }
+
+    public static ColumnMapping identity() {
+        return IDENTITY;
+    }
+
+    /**
+     * Checks and compiles a mapping so that it can be applied to many rows.
+     *
+     * @throws BadRequestException when the mapping is not valid
+     */
+    public static ColumnMapping compile(JsonNode mapping) {
+        if (mapping == null || !mapping.isObject() || mapping.isEmpty()) {
+            throw new BadRequestException("Column mapping must be an object with at least one column");
+        }
+        Map<String, Target> targets = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = mapping.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            targets.put(field.getKey(), toTarget(field.getKey(), field.getValue()));
+        }
+        return new ColumnMapping(targets);
+    }
+
+    /**
+     * Builds the event for a row read with the header as keys. Empty cells are left out unless they map to a string.
+     *
+     * @throws BadRequestException when a cell cannot be converted to the type of its column
+     */
+    public ObjectNode toPayload(Map<String, String> row) {
+        ObjectNode payload = JsonNodeFactory.instance.objectNode();
+        if (targets == null) {
+            row.forEach(payload::put);
+            return payload;
+        }
+        targets.forEach((column, target) -> {
+            String value = row.get(column);
+            if (value == null || (value.isEmpty() && target.type() != Type.STRING)) {
+                return;
+            }
+            set(payload, target.pointer(), convert(column, value, target.type()));
+        });
+        return payload;
+    }
+
+    private static Target toTarget(String column, JsonNode value) {
+        JsonNode pointer = value.isObject() ? value.get("pointer") : value;
+        if (pointer == null || !pointer.isTextual()) {
+            throw new BadRequestException("Column " + column + " must be mapped to a JSON pointer");
+        }
+        Type type = Type.STRING;
+        JsonNode typeNode = value.get("type");
+        if (typeNode != null && !typeNode.isNull()) {
+            try {
+                type = Type.valueOf(typeNode.asText().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid type for column " + column + ": " + typeNode.asText());
+            }
+        }
+        try {
+            JsonPointer jsonPointer = JsonPointer.compile(pointer.asText());
+            if (jsonPointer.matches()) {
+                //the root cannot be set from a single column
+                throw new IllegalArgumentException();
+            }
+            return new Target(jsonPointer, type);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid JSON pointer for column " + column + ": " + pointer.asText());
+        }
+    }
+
+    private static JsonNode convert(String column, String value, Type type) {
+        try {
+            return switch (type) {
+                case STRING -> JsonNodeFactory.instance.textNode(value);
+                case NUMBER -> JsonNodeFactory.instance.numberNode(new BigDecimal(value.trim()));
+                case INTEGER -> JsonNodeFactory.instance.numberNode(Long.parseLong(value.trim()));
+                case BOOLEAN -> JsonNodeFactory.instance.booleanNode(parseBoolean(value.trim()));
+                case JSON -> JsonHelper.getMapper().readTree(value);
+            };
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestException("Invalid " + type.name().toLowerCase(Locale.ROOT) + " in column " + column);
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException(value);
+    }
+
+    /*
+        Objects along the pointer are created as needed, so /order/id and /order/total end up in the same object
+     */
+    private static void set(ObjectNode payload, JsonPointer pointer, JsonNode value) {
+        ObjectNode parent = payload;
+        JsonPointer current = pointer;
+        while (!current.tail().matches()) {
+            JsonNode child = parent.get(current.getMatchingProperty());
+            parent = child instanceof ObjectNode objectNode ? objectNode :
+                    parent.putObject(current.getMatchingProperty());
+            current = current.tail();
+        }
+        parent.set(current.getMatchingProperty(), value);
+    }
+
+    public enum Type {
+        STRING, NUMBER, INTEGER, BOOLEAN, JSON
+    }
+
+    private record Target(JsonPointer pointer, Type type) {
+    }
+}
@@ -0,0 +1,26 @@
+package io.cptn.common.pojos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.helpers.JsonHelper;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * The tree parsed from a serialized payload, kept with the string it came from so that a cached tree can be checked
+ * against the current value of an entity without comparing contents.
+ */
+public record ParsedPayload(String serialized, JsonNode tree) {
+
+    public static ParsedPayload of(String serialized) {
+        return new ParsedPayload(serialized, JsonHelper.deserializeJson(serialized));
+    }
+
+    /**
+     * Whether the tree was parsed from this very string. Entities replace the string when the payload changes, also
+     * when Hibernate loads or refreshes them, so an identity check is enough to tell that the tree is stale.
+     */
+    @SuppressWarnings("StringEquality")
+    public boolean isParsedFrom(String serialized) {
+        return this.serialized == serialized;
+    }
+}
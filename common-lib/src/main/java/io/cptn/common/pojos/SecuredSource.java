@@ -0,0 +1,20 @@
+package io.cptn.common.pojos;
+
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * What is needed to verify the keys sent to a source, implemented by the Source entity and by the read models of
+ * services that do not load it through JPA
+ */
+public interface SecuredSource {
+
+    UUID getId();
+
+    Boolean getSecured();
+
+    String getPrimaryKey();
+
+    String getSecondaryKey();
+}
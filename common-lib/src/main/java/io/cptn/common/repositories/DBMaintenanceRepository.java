@@ -6,39 +6,101 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
 /* @author: kc, created on 3/9/23 */
+
+/*
+    Maintains the partitions of inbound_queue and outbound_queue. Both are partitioned by range on created_at, with one
+    partition per UTC day named <table>_pYYYYMMDD, a <table>_until_YYYYMMDD partition holding the rows from before the
+    tables were partitioned, and a <table>_default partition that stays empty as long as daily partitions are created
+    ahead of time. Table names are never taken from user input, they are formatted into the statements as DDL cannot
+    be parameterized.
+ */
 @Repository
 @RequiredArgsConstructor
 public class DBMaintenanceRepository {
 
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyyMMdd");
+
+    private static final DateTimeFormatter HISTORY_PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_until_'yyyyMMdd");
+
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("''yyyy-MM-dd HH:mm:ssx''");
+
+    //a partition operation gives up instead of queueing every query on the table behind its lock
+    private static final String LOCK_TIMEOUT = "SET LOCAL lock_timeout = '5s'";
+
     @PersistenceContext
     private final EntityManager entityManager;
 
+    public static String getPartitionName(String table, LocalDate day) {
+        return table + PARTITION_SUFFIX.format(day);
+    }
+
+    /**
+     * The day of a daily partition, null for the default partition or any other table attached to the parent
+     */
+    public static LocalDate getPartitionDay(String table, String partition) {
+        return parseSuffix(table, partition, PARTITION_SUFFIX);
+    }
+
+    /**
+     * The day up to which a partition holds rows, exclusive. Null for the default partition or any other table
+     * attached to the parent, which are never dropped.
+     */
+    public static LocalDate getPartitionEnd(String table, String partition) {
+        LocalDate day = getPartitionDay(table, partition);
+        return day != null ? day.plusDays(1) : parseSuffix(table, partition, HISTORY_PARTITION_SUFFIX);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> getPartitions(String table) {
+        String query = "SELECT CAST(c.relname AS text) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid" +
+                " WHERE i.inhparent = CAST(:table AS regclass) ORDER BY c.relname";
+        return entityManager.createNativeQuery(query).setParameter("table", table).getResultList();
+    }
+
+    /**
+     * Creates the partition of a day. Postgres checks that the default partition holds no rows of the day, which is
+     * instant while it is empty. Should rows of the day have landed there, because partitions were not created for
+     * longer than the look-ahead, this fails until they are removed.
+     */
     @Transactional
-    public void rotateOutboundQueues() {
-        String query = "TRUNCATE TABLE outbound_rotated_2;" +
-                "BEGIN;" +
-                "ALTER TABLE outbound_write_queue RENAME TO outbound_write_queue_temp;" +
-                "ALTER TABLE outbound_rotated_1 RENAME TO outbound_write_1_temp;" +
-                "ALTER TABLE outbound_rotated_2 RENAME TO outbound_write_queue;" +
-                "ALTER TABLE outbound_write_queue_temp RENAME TO outbound_rotated_1;" +
-                "ALTER TABLE outbound_write_1_temp RENAME TO outbound_rotated_2;" +
-                "COMMIT;";
-        entityManager.createNativeQuery(query).executeUpdate();
+    public void createDailyPartition(String table, LocalDate day) {
+        String from = BOUND.format(day.atStartOfDay(ZoneOffset.UTC));
+        String to = BOUND.format(day.plusDays(1).atStartOfDay(ZoneOffset.UTC));
+
+        execute(LOCK_TIMEOUT);
+        execute("CREATE TABLE " + getPartitionName(table, day) + " PARTITION OF " + table + " FOR VALUES FROM (" +
+                from + ") TO (" + to + ")");
     }
 
+    /**
+     * Drops a whole partition, which costs the same however many rows it holds and leaves no dead rows behind.
+     */
     @Transactional
-    public void rotateInboundQueues() {
-        String query = "TRUNCATE TABLE inbound_rotated_2;" +
-                "BEGIN;" +
-                "ALTER TABLE inbound_write_queue RENAME TO inbound_write_queue_temp;" +
-                "ALTER TABLE inbound_rotated_1 RENAME TO inbound_write_1_temp;" +
-                "ALTER TABLE inbound_rotated_2 RENAME TO inbound_write_queue;" +
-                "ALTER TABLE inbound_write_queue_temp RENAME TO inbound_rotated_1;" +
-                "ALTER TABLE inbound_write_1_temp RENAME TO inbound_rotated_2;" +
-                "COMMIT;";
-        entityManager.createNativeQuery(query).executeUpdate();
+    public void dropPartition(String table, String partition) {
+        execute(LOCK_TIMEOUT);
+        execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+        execute("DROP TABLE " + partition);
     }
-}
 
+    private static LocalDate parseSuffix(String table, String partition, DateTimeFormatter suffix) {
+        if (!partition.startsWith(table)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(table.length()), suffix);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 
+    private void execute(String statement) {
+        entityManager.createNativeQuery(statement).executeUpdate();
+    }
+}
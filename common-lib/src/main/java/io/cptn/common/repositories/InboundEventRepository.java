@@ -32,13 +32,17 @@ public interface InboundEventRepository extends JpaRepository<InboundEvent, UUID
     List<StatusMetric> getStatusCountsForEvents(@Param("source") UUID sourceId, @Param(
             "createdAfter") ZonedDateTime createdAfter);
 
+    //capped so that sampling a very large backlog stays cheap, the partial index on QUEUED rows serves both queries
+    @Query(value = "SELECT count(*) FROM (SELECT 1 FROM inbound_queue WHERE state='QUEUED' LIMIT :limit) queued",
+            nativeQuery = true)
+    long countQueuedEvents(@Param("limit") long limit);
+
+    @Query(value = "SELECT CAST(EXTRACT(EPOCH FROM now() - min(created_at)) AS double precision) FROM inbound_queue" +
+            " WHERE state='QUEUED'", nativeQuery = true)
+    Double getOldestQueuedEventAgeSeconds();
+
     @Modifying
     @Transactional
     @Query(value = "UPDATE InboundEvent SET state=:state where id = :eventId")
     void updateEventState(UUID eventId, State state);
-
-    @Modifying
-    @Transactional
-    @Query(value = "DELETE FROM inbound_queue WHERE inbound_queue.created_at < :createdBefore", nativeQuery = true)
-    void purgeStaleDataInInboundQueue(@Param("createdBefore") ZonedDateTime createdBefore);
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package io.cptn.common.repositories;
+
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.helpers.UuidHelper;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Writes inbound events with plain JDBC batches or COPY instead of one JPA save per event. Ids and audit columns are
+    filled in here as the EntityListener is not involved on these paths. Inserts skip rows that already exist, so
+    events written again with the same id and created_at, as a write-ahead log replay after a crash does, are no-ops.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InboundWriteEventBulkRepository {
+
+    private static final String SYSTEM_USER = "system";
+
+    private static final String INSERT_QUERY = "INSERT INTO inbound_queue (id, version, created_at, " +
+            "updated_at, created_by, updated_by, payload, source_id, state) VALUES (?, ?, ?, ?, ?, ?, CAST(? AS json)," +
+            " ?, ?) ON CONFLICT (id, created_at) DO NOTHING";
+
+    private static final String COPY_QUERY = "COPY inbound_queue (id, version, created_at, updated_at, " +
+            "created_by, updated_by, payload, source_id, state) FROM STDIN WITH (FORMAT csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<InboundWriteEvent> insertAll(List<InboundWriteEvent> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+
+        prepareForInsert(events);
+        jdbcTemplate.batchUpdate(INSERT_QUERY, events, events.size(), (ps, event) -> {
+            ps.setObject(1, event.getId());
+            ps.setInt(2, event.getVersion());
+            ps.setObject(3, event.getCreatedAt().toOffsetDateTime());
+            ps.setObject(4, event.getUpdatedAt().toOffsetDateTime());
+            ps.setString(5, event.getCreatedBy());
+            ps.setString(6, event.getUpdatedBy());
+            ps.setString(7, event.getSerializedPayload());
+            ps.setObject(8, event.getSource() != null ? event.getSource().getId() : null, Types.OTHER);
+            ps.setString(9, event.getState().name());
+        });
+        return events;
+    }
+
+    /**
+     * Streams the events into inbound_queue with a single COPY statement. Must be called within a
+     * transaction so that the COPY runs on the transaction bound connection.
+     *
+     * @return number of rows written
+     */
+    public long copyAll(List<InboundWriteEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        prepareForInsert(events);
+        StringBuilder rows = new StringBuilder();
+        events.forEach(event -> appendCsvRow(rows, event));
+
+        Long count = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_QUERY,
+                        new StringReader(rows.toString()));
+            } catch (IOException e) {
+                throw new SQLException("Failed to copy events to inbound_queue", e);
+            }
+        });
+        return count != null ? count : 0;
+    }
+
+    private void prepareForInsert(List<InboundWriteEvent> events) {
+        //COPY and the timestamp columns only keep microseconds
+        ZonedDateTime timeNow = ZonedDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        events.forEach(event -> {
+            if (event.getId() == null) {
+                event.setId(UuidHelper.newTimeOrderedId());
+            }
+            //kept when set, so that an event written again lands on the same key
+            if (event.getCreatedAt() == null) {
+                event.setCreatedAt(timeNow);
+            }
+            event.setUpdatedAt(timeNow);
+            event.setCreatedBy(SYSTEM_USER);
+            event.setUpdatedBy(SYSTEM_USER);
+        });
+    }
+
+    private void appendCsvRow(StringBuilder rows, InboundWriteEvent event) {
+        rows.append(event.getId()).append(',')
+                .append(event.getVersion()).append(',')
+                .append(event.getCreatedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)).append(',')
+                .append(event.getUpdatedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)).append(',')
+                .append(event.getCreatedBy()).append(',')
+                .append(event.getUpdatedBy()).append(',');
+        String payload = event.getSerializedPayload();
+        if (payload != null) {
+            //an unquoted empty value is NULL in csv format, everything else is quoted with quotes doubled
+            rows.append('"').append(payload.replace("\"", "\"\"")).append('"');
+        }
+        rows.append(',');
+        if (event.getSource() != null) {
+            rows.append(event.getSource().getId());
+        }
+        rows.append(',').append(event.getState().name()).append('\n');
+    }
+}
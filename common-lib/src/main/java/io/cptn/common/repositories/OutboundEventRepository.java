@@ -26,11 +26,6 @@ public interface OutboundEventRepository extends JpaRepository<OutboundEvent, UU
     List<StatusMetric> getStatusCountsForOutboundEvents(@Param("pipeline") UUID pipelineId, @Param(
             "createdAfter") ZonedDateTime createdAfter);
 
-    @Modifying
-    @Transactional
-    @Query(value = "DELETE FROM outbound_queue WHERE outbound_queue.created_at < :createdBefore", nativeQuery = true)
-    void purgeStaleDataInOutboundQueue(@Param("createdBefore") ZonedDateTime createdBefore);
-
     @Modifying
     @Transactional
     @Query(value = "UPDATE outbound_queue SET state = 'QUEUED' WHERE state = 'FAILED' AND pipeline_id = :pipeline", nativeQuery = true)
@@ -0,0 +1,22 @@
+package io.cptn.common.repositories;
+
+import io.cptn.common.entities.QuarantinedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+@Repository
+public interface QuarantinedEventRepository extends JpaRepository<QuarantinedEvent, UUID> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM inbound_quarantine WHERE created_at < :createdBefore", nativeQuery = true)
+    void purgeStaleDataInQuarantine(@Param("createdBefore") ZonedDateTime createdBefore);
+}
@@ -0,0 +1,67 @@
+package io.cptn.common;
+
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.pojos.ColumnMapping;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/* @author: kc, created on 10/18/26 */
+class ColumnMappingTests {
+
+    @Test
+    void mappedColumnsTest() {
+        ColumnMapping mapping = ColumnMapping.compile(JsonHelper.deserializeJson(
+                "{\"order_id\": \"/order/id\", \"total\": {\"pointer\": \"/order/total\", \"type\": \"number\"}, " +
+                        "\"paid\": {\"pointer\": \"/paid\", \"type\": \"boolean\"}, " +
+                        "\"qty\": {\"pointer\": \"/qty\", \"type\": \"integer\"}}"));
+
+        Map<String, String> row = new LinkedHashMap<>();
+        row.put("order_id", "A-1");
+        row.put("total", "10.50");
+        row.put("paid", "TRUE");
+        row.put("qty", "");
+        row.put("ignored", "x");
+
+        //unmapped columns and empty typed cells are left out
+        assertEquals("{\"order\":{\"id\":\"A-1\",\"total\":10.50},\"paid\":true}",
+                JsonHelper.serializeJson(mapping.toPayload(row)));
+    }
+
+    @Test
+    void identityTest() {
+        Map<String, String> row = new LinkedHashMap<>();
+        row.put("a", "1");
+        row.put("b", "");
+
+        assertEquals("{\"a\":\"1\",\"b\":\"\"}", JsonHelper.serializeJson(ColumnMapping.identity().toPayload(row)));
+    }
+
+    @Test
+    void invalidValueTest() {
+        ColumnMapping mapping = ColumnMapping.compile(JsonHelper.deserializeJson(
+                "{\"qty\": {\"pointer\": \"/qty\", \"type\": \"integer\"}}"));
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> mapping.toPayload(Map.of("qty", "1.5")));
+        assertEquals("Invalid integer in column qty", e.getMessage());
+    }
+
+    @Test
+    void invalidMappingTest() {
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> ColumnMapping.compile(JsonHelper.deserializeJson("{\"a\": \"a\"}")));
+        assertEquals("Invalid JSON pointer for column a: a", e.getMessage());
+
+        e = assertThrows(BadRequestException.class,
+                () -> ColumnMapping.compile(JsonHelper.deserializeJson("{\"a\": {\"pointer\": \"/a\", \"type\": \"x\"}}")));
+        assertEquals("Invalid type for column a: x", e.getMessage());
+
+        assertThrows(BadRequestException.class, () -> ColumnMapping.compile(JsonHelper.deserializeJson("{}")));
+        assertThrows(BadRequestException.class, () -> ColumnMapping.compile(JsonHelper.deserializeJson("{\"a\": 1}")));
+    }
+}
@@ -0,0 +1,48 @@
+package io.cptn.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.cptn.common.entities.InboundEvent;
+import io.cptn.common.entities.OutboundWriteEvent;
+import io.cptn.common.helpers.JsonHelper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/* @author: kc, created on 10/18/26 */
+class EventPayloadTests {
+
+    @Test
+    void parsedOnceTest() {
+        InboundEvent event = new InboundEvent();
+        event.setSerializedPayload("{\"foo\":\"bar\"}");
+
+        JsonNode payload = event.getPayload();
+        assertSame(payload, event.getPayload());
+
+        event.setSerializedPayload("{\"foo\":\"baz\"}");
+        assertEquals("baz", event.getPayload().get("foo").asText());
+    }
+
+    @Test
+    void setPayloadKeepsSnapshotTest() {
+        ObjectNode payload = JsonHelper.getMapper().createObjectNode().put("foo", "bar");
+        OutboundWriteEvent event = new OutboundWriteEvent();
+        event.setPayload(payload);
+        payload.put("foo", "changed");
+
+        assertEquals("{\"foo\":\"bar\"}", event.getSerializedPayload());
+        assertEquals("bar", event.getPayload().get("foo").asText());
+    }
+
+    @Test
+    void nullPayloadTest() {
+        InboundEvent event = new InboundEvent();
+        assertNull(event.getPayload());
+
+        event.setSerializedPayload("[1]");
+        assertEquals(1, event.getPayload().size());
+    }
+}
@@ -3,9 +3,13 @@ package io.cptn.common;
 import io.cptn.common.exceptions.BadRequestException;
 import io.cptn.common.exceptions.CommonExceptionHandler;
 import io.cptn.common.exceptions.NotFoundException;
+import io.cptn.common.exceptions.PayloadTooLargeException;
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import io.cptn.common.exceptions.TooManyRequestsException;
 import io.cptn.common.exceptions.WebApplicationException;
 import io.cptn.common.exceptions.models.AppError;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -65,6 +69,35 @@ class ExceptionTests {
         assertEquals(0, responseEntity.getBody().getFieldErrors().size());
     }
 
+    @Test
+    void ServiceUnavailableExceptionTest() {
+        ServiceUnavailableException exception = new ServiceUnavailableException("Try again later", 5);
+        ResponseEntity<AppError> responseEntity = exceptionHandler.handleException(exception);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        assertEquals(exception.getMessage(), responseEntity.getBody().getMessage());
+        assertEquals("5", responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void TooManyRequestsExceptionTest() {
+        TooManyRequestsException exception = new TooManyRequestsException("Slow down", 3);
+        ResponseEntity<AppError> responseEntity = exceptionHandler.handleException(exception);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, responseEntity.getStatusCode());
+        assertEquals(exception.getMessage(), responseEntity.getBody().getMessage());
+        assertEquals("3", responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void PayloadTooLargeExceptionTest() {
+        PayloadTooLargeException exception = new PayloadTooLargeException("Too large");
+        ResponseEntity<AppError> responseEntity = exceptionHandler.handleException(exception);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, responseEntity.getStatusCode());
+        assertEquals(exception.getMessage(), responseEntity.getBody().getMessage());
+    }
+
     @Test
     void WebApplicationExceptionTest() {
         WebApplicationException exception = new WebApplicationException("Unknown error");
@@ -0,0 +1,100 @@
+package io.cptn.common;
+
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.Source;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.repositories.InboundWriteEventBulkRepository;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.io.Reader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/* @author: kc, created on 10/18/26 */
+class InboundWriteEventBulkRepositoryTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insertAllTest() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        InboundWriteEventBulkRepository repository = new InboundWriteEventBulkRepository(jdbcTemplate);
+
+        Source source = new Source(UUID.randomUUID());
+        InboundWriteEvent event1 = new InboundWriteEvent();
+        event1.setSource(source);
+        event1.setPayload(JsonHelper.getMapper().createObjectNode().put("foo", "bar"));
+        InboundWriteEvent event2 = new InboundWriteEvent();
+        event2.setSource(source);
+        event2.setPayload(JsonHelper.getMapper().createObjectNode().put("bar", "baz"));
+
+        List<InboundWriteEvent> events = repository.insertAll(List.of(event1, event2));
+
+        assertSame(event1, events.get(0));
+        assertSame(event2, events.get(1));
+        events.forEach(event -> {
+            assertNotNull(event.getId());
+            assertNotNull(event.getCreatedAt());
+            assertEquals(event.getCreatedAt(), event.getUpdatedAt());
+            assertEquals("system", event.getCreatedBy());
+        });
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), eq(events), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void copyAllTest() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(
+                invocation -> ((ConnectionCallback<Long>) invocation.getArgument(0)).doInConnection(connection));
+
+        StringWriter copied = new StringWriter();
+        when(copyManager.copyIn(anyString(), any(Reader.class))).thenAnswer(invocation -> {
+            try (Reader reader = invocation.getArgument(1)) {
+                reader.transferTo(copied);
+            }
+            return 1L;
+        });
+
+        InboundWriteEventBulkRepository repository = new InboundWriteEventBulkRepository(jdbcTemplate);
+        Source source = new Source(UUID.randomUUID());
+        InboundWriteEvent event = new InboundWriteEvent();
+        event.setSource(source);
+        event.setPayload(JsonHelper.getMapper().createObjectNode().put("foo", "say \"hi\", bye"));
+
+        assertEquals(1, repository.copyAll(List.of(event)));
+
+        String[] columns = copied.toString().split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        assertEquals(9, columns.length);
+        assertEquals(event.getId().toString(), columns[0]);
+        assertEquals("0", columns[1]);
+        assertEquals("\"{\"\"foo\"\":\"\"say \\\"\"hi\\\"\", bye\"\"}\"", columns[6]);
+        assertEquals(source.getId().toString(), columns[7]);
+        assertEquals("QUEUED\n", columns[8]);
+    }
+
+    @Test
+    void insertNothingTest() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        InboundWriteEventBulkRepository repository = new InboundWriteEventBulkRepository(jdbcTemplate);
+
+        assertTrue(repository.insertAll(List.of()).isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,173 @@
+package io.cptn.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.JsonHelper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/* @author: kc, created on 10/18/26 */
+class JsonHelperTests {
+
+    @Test
+    void readArrayInChunksTest() throws IOException {
+        List<List<JsonNode>> chunks = new ArrayList<>();
+        long count = JsonHelper.readArrayInChunks(stream("[{\"a\":1},{\"b\":2},{\"c\":3}]"), 2, chunks::add);
+
+        assertEquals(3, count);
+        assertEquals(2, chunks.size());
+        assertEquals(2, chunks.get(0).size());
+        assertEquals(1, chunks.get(1).size());
+        assertEquals(3, chunks.get(1).get(0).get("c").asInt());
+    }
+
+    @Test
+    void readEmptyArrayTest() throws IOException {
+        List<List<JsonNode>> chunks = new ArrayList<>();
+        long count = JsonHelper.readArrayInChunks(stream("[]"), 2, chunks::add);
+
+        assertEquals(0, count);
+        assertEquals(0, chunks.size());
+    }
+
+    @Test
+    void readNonArrayTest() {
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> JsonHelper.readArrayInChunks(stream("{\"a\":1}"), 2, chunk -> {
+                }));
+        assertEquals("Payload must be a JSON array", e.getMessage());
+    }
+
+    @Test
+    void readMalformedArrayTest() {
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> JsonHelper.readArrayInChunks(stream("[{\"a\":1},{\"b\""), 2, chunk -> {
+                }));
+        assertEquals("Failed to deserialize payload", e.getMessage());
+    }
+
+    @Test
+    void readValuesInChunksTest() throws IOException {
+        List<List<JsonNode>> chunks = new ArrayList<>();
+        long count = JsonHelper.readValuesInChunks(stream("{\"a\":1}\n{\"b\":2}\n\n{\"c\":3}\n"), 2,
+                Long.MAX_VALUE, chunks::add);
+
+        assertEquals(3, count);
+        assertEquals(2, chunks.size());
+        assertEquals(1, chunks.get(0).get(0).get("a").asInt());
+        assertEquals(3, chunks.get(1).get(0).get("c").asInt());
+    }
+
+    @Test
+    void readValuesWithChunkAgeTest() throws IOException {
+        List<List<JsonNode>> chunks = new ArrayList<>();
+        long count = JsonHelper.readValuesInChunks(stream("{\"a\":1}\n{\"b\":2}\n"), 100, 0, chunks::add);
+
+        assertEquals(2, count);
+        assertEquals(2, chunks.size());
+    }
+
+    @Test
+    void readValuesFromStalledStreamTest() throws Exception {
+        PipedOutputStream producer = new PipedOutputStream();
+        PipedInputStream body = new PipedInputStream(producer);
+        BlockingQueue<List<JsonNode>> chunks = new LinkedBlockingQueue<>();
+        CompletableFuture<Long> count = CompletableFuture.supplyAsync(() -> {
+            try {
+                return JsonHelper.readValuesInChunks(body, 100, 50, chunks::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        //the producer sends one value and then nothing, the chunk is still handed over once it is due
+        producer.write(bytes("{\"a\":1}\n"));
+        producer.flush();
+        List<JsonNode> chunk = chunks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(chunk);
+        assertEquals(1, chunk.get(0).get("a").asInt());
+        assertFalse(count.isDone());
+
+        producer.write(bytes("{\"b\":2}\n"));
+        producer.close();
+        assertEquals(2, count.get(5, TimeUnit.SECONDS));
+        assertEquals(2, chunks.poll(5, TimeUnit.SECONDS).get(0).get("b").asInt());
+    }
+
+    @Test
+    void readMalformedValuesTest() {
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> JsonHelper.readValuesInChunks(stream("{\"a\":1}\n{\"b\"\n"), 2, Long.MAX_VALUE, chunk -> {
+                }));
+        assertEquals("Failed to deserialize payload", e.getMessage());
+    }
+
+    @Test
+    void readRawJsonTest() throws IOException {
+        String json = "{\"a\": [1, 2, {\"b\": \"ü\"}]}";
+        assertEquals(json, JsonHelper.readRawJson(bytes(json), null, null));
+        assertEquals("[1,2]", JsonHelper.readRawJson(bytes("[1,2]"), "cptn", IntNode.valueOf(1)));
+    }
+
+    @Test
+    void readRawJsonWithFieldTest() throws IOException {
+        assertEquals("{\"a\":\"ü\",\"cptn\":1}", JsonHelper.readRawJson(bytes("{\"a\":\"ü\"}"), "cptn",
+                IntNode.valueOf(1)));
+        assertEquals("{\"cptn\":1}", JsonHelper.readRawJson(bytes("{}"), "cptn", IntNode.valueOf(1)));
+        //an existing field is left alone
+        assertEquals("{\"cptn\":2}", JsonHelper.readRawJson(bytes("{\"cptn\":2}"), "cptn", IntNode.valueOf(1)));
+    }
+
+    @Test
+    void readValueTest() throws IOException {
+        JsonNode value = JsonHelper.readValue("{\"a\": [1, 2]}".getBytes(StandardCharsets.UTF_8),
+                JsonHelper.getMapper().getFactory());
+        assertEquals(2, value.get("a").get(1).asInt());
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> JsonHelper.readValue(
+                "{} {}".getBytes(StandardCharsets.UTF_8), JsonHelper.getMapper().getFactory()));
+        assertEquals("Payload must be a single JSON value", e.getMessage());
+        assertThrows(BadRequestException.class, () -> JsonHelper.readValue(new byte[0],
+                JsonHelper.getMapper().getFactory()));
+    }
+
+    @Test
+    void readInvalidRawJsonTest() {
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> JsonHelper.readRawJson(bytes("{\"a\":1"), null, null));
+        assertEquals("Failed to deserialize payload", e.getMessage());
+
+        e = assertThrows(BadRequestException.class, () -> JsonHelper.readRawJson(bytes(""), null, null));
+        assertEquals("Failed to deserialize payload", e.getMessage());
+
+        e = assertThrows(BadRequestException.class, () -> JsonHelper.readRawJson(bytes("{} {}"), null, null));
+        assertEquals("Payload must be a single JSON value", e.getMessage());
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private InputStream stream(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,45 @@
+package io.cptn.common;
+
+import com.networknt.schema.JsonSchema;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.helpers.SchemaHelper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* @author: kc, created on 10/18/26 */
+class SchemaHelperTests {
+
+    @Test
+    void compileAndValidateTest() {
+        JsonSchema schema = SchemaHelper.compile(JsonHelper.deserializeJson(
+                "{\"type\": \"object\", \"required\": [\"id\"], \"properties\": {\"id\": {\"type\": \"integer\"}}}"));
+
+        assertTrue(schema.validate(JsonHelper.deserializeJson("{\"id\": 1}")).isEmpty());
+        assertEquals("$.id: string found, integer expected",
+                SchemaHelper.describe(schema.validate(JsonHelper.deserializeJson("{\"id\": \"1\"}"))));
+    }
+
+    @Test
+    void declaredVersionTest() {
+        //draft 4 treats exclusiveMaximum as a flag on maximum, later drafts as a number
+        JsonSchema schema = SchemaHelper.compile(JsonHelper.deserializeJson(
+                "{\"$schema\": \"http://json-schema.org/draft-04/schema#\", \"maximum\": 5, " +
+                        "\"exclusiveMaximum\": true}"));
+
+        assertEquals(1, schema.validate(JsonHelper.deserializeJson("5")).size());
+    }
+
+    @Test
+    void invalidSchemaTest() {
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> SchemaHelper.compile(JsonHelper.deserializeJson("[]")));
+        assertEquals("JSON Schema must be an object", e.getMessage());
+
+        assertThrows(BadRequestException.class,
+                () -> SchemaHelper.compile(JsonHelper.deserializeJson("{\"$ref\": \"#/definitions/missing\"}")));
+    }
+}
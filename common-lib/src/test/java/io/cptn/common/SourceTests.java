@@ -1,6 +1,8 @@
 package io.cptn.common;
 
 import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.UnauthorizedException;
+import io.cptn.common.helpers.SourceKeyHelper;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,4 +50,25 @@ class SourceTests {
         assertNull(source.getLastKeyRotationAt());
     }
 
+    @Test
+    void verifyKeysTest() {
+        Source source = new Source();
+        source.setupNewKeys();
+
+        assertDoesNotThrow(() -> SourceKeyHelper.verify(source, source.getPrimaryKey(), null));
+        assertDoesNotThrow(() -> SourceKeyHelper.verify(source, null, source.getSecondaryKey()));
+        assertThrows(UnauthorizedException.class, () -> SourceKeyHelper.verify(source, "invalid", null));
+        assertThrows(UnauthorizedException.class, () -> SourceKeyHelper.verify(source, null, null));
+    }
+
+    @Test
+    void verifyKeysUnsecuredTest() {
+        Source source = new Source();
+        source.setSecured(false);
+        assertDoesNotThrow(() -> SourceKeyHelper.verify(source, null, null));
+
+        //a secured source without keys accepts nothing
+        source.setSecured(true);
+        assertThrows(UnauthorizedException.class, () -> SourceKeyHelper.verify(source, null, null));
+    }
 }
@@ -0,0 +1,51 @@
+package io.cptn.common;
+
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.Source;
+import io.cptn.common.helpers.UuidHelper;
+import io.cptn.common.listeners.TimeOrderedIdGenerator;
+import org.hibernate.generator.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* @author: kc, created on 10/18/26 */
+class UuidHelperTests {
+
+    @Test
+    void versionAndVariantTest() {
+        UUID id = UuidHelper.newTimeOrderedId();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        //the leading 48 bits hold the current time in milliseconds
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        assertTrue(Math.abs(System.currentTimeMillis() - timestamp) < 60_000);
+    }
+
+    @Test
+    void increasingIdsTest() {
+        //far more ids than fit in the counter of one millisecond
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidHelper.newTimeOrderedId());
+        }
+        for (int i = 1; i < ids.size(); i++) {
+            //Postgres orders uuids by their bytes, which is the order of their string form
+            assertTrue(ids.get(i - 1).toString().compareTo(ids.get(i).toString()) < 0,
+                    ids.get(i - 1) + " is not before " + ids.get(i));
+        }
+    }
+
+    @Test
+    void timeOrderedEventIdsTest() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        //only event ids are time ordered, other entities keep random ids
+        assertEquals(7, ((UUID) generator.generate(null, new InboundWriteEvent(), null, EventType.INSERT)).version());
+        assertEquals(4, ((UUID) generator.generate(null, new Source(), null, EventType.INSERT)).version());
+    }
+}
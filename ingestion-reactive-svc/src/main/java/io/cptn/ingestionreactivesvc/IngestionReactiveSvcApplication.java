@@ -0,0 +1,27 @@
+package io.cptn.ingestionreactivesvc;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Non-blocking alternative to ingestion-svc for sources with very large numbers of concurrent keep-alive clients.
+    Requests are served on the event loop and events are written to inbound_queue over R2DBC, so an idle or
+    slow connection costs a few buffers instead of a thread. Only io.cptn.ingestionreactivesvc is scanned, the
+    JPA repositories and services in common-lib are not used here.
+ */
+@SpringBootApplication
+public class IngestionReactiveSvcApplication {
+
+    public static void main(String[] args) {
+        String containerId = System.getenv("HOSTNAME");
+        if (containerId != null) {
+            System.setProperty("container_id", containerId);
+        } else {
+            System.setProperty("container_id", "local");
+        }
+
+        SpringApplication.run(IngestionReactiveSvcApplication.class, args);
+    }
+}
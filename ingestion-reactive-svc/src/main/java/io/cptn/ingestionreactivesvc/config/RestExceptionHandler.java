@@ -0,0 +1,28 @@
+package io.cptn.ingestionreactivesvc.config;
+
+import io.cptn.common.exceptions.CommonExceptionHandler;
+import io.cptn.common.exceptions.models.AppError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebInputException;
+
+/* @author: kc, created on 10/18/26 */
+
+@Slf4j
+@ControllerAdvice
+public class RestExceptionHandler extends CommonExceptionHandler {
+    @ExceptionHandler(Exception.class)
+    @Override
+    public final ResponseEntity<AppError> handleException(Exception ex) {
+        if (log.isDebugEnabled()) {
+            log.debug(ex.getMessage(), ex);
+        }
+        //webflux reports bodies that fail to decode with its own exception instead of HttpMessageNotReadableException
+        if (ex instanceof ServerWebInputException) {
+            return ResponseEntity.unprocessableEntity().body(new AppError("Unable to process the payload sent"));
+        }
+        return super.handleException(ex);
+    }
+}
@@ -0,0 +1,268 @@
+package io.cptn.ingestionreactivesvc.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.cptn.common.entities.ResponseMode;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.exceptions.NotFoundException;
+import io.cptn.common.exceptions.PayloadTooLargeException;
+import io.cptn.common.exceptions.WebApplicationException;
+import io.cptn.common.exceptions.models.AppError;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.helpers.SourceKeyHelper;
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionreactivesvc.dto.InboundWriteEventDto;
+import io.cptn.ingestionreactivesvc.dto.IngestionSummaryDto;
+import io.cptn.ingestionreactivesvc.projections.SourceView;
+import io.cptn.ingestionreactivesvc.repositories.InboundWriteEventRepository;
+import io.cptn.ingestionreactivesvc.services.SourceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Same endpoints and responses as the controller in ingestion-svc, without blocking a thread per request. Bodies
+    are decoded as they arrive and each chunk is only requested from the connection once the previous chunk has been
+    written, so a client sending faster than the database can keep up is slowed down through TCP flow control
+    instead of being buffered in memory.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class InboundWriteEventController {
+
+    private static final String CPTN_FIELD = "cptn";
+
+    private final SourceService sourceService;
+
+    private final InboundWriteEventRepository inboundEventRepository;
+
+    @Value("${inbound.event.max-size:1048576}")
+    private int maxEventSize;
+
+    @Value("${inbound.event.batch.chunk-size:100}")
+    private int batchChunkSize;
+
+    @Value("${inbound.event.stream.chunk-size:100}")
+    private int streamChunkSize;
+
+    @Value("${inbound.event.stream.flush-interval:1000}")
+    private long streamFlushInterval;
+
+    @PostMapping(value = "/event/source/{sourceId}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, "application/*+json"})
+    public Mono<ResponseEntity<InboundWriteEventDto>> createEvent(@PathVariable UUID sourceId,
+                                                                  ServerHttpRequest request) {
+        return getSource(sourceId, request).flatMap(source -> readBody(request)
+                .map(body -> toPayload(body, source, request))
+                .flatMap(payload -> inboundEventRepository.insertAll(source.getId(), List.of(payload)).next())
+                .map(event -> ResponseEntity.ok().headers(getHttpHeaders(source)).body(event)));
+    }
+
+    /*
+        The response is chosen with the response parameter, or the source's response mode when it is not passed. Ids
+        are written as a JSON array while the chunks are stored.
+     */
+    @PostMapping("/event/source/{sourceId}/batch")
+    public Mono<ResponseEntity<Object>> processEventBatch(@PathVariable UUID sourceId,
+                                                          @RequestParam(name = "response", required = false)
+                                                          String requestedMode,
+                                                          @RequestBody Flux<JsonNode> events,
+                                                          ServerHttpRequest request) {
+        return getSource(sourceId, request).map(source -> {
+            ResponseMode responseMode = getResponseMode(source, requestedMode);
+            Flux<InboundWriteEventDto> persistedEvents = events
+                    .map(jsonNode -> toPayload(jsonNode, source, request))
+                    .buffer(batchChunkSize)
+                    //a prefetch of one keeps a single chunk in flight, the next one is read while it is written
+                    .concatMap(chunk -> inboundEventRepository.insertAll(source.getId(), chunk), 1);
+            HttpHeaders httpHeaders = getHttpHeaders(source);
+
+            return switch (responseMode) {
+                case NONE -> ResponseEntity.accepted().headers(httpHeaders).body(persistedEvents.then());
+                case COUNT -> ResponseEntity.ok().headers(httpHeaders).body(persistedEvents.count()
+                        .map(count -> new IngestionSummaryDto(sourceId, count)));
+                case IDS -> ResponseEntity.ok().headers(httpHeaders).contentType(MediaType.APPLICATION_JSON)
+                        .body(persistedEvents.map(InboundWriteEventDto::getId));
+                default -> ResponseEntity.ok().headers(httpHeaders).body(persistedEvents.collectList());
+            };
+        });
+    }
+
+    /*
+        Accepts newline delimited JSON over a long-lived request. Every persisted chunk is acknowledged with a line
+        carrying the number of events written so far, and a failure after the first ack is reported in-stream.
+     */
+    @PostMapping(value = "/event/source/{sourceId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<Object>>> streamEvents(@PathVariable UUID sourceId,
+                                                           @RequestBody Flux<JsonNode> events,
+                                                           ServerHttpRequest request) {
+        return getSource(sourceId, request).map(source -> {
+            AtomicLong persistedCount = new AtomicLong();
+            Flux<Object> acks = events
+                    .map(jsonNode -> toPayload(jsonNode, source, request))
+                    //with fair backpressure a timed out window waits for the previous chunk instead of overflowing
+                    .windowTimeout(streamChunkSize, Duration.ofMillis(streamFlushInterval), true)
+                    .concatMap(Flux::collectList, 1)
+                    .filter(chunk -> !chunk.isEmpty())
+                    .concatMap(chunk -> inboundEventRepository.insertAll(source.getId(), chunk).count(), 1)
+                    .<Object>map(count -> new IngestionSummaryDto(sourceId, persistedCount.addAndGet(count)))
+                    .onErrorResume(InboundWriteEventController::isClientError,
+                            e -> Mono.just(new AppError(getClientErrorMessage(e))));
+            return ResponseEntity.ok().headers(getHttpHeaders(source)).body(acks);
+        });
+    }
+
+    private ResponseMode getResponseMode(SourceView source, String requestedMode) {
+        if (requestedMode == null || requestedMode.isBlank()) {
+            return Optional.ofNullable(source.getResponseMode()).orElse(ResponseMode.FULL);
+        }
+        try {
+            return ResponseMode.valueOf(requestedMode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid response mode: " + requestedMode);
+        }
+    }
+
+    private Mono<byte[]> readBody(ServerHttpRequest request) {
+        return DataBufferUtils.join(request.getBody(), maxEventSize)
+                .map(dataBuffer -> {
+                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                    dataBuffer.read(bytes);
+                    DataBufferUtils.release(dataBuffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .onErrorMap(DataBufferLimitException.class,
+                        e -> new PayloadTooLargeException("Payload exceeds the limit of " + maxEventSize + " bytes"));
+    }
+
+    private String toPayload(byte[] body, SourceView source, ServerHttpRequest request) {
+        //the body is stored as sent, it is only tokenized to validate it and to splice in the remote ip
+        boolean captureRemoteIp = Boolean.TRUE.equals(source.getCaptureRemoteIP());
+        try {
+            return JsonHelper.readRawJson(body, captureRemoteIp ? CPTN_FIELD : null,
+                    captureRemoteIp ? getCptnNode(request) : null);
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to deserialize payload");
+        }
+    }
+
+    private String toPayload(JsonNode jsonPayload, SourceView source, ServerHttpRequest request) {
+        if (Boolean.TRUE.equals(source.getCaptureRemoteIP()) && jsonPayload instanceof ObjectNode objectNode) {
+            objectNode.putIfAbsent(CPTN_FIELD, getCptnNode(request));
+        }
+        return JsonHelper.serializeJson(jsonPayload);
+    }
+
+    private ObjectNode getCptnNode(ServerHttpRequest request) {
+        ObjectNode cptnNode = JsonHelper.getMapper().createObjectNode();
+        cptnNode.put("remote_ip", getRemoteAddr(request));
+        return cptnNode;
+    }
+
+    private String getRemoteAddr(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return null;
+        }
+        return remoteAddress.getAddress() != null ? remoteAddress.getAddress().getHostAddress() :
+                remoteAddress.getHostString();
+    }
+
+    private HttpHeaders getHttpHeaders(SourceView source) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        List<Header> headerList = Optional.ofNullable(source.getHeaders()).orElse(List.of());
+        headerList.forEach(header -> httpHeaders.add(header.getKey(), header.getValue()));
+        return httpHeaders;
+    }
+
+    private Mono<SourceView> getSource(UUID sourceId, ServerHttpRequest request) {
+        //compressed bodies are only supported by ingestion-svc
+        String contentEncoding = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && !contentEncoding.isBlank() &&
+                !"identity".equalsIgnoreCase(contentEncoding.trim())) {
+            return Mono.error(new BadRequestException("Unsupported Content-Encoding: " + contentEncoding));
+        }
+
+        return sourceService.getById(sourceId).map(sourceOptional -> {
+            if (sourceOptional.isEmpty()) {
+                throw new NotFoundException("Source not found with passed ID");
+            }
+
+            SourceView source = sourceOptional.get();
+            if (!Boolean.TRUE.equals(source.getActive())) {
+                throw new NotFoundException("Source not active");
+            }
+
+            SourceKeyHelper.verify(source, request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION),
+                    request.getQueryParams().getFirst("token"));
+            verifySupported(source);
+            return source;
+        });
+    }
+
+    /*
+        Rate limits, shedding of low priority sources under backlog, dedup and schema checks are only enforced by
+        ingestion-svc. A source that relies on them is turned away instead of having its events accepted unchecked.
+     */
+    private void verifySupported(SourceView source) {
+        List<String> unsupported = new ArrayList<>();
+        if (isPositive(source.getRateLimitEventsPerSecond()) || isPositive(source.getRateLimitBytesPerSecond())) {
+            unsupported.add("rate limits");
+        }
+        if (Boolean.TRUE.equals(source.getLowPriority())) {
+            unsupported.add("low priority");
+        }
+        if (isPositive(source.getDedupWindow())) {
+            unsupported.add("deduplication");
+        }
+        if (source.isSchemaDefined()) {
+            unsupported.add("a JSON schema");
+        }
+        if (!unsupported.isEmpty()) {
+            throw new BadRequestException("Source uses " + String.join(", ", unsupported) +
+                    ", which are only supported by ingestion-svc");
+        }
+    }
+
+    private static boolean isPositive(Number value) {
+        return value != null && value.longValue() > 0;
+    }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof WebApplicationException || e instanceof ServerWebInputException ||
+                e instanceof CodecException;
+    }
+
+    private static String getClientErrorMessage(Throwable e) {
+        return e instanceof WebApplicationException ? e.getMessage() : "Unable to process the payload sent";
+    }
+}
@@ -0,0 +1,27 @@
+package io.cptn.ingestionreactivesvc.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.cptn.common.dto.BaseDto;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * Same shape as the response of ingestion-svc, so clients can switch between the two
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@JsonIgnoreProperties({"createdBy", "updatedBy"})
+public class InboundWriteEventDto extends BaseDto {
+
+    @Serial
+    private static final long serialVersionUID = 6307714885062390425L;
+
+    private UUID sourceId;
+}
@@ -0,0 +1,27 @@
+package io.cptn.ingestionreactivesvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * Compact response for ingestion requests that do not return a DTO per event
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngestionSummaryDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -1384203629105827714L;
+
+    private UUID sourceId;
+
+    private long count;
+}
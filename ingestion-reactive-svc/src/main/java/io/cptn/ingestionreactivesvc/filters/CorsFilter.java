@@ -0,0 +1,146 @@
+package io.cptn.ingestionreactivesvc.filters;
+
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionreactivesvc.projections.SourceView;
+import io.cptn.ingestionreactivesvc.services.SourceService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsUtils;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Answers CORS preflights for event urls from the Access-Control-* headers configured on the source, like the
+    CorsFilter of ingestion-svc and with the same inbound.cors.max-age default. The source is looked up without
+    blocking and its headers are turned into a CorsConfiguration, which a CorsWebFilter then applies to the
+    preflight. Other requests pass through, their CORS headers are added with the rest of the source's headers.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorsFilter implements WebFilter {
+
+    private static final String EVENT_URL_PREFIX = "/event/source/";
+
+    private static final String CORS_HEADER_PREFIX = "access-control-";
+
+    private static final String CORS_CONFIGURATION_ATTRIBUTE = "cptn.corsConfiguration";
+
+    //methods browsers send without them being listed in Access-Control-Allow-Methods
+    private static final List<String> SAFELISTED_METHODS = List.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(),
+            HttpMethod.POST.name());
+
+    private final SourceService sourceService;
+
+    private final long maxAge;
+
+    private final CorsWebFilter corsWebFilter = new CorsWebFilter(
+            exchange -> exchange.getAttribute(CORS_CONFIGURATION_ATTRIBUTE));
+
+    public CorsFilter(SourceService sourceService, @Value("${inbound.cors.max-age:600}") long maxAge) {
+        this.sourceService = sourceService;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!CorsUtils.isPreFlightRequest(request)) {
+            return chain.filter(exchange);
+        }
+        Optional<UUID> sourceId = getSourceId(request.getPath().value());
+        if (sourceId.isEmpty()) {
+            return chain.filter(exchange);
+        }
+
+        return sourceService.getById(sourceId.get()).flatMap(source -> {
+            CorsConfiguration corsConfiguration = source.map(this::getCorsConfiguration).orElse(null);
+            if (corsConfiguration == null) {
+                return chain.filter(exchange);
+            }
+            exchange.getAttributes().put(CORS_CONFIGURATION_ATTRIBUTE, corsConfiguration);
+            return corsWebFilter.filter(exchange, chain);
+        });
+    }
+
+    /*
+        Null when the source has no CORS headers, the preflight is then left to the handlers
+     */
+    private CorsConfiguration getCorsConfiguration(SourceView source) {
+        HttpHeaders corsHeaders = new HttpHeaders();
+        List<Header> headerList = Optional.ofNullable(source.getHeaders()).orElse(List.of());
+        headerList.stream()
+                .filter(header -> header.getKey().toLowerCase(Locale.ROOT).startsWith(CORS_HEADER_PREFIX))
+                .forEach(header -> corsHeaders.add(header.getKey(), header.getValue()));
+        if (corsHeaders.isEmpty()) {
+            return null;
+        }
+
+        CorsConfiguration corsConfiguration = new CorsConfiguration();
+        corsConfiguration.setAllowCredentials(Boolean.parseBoolean(
+                corsHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS)));
+        List<String> origins = getValues(corsHeaders, HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN);
+        if (Boolean.TRUE.equals(corsConfiguration.getAllowCredentials())) {
+            //a wildcard is answered with the request's origin, as browsers do not send credentials to "*"
+            corsConfiguration.setAllowedOriginPatterns(origins);
+        } else {
+            corsConfiguration.setAllowedOrigins(origins);
+        }
+        List<String> methods = getValues(corsHeaders, HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS);
+        corsConfiguration.setAllowedMethods(methods.isEmpty() ? SAFELISTED_METHODS : methods);
+        corsConfiguration.setAllowedHeaders(getValues(corsHeaders, HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS));
+        corsConfiguration.setExposedHeaders(getValues(corsHeaders, HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS));
+        corsConfiguration.setMaxAge(getMaxAge(corsHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_MAX_AGE)));
+        return corsConfiguration;
+    }
+
+    private Long getMaxAge(String sourceMaxAge) {
+        if (sourceMaxAge != null) {
+            try {
+                return Long.parseLong(sourceMaxAge.trim());
+            } catch (NumberFormatException e) {
+                //an invalid value is ignored, as it would be by browsers
+            }
+        }
+        //lets browsers reuse the preflight instead of sending one before every event
+        return maxAge > 0 ? maxAge : null;
+    }
+
+    private static List<String> getValues(HttpHeaders headers, String name) {
+        return Optional.ofNullable(headers.get(name)).orElse(List.of()).stream()
+                .flatMap(value -> Arrays.stream(StringUtils.commaDelimitedListToStringArray(value)))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    private static Optional<UUID> getSourceId(String path) {
+        if (!path.startsWith(EVENT_URL_PREFIX)) {
+            return Optional.empty();
+        }
+        String rest = path.substring(EVENT_URL_PREFIX.length());
+        int end = rest.indexOf('/');
+        try {
+            return Optional.of(UUID.fromString(end < 0 ? rest : rest.substring(0, end)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
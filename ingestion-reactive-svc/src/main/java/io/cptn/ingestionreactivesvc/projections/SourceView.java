@@ -0,0 +1,45 @@
+package io.cptn.ingestionreactivesvc.projections;
+
+import io.cptn.common.entities.ResponseMode;
+import io.cptn.common.pojos.Header;
+import io.cptn.common.pojos.SecuredSource;
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * The columns of a source that are needed to accept its events
+ */
+@Value
+public class SourceView implements SecuredSource {
+
+    UUID id;
+
+    Boolean secured;
+
+    Boolean active;
+
+    String primaryKey;
+
+    String secondaryKey;
+
+    List<Header> headers;
+
+    Boolean captureRemoteIP;
+
+    ResponseMode responseMode;
+
+    //only read to turn away sources that rely on checks this service does not enforce
+    Integer rateLimitEventsPerSecond;
+
+    Long rateLimitBytesPerSecond;
+
+    Boolean lowPriority;
+
+    Integer dedupWindow;
+
+    boolean schemaDefined;
+}
@@ -0,0 +1,84 @@
+package io.cptn.ingestionreactivesvc.repositories;
+
+import io.cptn.common.helpers.UuidHelper;
+import io.cptn.ingestionreactivesvc.dto.InboundWriteEventDto;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Reactive counterpart of InboundWriteEventBulkRepository.insertAll. The rows of a chunk are bound to one statement
+    and sent as a single pipelined batch, in one transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InboundWriteEventRepository {
+
+    private static final String SYSTEM_USER = "system";
+
+    private static final String QUEUED = "QUEUED";
+
+    private static final String INSERT_QUERY = "INSERT INTO inbound_queue (id, version, created_at, " +
+            "updated_at, created_by, updated_by, payload, source_id, state) VALUES ($1, 0, $2, $2, $3, $3, " +
+            "CAST($4 AS json), $5, $6)";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Inserts the serialized payloads as queued events of the source.
+     *
+     * @return the inserted events, emitted once the whole chunk is written
+     */
+    @Transactional
+    public Flux<InboundWriteEventDto> insertAll(UUID sourceId, List<String> payloads) {
+        if (payloads.isEmpty()) {
+            return Flux.empty();
+        }
+
+        //the timestamp columns only keep microseconds
+        ZonedDateTime timeNow = ZonedDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<InboundWriteEventDto> events = new ArrayList<>(payloads.size());
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_QUERY);
+            for (int i = 0; i < payloads.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                InboundWriteEventDto event = newEvent(sourceId, timeNow);
+                statement.bind(0, event.getId())
+                        .bind(1, timeNow.toOffsetDateTime())
+                        .bind(2, SYSTEM_USER)
+                        .bind(3, payloads.get(i))
+                        .bind(4, sourceId)
+                        .bind(5, QUEUED);
+                events.add(event);
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(Result::getRowsUpdated)
+                    .thenMany(Flux.fromIterable(events));
+        });
+    }
+
+    private InboundWriteEventDto newEvent(UUID sourceId, ZonedDateTime timeNow) {
+        InboundWriteEventDto event = new InboundWriteEventDto();
+        event.setId(UuidHelper.newTimeOrderedId());
+        event.setSourceId(sourceId);
+        event.setCreatedAt(timeNow);
+        event.setUpdatedAt(timeNow);
+        event.setCreatedBy(SYSTEM_USER);
+        event.setUpdatedBy(SYSTEM_USER);
+        return event;
+    }
+}
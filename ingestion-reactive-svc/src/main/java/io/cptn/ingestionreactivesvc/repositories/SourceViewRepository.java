@@ -0,0 +1,67 @@
+package io.cptn.ingestionreactivesvc.repositories;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.cptn.common.entities.ResponseMode;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionreactivesvc.projections.SourceView;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class SourceViewRepository {
+
+    private static final String SELECT_QUERY = "SELECT id, secured, active, primary_key, secondary_key, headers, " +
+            "capture_remote_ip, response_mode, rate_limit_events_per_second, rate_limit_bytes_per_second, " +
+            "low_priority, dedup_window, json_schema IS NOT NULL AS schema_defined FROM source WHERE id = :id";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<SourceView> findById(UUID id) {
+        return databaseClient.sql(SELECT_QUERY)
+                .bind("id", id)
+                .map(SourceViewRepository::toSourceView)
+                .one();
+    }
+
+    private static SourceView toSourceView(Readable row) {
+        return new SourceView(row.get("id", UUID.class), row.get("secured", Boolean.class),
+                row.get("active", Boolean.class), row.get("primary_key", String.class),
+                row.get("secondary_key", String.class), toHeaders(row.get("headers", String.class)),
+                row.get("capture_remote_ip", Boolean.class), toResponseMode(row.get("response_mode", String.class)),
+                row.get("rate_limit_events_per_second", Integer.class),
+                row.get("rate_limit_bytes_per_second", Long.class), row.get("low_priority", Boolean.class),
+                row.get("dedup_window", Integer.class), Boolean.TRUE.equals(row.get("schema_defined", Boolean.class)));
+    }
+
+    private static ResponseMode toResponseMode(String responseMode) {
+        return responseMode != null ? ResponseMode.valueOf(responseMode) : null;
+    }
+
+    //same conversion as HeaderConverter, which can not be used without JPA
+    private static List<Header> toHeaders(String json) {
+        if (json == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return JsonHelper.getMapper().readValue(json, new TypeReference<List<Header>>() {
+            });
+        } catch (JsonProcessingException e) {
+            log.error(e.getMessage(), e);
+            throw new BadRequestException("Unable to convert headers from JSON config");
+        }
+    }
+}
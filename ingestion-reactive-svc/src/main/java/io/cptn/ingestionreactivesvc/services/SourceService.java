@@ -0,0 +1,45 @@
+package io.cptn.ingestionreactivesvc.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.cptn.ingestionreactivesvc.projections.SourceView;
+import io.cptn.ingestionreactivesvc.repositories.SourceViewRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Sources are cached in process for a short time instead of in the Redis cache used by ingestion-svc, which holds
+    serialized JPA entities. Concurrent lookups of the same source share one query, and changes made in mgmt-svc are
+    picked up once the entry expires.
+ */
+@Service
+public class SourceService {
+
+    private final SourceViewRepository sourceViewRepository;
+
+    private final AsyncCache<UUID, Optional<SourceView>> sources;
+
+    public SourceService(SourceViewRepository sourceViewRepository,
+                         @Value("${inbound.source.cache.ttl:30000}") long cacheTtl,
+                         @Value("${inbound.source.cache.max-size:10000}") long cacheMaxSize) {
+        this.sourceViewRepository = sourceViewRepository;
+        this.sources = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheTtl))
+                .maximumSize(cacheMaxSize)
+                .buildAsync();
+    }
+
+    public Mono<Optional<SourceView>> getById(UUID id) {
+        return Mono.fromFuture(() -> sources.get(id, (key, executor) -> sourceViewRepository.findById(key)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .toFuture()));
+    }
+}
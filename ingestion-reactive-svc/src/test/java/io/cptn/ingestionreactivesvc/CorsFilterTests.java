@@ -0,0 +1,107 @@
+package io.cptn.ingestionreactivesvc;
+
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionreactivesvc.controllers.InboundWriteEventController;
+import io.cptn.ingestionreactivesvc.filters.CorsFilter;
+import io.cptn.ingestionreactivesvc.projections.SourceView;
+import io.cptn.ingestionreactivesvc.repositories.InboundWriteEventRepository;
+import io.cptn.ingestionreactivesvc.services.SourceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+class CorsFilterTests {
+
+    private static final UUID SOURCE_ID = UUID.randomUUID();
+
+    //the origin check compares the request's scheme and host with the Origin header
+    private static final String BASE_URL = "http://localhost";
+
+    private final SourceService sourceService = mock(SourceService.class);
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setup() {
+        InboundWriteEventController controller = new InboundWriteEventController(sourceService,
+                mock(InboundWriteEventRepository.class));
+        client = WebTestClient.bindToController(controller).webFilter(new CorsFilter(sourceService, 600)).build();
+    }
+
+    @Test
+    void preflightTest() {
+        mockSource(getHeader("Access-Control-Allow-Origin", "*"),
+                getHeader("Access-Control-Allow-Headers", "Content-Type, Authorization"));
+
+        client.options().uri(BASE_URL + "/event/source/{id}/batch", SOURCE_ID)
+                .header("Origin", "https://example.com")
+                .header("Access-Control-Request-Method", "POST")
+                .header("Access-Control-Request-Headers", "content-type")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Access-Control-Allow-Origin", "*")
+                .expectHeader().valueEquals("Access-Control-Max-Age", "600");
+    }
+
+    @Test
+    void sourceMaxAgeTest() {
+        mockSource(getHeader("Access-Control-Allow-Origin", "https://example.com"),
+                getHeader("Access-Control-Max-Age", "86400"));
+
+        client.options().uri(BASE_URL + "/event/source/{id}", SOURCE_ID)
+                .header("Origin", "https://example.com")
+                .header("Access-Control-Request-Method", "POST")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Access-Control-Allow-Origin", "https://example.com")
+                .expectHeader().valueEquals("Access-Control-Max-Age", "86400");
+    }
+
+    @Test
+    void originNotAllowedTest() {
+        mockSource(getHeader("Access-Control-Allow-Origin", "https://example.com"));
+
+        client.options().uri(BASE_URL + "/event/source/{id}", SOURCE_ID)
+                .header("Origin", "https://other.example.com")
+                .header("Access-Control-Request-Method", "POST")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void otherRequestsTest() {
+        client.options().uri(BASE_URL + "/actuator/health")
+                .header("Origin", "https://example.com")
+                .header("Access-Control-Request-Method", "GET")
+                .exchange();
+        client.options().uri(BASE_URL + "/event/source/{id}", SOURCE_ID)
+                .exchange();
+
+        verify(sourceService, never()).getById(any());
+    }
+
+    private void mockSource(Header... headers) {
+        SourceView source = new SourceView(SOURCE_ID, false, true, null, null, List.of(headers), false, null, null,
+                null, false, null, false);
+        when(sourceService.getById(SOURCE_ID)).thenReturn(Mono.just(Optional.of(source)));
+    }
+
+    private Header getHeader(String key, String value) {
+        Header header = new Header();
+        header.setKey(key);
+        header.setValue(value);
+        return header;
+    }
+}
@@ -0,0 +1,248 @@
+package io.cptn.ingestionreactivesvc;
+
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionreactivesvc.config.RestExceptionHandler;
+import io.cptn.ingestionreactivesvc.controllers.InboundWriteEventController;
+import io.cptn.ingestionreactivesvc.dto.InboundWriteEventDto;
+import io.cptn.ingestionreactivesvc.projections.SourceView;
+import io.cptn.ingestionreactivesvc.repositories.InboundWriteEventRepository;
+import io.cptn.ingestionreactivesvc.services.SourceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+@ExtendWith(MockitoExtension.class)
+class InboundEventControllerTests {
+
+    private static final UUID SOURCE_ID = UUID.randomUUID();
+
+    @Mock
+    private SourceService sourceService;
+
+    @Mock
+    private InboundWriteEventRepository inboundEventRepository;
+
+    @Captor
+    private ArgumentCaptor<List<String>> captor;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setup() {
+        InboundWriteEventController controller = new InboundWriteEventController(sourceService,
+                inboundEventRepository);
+        client = WebTestClient.bindToController(controller).controllerAdvice(new RestExceptionHandler()).build();
+        //building the client injects the @Value defaults, so the test settings are applied afterwards
+        ReflectionTestUtils.setField(controller, "maxEventSize", 1024);
+        ReflectionTestUtils.setField(controller, "batchChunkSize", 100);
+        ReflectionTestUtils.setField(controller, "streamChunkSize", 2);
+        ReflectionTestUtils.setField(controller, "streamFlushInterval", 1000L);
+    }
+
+    @Test
+    void createEventTest() {
+        mockSource(source(false, false));
+        mockInsert();
+
+        client.post().uri("/event/source/{id}", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"a\": 1}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Test", "value")
+                .expectBody(InboundWriteEventDto.class)
+                .value(event -> assertEquals(SOURCE_ID, event.getSourceId()));
+
+        verify(inboundEventRepository).insertAll(eq(SOURCE_ID), captor.capture());
+        assertEquals(List.of("{\"a\": 1}"), captor.getValue());
+    }
+
+    @Test
+    void createEventUnauthorizedTest() {
+        mockSource(source(true, false));
+        mockInsert();
+
+        client.post().uri("/event/source/{id}?token=invalid", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        client.post().uri("/event/source/{id}?token=primary", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void createEventSourceNotFoundTest() {
+        when(sourceService.getById(SOURCE_ID)).thenReturn(Mono.just(Optional.empty()));
+
+        client.post().uri("/event/source/{id}", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isNotFound();
+        verify(inboundEventRepository, never()).insertAll(any(), anyList());
+    }
+
+    @Test
+    void createEventInvalidPayloadTest() {
+        mockSource(source(false, false));
+
+        client.post().uri("/event/source/{id}", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"a\": ")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        client.post().uri("/event/source/{id}", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"a\": \"" + "x".repeat(2048) + "\"}")
+                .exchange()
+                .expectStatus().isEqualTo(413);
+        verify(inboundEventRepository, never()).insertAll(any(), anyList());
+    }
+
+    @Test
+    void unsupportedSourceTest() {
+        Header header = new Header();
+        header.setKey("X-Test");
+        header.setValue("value");
+        mockSource(new SourceView(SOURCE_ID, false, true, "primary", "secondary", List.of(header), false, null, 100,
+                null, false, 60, true));
+
+        client.post().uri("/event/source/{id}", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message")
+                .isEqualTo("Source uses rate limits, deduplication, a JSON schema, which are only supported by " +
+                        "ingestion-svc");
+        verify(inboundEventRepository, never()).insertAll(any(), anyList());
+    }
+
+    @Test
+    void processEventBatchTest() {
+        mockSource(source(false, true));
+        mockInsert();
+
+        String batch = IntStream.range(0, 250).mapToObj(i -> "{\"i\": " + i + "}")
+                .collect(Collectors.joining(",", "[", "]"));
+        client.post().uri("/event/source/{id}/batch", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(InboundWriteEventDto.class).hasSize(250);
+
+        verify(inboundEventRepository, times(3)).insertAll(eq(SOURCE_ID), captor.capture());
+        assertEquals(List.of(100, 100, 50), captor.getAllValues().stream().map(List::size).toList());
+        //remote ip is captured for the source
+        assertEquals(true, captor.getAllValues().get(0).get(0).contains("\"remote_ip\""));
+    }
+
+    @Test
+    void batchResponseModesTest() {
+        mockSource(source(false, false));
+        mockInsert();
+
+        client.post().uri("/event/source/{id}/batch?response=count", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"i\": 1}, {\"i\": 2}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.count").isEqualTo(2);
+
+        client.post().uri("/event/source/{id}/batch?response=none", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"i\": 1}, {\"i\": 2}]")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody().isEmpty();
+
+        client.post().uri("/event/source/{id}/batch?response=ids", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"i\": 1}, {\"i\": 2}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UUID.class).hasSize(2);
+
+        verify(inboundEventRepository, times(3)).insertAll(eq(SOURCE_ID), anyList());
+
+        client.post().uri("/event/source/{id}/batch?response=everything", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[]")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamEventsTest() {
+        mockSource(source(false, false));
+        mockInsert();
+
+        String acks = client.post().uri("/event/source/{id}/stream", SOURCE_ID)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"i\": 1}\n{\"i\": 2}\n{\"i\": 3}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertEquals(List.of("{\"sourceId\":\"" + SOURCE_ID + "\",\"count\":2}",
+                "{\"sourceId\":\"" + SOURCE_ID + "\",\"count\":3}"), List.of(acks.trim().split("\n")));
+    }
+
+    private void mockSource(SourceView source) {
+        when(sourceService.getById(SOURCE_ID)).thenReturn(Mono.just(Optional.of(source)));
+    }
+
+    private void mockInsert() {
+        when(inboundEventRepository.insertAll(eq(SOURCE_ID), anyList())).thenAnswer(invocation -> {
+            List<String> payloads = invocation.getArgument(1);
+            return Flux.fromIterable(payloads).map(payload -> {
+                InboundWriteEventDto event = new InboundWriteEventDto();
+                event.setId(UUID.randomUUID());
+                event.setSourceId(SOURCE_ID);
+                return event;
+            });
+        });
+    }
+
+    private SourceView source(boolean secured, boolean captureRemoteIp) {
+        Header header = new Header();
+        header.setKey("X-Test");
+        header.setValue("value");
+        return new SourceView(SOURCE_ID, secured, true, "primary", "secondary", List.of(header), captureRemoteIp,
+                null, null, null, false, null, false);
+    }
+}
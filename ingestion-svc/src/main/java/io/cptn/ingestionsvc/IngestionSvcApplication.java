@@ -1,5 +1,6 @@
 package io.cptn.ingestionsvc;
 
+import io.cptn.ingestionsvc.helpers.VirtualThreads;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -9,6 +10,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
 
 /* @author: kc, created on 4/3/23 */
@@ -30,7 +32,10 @@ public class IngestionSvcApplication {
     }
 
     @Bean
-    public ForkJoinPool getInboundEventProcessorThreadPool(@Value("${inbound.event.processor.parallelism:1}") int parallelism) {
-        return new ForkJoinPool(parallelism);
+    public ExecutorService getInboundEventProcessorThreadPool(@Value("${inbound.event.processor.parallelism:1}") int parallelism,
+                                                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        //with virtual threads every event gets its own thread and ConnectionPoolLimiter bounds the concurrency
+        ExecutorService executor = virtualThreads ? VirtualThreads.newVirtualThreadPerTaskExecutor() : null;
+        return executor != null ? executor : new ForkJoinPool(parallelism);
     }
 }
@@ -0,0 +1,103 @@
+package io.cptn.ingestionsvc.backlog;
+
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import io.cptn.common.repositories.InboundEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Samples the depth of the inbound queue and the age of its oldest queued event on a schedule, so requests never
+    pay for it. When either crosses its threshold the service reports itself as refusing traffic on the readiness
+    probe, and low priority sources can optionally be shed until the dispatcher catches up.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BacklogMonitor {
+
+    private final InboundEventRepository eventRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inbound.backlog.max-depth:100000}")
+    private long maxDepth;
+
+    @Value("${inbound.backlog.max-age:600}")
+    private long maxAgeSeconds;
+
+    @Value("${inbound.backlog.shed-low-priority:false}")
+    private boolean shedLowPriority;
+
+    @Value("${inbound.backlog.sample-interval:10000}")
+    private long sampleInterval;
+
+    @Getter
+    private volatile long depth;
+
+    @Getter
+    private volatile double oldestAgeSeconds;
+
+    @Getter
+    private volatile boolean backlogged;
+
+    @PostConstruct
+    public void registerGauges() {
+        Gauge.builder("cptn.ingestion.backlog.depth", this, BacklogMonitor::getDepth)
+                .description("Queued inbound events, capped at twice the configured max depth")
+                .register(meterRegistry);
+        Gauge.builder("cptn.ingestion.backlog.oldest.age", this, BacklogMonitor::getOldestAgeSeconds)
+                .description("Age in seconds of the oldest queued inbound event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${inbound.backlog.sample-interval:10000}")
+    public void sample() {
+        try {
+            //counting stops past twice the threshold, which is enough to tell how far over it the backlog is
+            depth = eventRepository.countQueuedEvents(maxDepth > 0 ? maxDepth * 2 : 1);
+            oldestAgeSeconds = Optional.ofNullable(eventRepository.getOldestQueuedEventAgeSeconds()).orElse(0d);
+        } catch (Exception e) {
+            log.warn("Failed to sample inbound backlog: {}", e.getMessage());
+            return;
+        }
+
+        boolean overThreshold = (maxDepth > 0 && depth >= maxDepth) ||
+                (maxAgeSeconds > 0 && oldestAgeSeconds >= maxAgeSeconds);
+        if (overThreshold != backlogged) {
+            backlogged = overThreshold;
+            log.warn("Inbound backlog {}, depth: {}, oldest event age: {}s", overThreshold ? "over threshold" :
+                    "recovered", depth, (long) oldestAgeSeconds);
+            AvailabilityChangeEvent.publish(eventPublisher, this, overThreshold ? ReadinessState.REFUSING_TRAFFIC :
+                    ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    /**
+     * Rejects events from low priority sources with a 503 while the backlog is over its threshold, if shedding is
+     * enabled.
+     */
+    public void admit(Source source) {
+        if (backlogged && shedLowPriority && Boolean.TRUE.equals(source.getLowPriority())) {
+            throw new ServiceUnavailableException("Ingestion is backlogged, try again later",
+                    Math.max(1, sampleInterval / 1000));
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package io.cptn.ingestionsvc.buffer;
+
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import io.cptn.common.exceptions.WebApplicationException;
+import io.cptn.common.helpers.UuidHelper;
+import io.cptn.ingestionsvc.helpers.WriteFailureHelper;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Optional write-behind mode for single event ingestion. Accepted events are queued in memory and a flusher thread
+    writes them to inbound_queue in group commits of up to flushSize events, or whatever has arrived within
+    flushInterval ms of the first pending event.
+
+    With ack mode FLUSH a request returns only once its event is committed. With ack mode ACCEPT the request returns
+    as soon as the event is queued. When the buffer is full, requests are rejected with a 503 so that producers back
+    off.
+
+    A group commit that fails with a transient error is retried with exponential backoff. Once the retries are used
+    up, callers that are still waiting get the error and can retry. Events that were acknowledged on acceptance are
+    not dropped: they are spilled to the write-ahead log when it is enabled, otherwise they are held and retried until
+    they are written, while new requests are turned away as the buffer fills up. So accepted events are delivered at
+    least once, unless the process dies, or shutdown-timeout passes on shutdown, before they are written or spilled.
+
+    A group commit that fails with a permanent error is split up to find the events that can not be written, and the
+    rest of the batch is written. Callers of those events get the error. Events that were acknowledged on acceptance
+    are quarantined instead, or logged and dropped if that fails too, so that they do not block the events after them.
+
+    The WebSocket channel writes through the buffer, without blocking, unless the write-ahead log is enabled. So the
+    flusher also runs when only that channel is enabled and the log is not.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InboundWriteEventBuffer {
+
+    private final InboundWriteEventService inboundEventService;
+
+    private final WriteAheadLog writeAheadLog;
+
+    @Getter
+    @Value("${inbound.event.buffer.enabled:false}")
+    private boolean enabled;
+
+    @Getter
+    @Value("${inbound.event.buffer.ack-mode:FLUSH}")
+    private AckMode ackMode;
+
+    @Value("${inbound.event.buffer.capacity:10000}")
+    private int capacity;
+
+    @Value("${inbound.event.buffer.flush-size:500}")
+    private int flushSize;
+
+    @Value("${inbound.event.buffer.flush-interval:50}")
+    private long flushInterval;
+
+    @Value("${inbound.event.buffer.ack-timeout:30000}")
+    private long ackTimeout;
+
+    @Value("${inbound.event.buffer.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${inbound.event.buffer.retry-backoff:100}")
+    private long retryBackoff;
+
+    @Value("${inbound.event.buffer.max-retry-backoff:5000}")
+    private long maxRetryBackoff;
+
+    @Value("${inbound.event.buffer.shutdown-timeout:30000}")
+    private long shutdownTimeout;
+
+    @Value("${inbound.event.websocket.enabled:false}")
+    private boolean websocketEnabled;
+
+    private BlockingQueue<PendingEvent> queue;
+
+    private Thread flusher;
+
+    private volatile boolean accepting;
+
+    /*
+        Submitters check accepting and queue their events under the read lock, and stop takes the write lock to stop
+        accepting, so no event can be queued after the flusher has seen the buffer closed and drained it
+     */
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled && !(websocketEnabled && !writeAheadLog.isEnabled())) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        accepting = true;
+        flusher = new Thread(this::run, "inbound-event-buffer");
+        flusher.start();
+        log.info("Inbound event buffer started with capacity: {}, flush size: {}, ack mode: {}", capacity, flushSize,
+                ackMode);
+    }
+
+    /**
+     * Stops accepting events and waits for the events already buffered to be written.
+     */
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        try {
+            flusher.join(shutdownTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.error("Inbound event buffer did not drain within {}ms, {} events not written", shutdownTimeout,
+                    queue.size());
+            flusher.interrupt();
+        }
+    }
+
+    /**
+     * Queues the event for the next group commit. Depending on the ack mode this returns right away or once the
+     * event has been written.
+     */
+    public InboundWriteEvent submit(InboundWriteEvent event) {
+        if (event.getId() == null) {
+            //ids are handed out up front so that the response carries the id even before the event is written
+            event.setId(UuidHelper.newTimeOrderedId());
+        }
+
+        PendingEvent pendingEvent = new PendingEvent(event, new CompletableFuture<>(), ackMode == AckMode.ACCEPT);
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new ServiceUnavailableException("Ingestion is not accepting events", 1);
+            }
+            if (!queue.offer(pendingEvent)) {
+                throw new ServiceUnavailableException("Ingestion buffer is full", 1);
+            }
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+
+        if (ackMode == AckMode.ACCEPT) {
+            return event;
+        }
+        try {
+            return pendingEvent.result().get(ackTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebApplicationException("Interrupted while waiting for event to be stored");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new WebApplicationException("Failed to store event");
+        } catch (TimeoutException e) {
+            throw new WebApplicationException("Timed out waiting for event to be stored");
+        }
+    }
+
+    /**
+     * Queues the events for the next group commits without waiting for them. The future completes once every event
+     * has been written, whatever the ack mode.
+     */
+    public CompletableFuture<Void> submitAll(List<InboundWriteEvent> events) {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[events.size()];
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new ServiceUnavailableException("Ingestion is not accepting events", 1);
+            }
+            //checked up front so that a batch is rejected as a whole, unless other producers fill the queue meanwhile
+            if (queue.remainingCapacity() < events.size()) {
+                throw new ServiceUnavailableException("Ingestion buffer is full", 1);
+            }
+
+            for (int i = 0; i < events.size(); i++) {
+                InboundWriteEvent event = events.get(i);
+                if (event.getId() == null) {
+                    event.setId(UuidHelper.newTimeOrderedId());
+                }
+                //the caller acknowledges the events only once the future completes
+                PendingEvent pendingEvent = new PendingEvent(event, new CompletableFuture<>(), false);
+                if (!queue.offer(pendingEvent)) {
+                    pendingEvent.result().completeExceptionally(
+                            new ServiceUnavailableException("Ingestion buffer is full", 1));
+                }
+                results[i] = pendingEvent.result();
+            }
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        return CompletableFuture.allOf(results);
+    }
+
+    private void run() {
+        List<PendingEvent> batch = new ArrayList<>(flushSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingEvent first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                while (batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                long held = batch.stream().filter(PendingEvent::acknowledged).count();
+                if (held > 0) {
+                    log.error("Inbound event buffer interrupted, {} accepted events not written", held);
+                }
+                fail(batch, new ServiceUnavailableException("Ingestion is shutting down", 1));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingEvent> batch) throws InterruptedException {
+        RuntimeException lastError = null;
+        long backoff = retryBackoff;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, maxRetryBackoff);
+            }
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                lastError = e;
+                log.warn("Failed to write {} buffered events, attempt {}: {}", batch.size(), attempt + 1,
+                        e.getMessage());
+            }
+        }
+
+        List<PendingEvent> unacknowledged = pending(batch).stream()
+                .filter(pendingEvent -> !pendingEvent.acknowledged()).toList();
+        if (!unacknowledged.isEmpty()) {
+            log.error("Failing {} buffered events after {} attempts", unacknowledged.size(), maxRetries + 1,
+                    lastError);
+            fail(unacknowledged, lastError);
+        }
+        List<PendingEvent> acknowledged = pending(batch);
+        if (!acknowledged.isEmpty()) {
+            hold(acknowledged);
+        }
+    }
+
+    /*
+        Writes the events of the batch that are not done yet. Only transient errors are thrown, events that fail
+        with a permanent error are rejected and the rest of the batch is written. Events written by an earlier
+        attempt are done, and the insert skips them anyway should they be written again.
+     */
+    private void write(List<PendingEvent> batch) {
+        List<PendingEvent> pending = pending(batch);
+        try {
+            complete(pending);
+        } catch (RuntimeException e) {
+            if (WriteFailureHelper.isTransient(e)) {
+                throw e;
+            }
+            WriteFailureHelper.isolateFailures(pending, e, this::complete, this::reject);
+        }
+    }
+
+    private void complete(List<PendingEvent> batch) {
+        inboundEventService.createAll(batch.stream().map(PendingEvent::event).toList());
+        batch.forEach(pendingEvent -> pendingEvent.result().complete(pendingEvent.event()));
+    }
+
+    private void reject(PendingEvent pendingEvent, RuntimeException error) {
+        InboundWriteEvent event = pendingEvent.event();
+        log.error("Buffered event {} can not be written: {}", event.getId(), error.getMessage());
+        if (pendingEvent.acknowledged()) {
+            try {
+                inboundEventService.quarantine(List.of(WriteFailureHelper.toQuarantinedEvent(event, error)));
+            } catch (RuntimeException e) {
+                log.error("Failed to quarantine accepted event {}, dropping it: {}", event.getId(),
+                        event.getSerializedPayload(), e);
+            }
+        }
+        pendingEvent.result().completeExceptionally(error);
+    }
+
+    private static List<PendingEvent> pending(List<PendingEvent> batch) {
+        return batch.stream().filter(pendingEvent -> !pendingEvent.result().isDone()).toList();
+    }
+
+    /*
+        Events that were acknowledged on acceptance have no caller left to retry them. They are spilled to the
+        write-ahead log, which the replayer writes once the database is back, or retried at the longest backoff until
+        they are written or rejected. Meanwhile the flusher takes nothing new, so the buffer fills up and turns new
+        requests away.
+     */
+    private void hold(List<PendingEvent> batch) throws InterruptedException {
+        List<InboundWriteEvent> events = batch.stream().map(PendingEvent::event).toList();
+        if (writeAheadLog.isEnabled()) {
+            try {
+                events.forEach(writeAheadLog::append);
+                batch.forEach(pendingEvent -> pendingEvent.result().complete(pendingEvent.event()));
+                log.warn("Spilled {} accepted events to the write-ahead log", events.size());
+                return;
+            } catch (RuntimeException e) {
+                //events appended before the failure are written again with the same ids, which replay skips
+                log.error("Failed to spill {} accepted events to the write-ahead log", events.size(), e);
+            }
+        }
+        log.error("Holding {} accepted events until they can be written", events.size());
+        while (true) {
+            Thread.sleep(maxRetryBackoff);
+            try {
+                write(batch);
+                log.info("Wrote {} held events", events.size());
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to write {} held events: {}", events.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void fail(List<PendingEvent> batch, RuntimeException error) {
+        for (PendingEvent pendingEvent : batch) {
+            pendingEvent.result().completeExceptionally(error);
+        }
+    }
+
+    public enum AckMode {
+        //respond once the event is committed
+        FLUSH,
+        //respond once the event is queued in memory
+        ACCEPT
+    }
+
+    //acknowledged when the producer was answered before the event was written
+    private record PendingEvent(InboundWriteEvent event, CompletableFuture<InboundWriteEvent> result,
+                                boolean acknowledged) {
+    }
+}
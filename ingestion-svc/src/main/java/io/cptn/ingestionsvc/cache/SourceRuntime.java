@@ -0,0 +1,112 @@
+package io.cptn.ingestionsvc.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import io.cptn.common.entities.SchemaViolationAction;
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.SchemaHelper;
+import io.cptn.common.pojos.ColumnMapping;
+import io.cptn.common.pojos.Header;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    What ingestion needs of a source, built once when the source is loaded into the cache. The source is a detached
+    copy shared by all requests for it and must not be modified.
+ */
+@Slf4j
+public class SourceRuntime {
+
+    private static final String CORS_HEADER_PREFIX = "Access-Control-";
+
+    @Getter
+    private final Source source;
+
+    private final MultiValueMap<String, String> responseHeaders;
+
+    @Getter
+    private final Map<String, String> corsHeaders;
+
+    //null when the source has no schema
+    @Getter
+    private final JsonSchema schema;
+
+    @Getter
+    private final ColumnMapping columnMapping;
+
+    private SourceRuntime(Source source, MultiValueMap<String, String> responseHeaders,
+                          Map<String, String> corsHeaders, JsonSchema schema, ColumnMapping columnMapping) {
+        this.source = source;
+        this.responseHeaders = responseHeaders;
+        this.corsHeaders = corsHeaders;
+        this.schema = schema;
+        this.columnMapping = columnMapping;
+    }
+
+    public static SourceRuntime of(Source source) {
+        MultiValueMap<String, String> responseHeaders = new LinkedMultiValueMap<>();
+        Map<String, String> corsHeaders = new LinkedHashMap<>();
+        List<Header> headerList = Optional.ofNullable(source.getHeaders()).orElse(List.of());
+        headerList.forEach(header -> {
+            responseHeaders.add(header.getKey(), header.getValue());
+            if (header.getKey().startsWith(CORS_HEADER_PREFIX)) {
+                corsHeaders.put(header.getKey(), header.getValue());
+            }
+        });
+        return new SourceRuntime(source, CollectionUtils.unmodifiableMultiValueMap(responseHeaders),
+                Collections.unmodifiableMap(corsHeaders), compileSchema(source), compileColumnMapping(source));
+    }
+
+    public SchemaViolationAction getSchemaViolationAction() {
+        return Optional.ofNullable(source.getSchemaViolationAction()).orElse(SchemaViolationAction.REJECT);
+    }
+
+    /**
+     * Headers configured on the source, copied for each response since Spring may add to them.
+     */
+    public HttpHeaders getResponseHeaders() {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.addAll(responseHeaders);
+        return httpHeaders;
+    }
+
+    private static JsonSchema compileSchema(Source source) {
+        JsonNode schema = source.getJsonSchema();
+        if (schema == null) {
+            return null;
+        }
+        try {
+            return SchemaHelper.compile(schema);
+        } catch (BadRequestException e) {
+            //schemas are checked when they are saved, so this only happens with schemas saved before that
+            log.warn("Ignoring schema of source {}: {}", source.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static ColumnMapping compileColumnMapping(Source source) {
+        JsonNode columnMapping = source.getColumnMapping();
+        if (columnMapping == null) {
+            return ColumnMapping.identity();
+        }
+        try {
+            return ColumnMapping.compile(columnMapping);
+        } catch (BadRequestException e) {
+            log.warn("Ignoring column mapping of source {}: {}", source.getId(), e.getMessage());
+            return ColumnMapping.identity();
+        }
+    }
+}
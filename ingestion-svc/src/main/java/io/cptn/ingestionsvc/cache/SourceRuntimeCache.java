@@ -0,0 +1,71 @@
+package io.cptn.ingestionsvc.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.cptn.ingestionsvc.services.SourceService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    In-process cache of source runtimes in front of the shared sources cache in Redis, so requests for a cached source
+    make no network call. Sources missing from the database are cached too. mgmt-svc publishes the id of every changed
+    source, which drops the entry here and in Redis. The TTL bounds how long a source stays stale if a message is lost.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SourceRuntimeCache implements MessageListener {
+
+    private final SourceService sourceService;
+
+    @Value("${inbound.source.cache.ttl:30000}")
+    private long ttl;
+
+    @Value("${inbound.source.cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<UUID, Optional<SourceRuntime>> runtimes;
+
+    @PostConstruct
+    public void init() {
+        runtimes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public Optional<SourceRuntime> get(UUID sourceId) {
+        return runtimes.get(sourceId, id -> sourceService.getById(id).map(SourceRuntime::of));
+    }
+
+    public void invalidate(UUID sourceId) {
+        //the shared entry goes first, otherwise the next request could reload the old source from it
+        sourceService.evict(sourceId);
+        runtimes.invalidate(sourceId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String sourceId = new String(message.getBody(), StandardCharsets.UTF_8);
+        UUID id;
+        try {
+            id = UUID.fromString(sourceId);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring change of invalid source id: {}", sourceId);
+            return;
+        }
+        invalidate(id);
+    }
+}
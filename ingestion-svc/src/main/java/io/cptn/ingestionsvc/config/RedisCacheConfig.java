@@ -1,6 +1,9 @@
 package io.cptn.ingestionsvc.config;
 
 import com.google.common.collect.Maps;
+import io.cptn.common.entities.Source;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
@@ -11,6 +14,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 import java.time.Duration;
 import java.util.Map;
@@ -32,6 +37,19 @@ public class RedisCacheConfig implements CachingConfigurer {
                 cacheNamesConfigurationMap);
     }
 
+    /*
+        Subscribes to the ids of sources changed in mgmt-svc. Without it cached sources are only refreshed by TTL.
+     */
+    @Bean
+    @ConditionalOnProperty(value = "inbound.source.cache.invalidation.enabled", matchIfMissing = true)
+    public RedisMessageListenerContainer sourceChangesListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        SourceRuntimeCache sourceRuntimeCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(sourceRuntimeCache, new ChannelTopic(Source.CHANGES_CHANNEL));
+        return container;
+    }
+
     @Override
     public CacheErrorHandler errorHandler() {
         return new LoggingCacheErrorHandler(true);
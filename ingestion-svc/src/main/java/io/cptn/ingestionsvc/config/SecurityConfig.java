@@ -11,7 +11,7 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
-    private static final String[] PUBLIC_PAGES = new String[]{"/event/source/**", "/actuator/health"};
+    private static final String[] PUBLIC_PAGES = new String[]{"/event/source/**", "/actuator/health", "/actuator/health/**"};
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -0,0 +1,41 @@
+package io.cptn.ingestionsvc.config;
+
+import io.cptn.ingestionsvc.helpers.VirtualThreads;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Runs Tomcat request handling on virtual threads. Uses the same property as Spring Boot 3.2, which handles this
+    itself once the service is upgraded. Request handling is not bounded by the executor, database access on the
+    request path is bounded by ConnectionPoolLimiter instead.
+ */
+@Configuration
+@ConditionalOnProperty(value = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private final ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+            }
+        };
+    }
+
+    //Tomcat only shuts down executors it created itself, this runs after the web server has stopped
+    @PreDestroy
+    public void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.cptn.ingestionsvc.config;
+
+import io.cptn.ingestionsvc.websocket.InboundEventWebSocketHandler;
+import io.cptn.ingestionsvc.websocket.SourceHandshakeInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/* @author: kc, created on 10/18/26 */
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(value = "inbound.event.websocket.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final InboundEventWebSocketHandler webSocketHandler;
+
+    private final SourceHandshakeInterceptor handshakeInterceptor;
+
+    @Value("${inbound.event.websocket.max-frame-size:1048576}")
+    private int maxFrameSize;
+
+    @Value("${inbound.event.websocket.idle-timeout:300000}")
+    private long idleTimeout;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        //connections are authenticated with the source keys rather than cookies, so any origin may connect
+        registry.addHandler(webSocketHandler, "/event/source/*/ws")
+                .addInterceptors(handshakeInterceptor)
+                .setAllowedOriginPatterns("*");
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        //frames bigger than this close the connection
+        container.setMaxTextMessageBufferSize(maxFrameSize);
+        container.setMaxSessionIdleTimeout(idleTimeout);
+        return container;
+    }
+}
@@ -1,32 +1,67 @@
 package io.cptn.ingestionsvc.controllers;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.CountingInputStream;
+import com.networknt.schema.JsonSchema;
 import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.ResponseMode;
 import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
 import io.cptn.common.exceptions.NotFoundException;
-import io.cptn.common.exceptions.UnauthorizedException;
+import io.cptn.common.exceptions.WebApplicationException;
+import io.cptn.common.exceptions.models.AppError;
 import io.cptn.common.helpers.JsonHelper;
-import io.cptn.common.pojos.Header;
+import io.cptn.common.helpers.SourceKeyHelper;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.buffer.InboundWriteEventBuffer;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
 import io.cptn.ingestionsvc.dto.InboundWriteEventDto;
+import io.cptn.ingestionsvc.dto.IngestionSummaryDto;
+import io.cptn.ingestionsvc.dto.UploadProgressDto;
+import io.cptn.ingestionsvc.helpers.ContentEncodingHelper;
+import io.cptn.ingestionsvc.helpers.PayloadFormat;
 import io.cptn.ingestionsvc.mappers.InboundWriteEventMapper;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.services.InboundFileLoader;
 import io.cptn.ingestionsvc.services.InboundWriteEventService;
-import io.cptn.ingestionsvc.services.SourceService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /* @author: kc, created on 2/8/23 */
 @RestController
@@ -34,100 +69,465 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class InboundWriteEventController {
 
-    private final SourceService sourceService;
+    private static final String TOKEN_PARAMETER = "token";
+
+    private static final String PIXEL_DATA_PARAMETER = "data";
+
+    //transparent 1x1 gif
+    private static final byte[] PIXEL = Base64.getDecoder()
+            .decode("R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7");
+
+    private final SourceRuntimeCache sourceRuntimeCache;
     private final InboundWriteEventService inboundEventService;
 
     private final InboundWriteEventMapper inboundEventMapper;
 
+    private final InboundWriteEventBuffer inboundEventBuffer;
+
+    private final WriteAheadLog writeAheadLog;
+
+    private final SourceRateLimiter rateLimiter;
+
+    private final BacklogMonitor backlogMonitor;
+
+    private final DuplicateFilter duplicateFilter;
+
+    private final InboundEventAssembler eventAssembler;
+
+    private final InboundFileLoader fileLoader;
+
+    @Value("${inbound.event.batch.chunk-size:100}")
+    private int batchChunkSize;
+
+    @Value("${inbound.event.bulk.chunk-size:5000}")
+    private int bulkChunkSize;
+
+    @Value("${inbound.event.stream.chunk-size:100}")
+    private int streamChunkSize;
+
+    @Value("${inbound.event.stream.flush-interval:1000}")
+    private long streamFlushInterval;
 
-    @PostMapping("/event/source/{sourceId}")
+    @Value("${inbound.event.decompression.max-size:52428800}")
+    private long maxDecompressedSize;
+
+    @PostMapping(value = "/event/source/{sourceId}", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            "application/*+json", "application/cbor", "application/x-jackson-smile", "application/smile",
+            "application/msgpack", "application/x-msgpack", "application/vnd.msgpack"})
     public ResponseEntity<InboundWriteEventDto> createEvent(@PathVariable UUID sourceId,
-                                                            @RequestBody JsonNode jsonPayload, HttpServletRequest request) {
-        Source source = getSource(sourceId);
+                                                            HttpServletRequest request) throws IOException {
+        SourceRuntime sourceRuntime = getSourceRuntime(sourceId);
+        Source source = sourceRuntime.getSource();
 
         verifySecurity(source, request);
 
-        if (Boolean.TRUE.equals(source.getCaptureRemoteIP())) {
-            this.addRemoteIp(jsonPayload, request);
+        byte[] body = getBody(source, request).readAllBytes();
+        rateLimiter.acquire(source, 1, body.length);
+
+        PayloadFormat format = PayloadFormat.of(request.getContentType());
+        JsonSchema schema = sourceRuntime.getSchema();
+        //plain JSON without a schema is never parsed into a tree
+        JsonNode payload = format != PayloadFormat.JSON || schema != null ?
+                JsonHelper.readValue(body, format.getFactory()) : null;
+
+        HttpHeaders httpHeaders = sourceRuntime.getResponseHeaders();
+
+        if (schema != null && !eventAssembler.validate(sourceRuntime, payload)) {
+            //a quarantined event is acknowledged like any other, it is only kept out of processing
+            return ResponseEntity.status(HttpStatus.ACCEPTED).headers(httpHeaders).build();
         }
+
+        boolean captureRemoteIp = Boolean.TRUE.equals(source.getCaptureRemoteIP());
         InboundWriteEvent event = new InboundWriteEvent();
-        event.setPayload(jsonPayload);
+        if (format == PayloadFormat.JSON) {
+            //the body is stored as sent, it is only tokenized to validate it and to splice in the remote ip
+            event.setSerializedPayload(JsonHelper.readRawJson(body,
+                    captureRemoteIp ? InboundEventAssembler.CPTN_FIELD : null,
+                    captureRemoteIp ? eventAssembler.getCptnNode(request.getRemoteAddr()) : null));
+        } else {
+            if (captureRemoteIp && payload.isObject()) {
+                eventAssembler.addRemoteIp(payload, request.getRemoteAddr());
+            }
+            event.setSerializedPayload(JsonHelper.serializeJson(payload));
+        }
         event.setSource(source);
 
-        HttpHeaders httpHeaders = getHttpHeaders(source);
+        List<String> keys = Collections.singletonList(duplicateFilter.isEnabled(source) ?
+                getIdempotencyKey(source, request, body, payload, format) : null);
+        if (keys.get(0) != null && duplicateFilter.isDuplicate(source, keys.get(0))) {
+            //a retried delivery is acknowledged without being stored again
+            return ResponseEntity.status(HttpStatus.ACCEPTED).headers(httpHeaders).build();
+        }
+
+        //the key is only remembered once the event is written, so that the retry of a failed write is stored
+        InboundWriteEvent writtenEvent;
+        try {
+            writtenEvent = write(event);
+        } catch (RuntimeException e) {
+            duplicateFilter.release(source, keys);
+            throw e;
+        }
+        duplicateFilter.record(source, keys);
+
+        //the write-ahead log and the buffer in accept mode acknowledge events before they are in the database
+        HttpStatus status = writeAheadLog.isEnabled() || inboundEventBuffer.isEnabled() &&
+                inboundEventBuffer.getAckMode() == InboundWriteEventBuffer.AckMode.ACCEPT ?
+                HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).headers(httpHeaders).body(convert(writtenEvent));
+    }
+
+    /*
+        For navigator.sendBeacon, which posts a string as text/plain. That is a simple request for browsers, so unlike
+        a JSON post it goes out without a preflight. The key is passed with the token parameter and the response is
+        empty since beacons never read it.
+     */
+    @PostMapping(value = "/event/source/{sourceId}/beacon", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Void> createBeaconEvent(@PathVariable UUID sourceId,
+                                                  HttpServletRequest request) throws IOException {
+        SourceRuntime sourceRuntime = getSourceRuntime(sourceId);
+        Source source = sourceRuntime.getSource();
+        verifySecurity(source, request);
+
+        byte[] body = getBody(source, request).readAllBytes();
+        rateLimiter.acquire(source, 1, body.length);
+        storeEvent(sourceRuntime, JsonHelper.readValue(body, PayloadFormat.JSON.getFactory()),
+                request.getRemoteAddr());
 
-        return ResponseEntity.ok().headers(httpHeaders).body(convert(inboundEventService.create(event)));
+        return ResponseEntity.noContent().headers(sourceRuntime.getResponseHeaders()).build();
     }
 
+    /*
+        Tracking pixel for clients that can only load an image. The event is the JSON in the data parameter or,
+        without it, an object of the query parameters other than the token. Every request is answered with the same
+        1x1 gif, which browsers are told not to cache so that every load reaches the endpoint.
+     */
+    @GetMapping("/event/source/{sourceId}/pixel.gif")
+    public ResponseEntity<byte[]> createPixelEvent(@PathVariable UUID sourceId,
+                                                   HttpServletRequest request) throws IOException {
+        SourceRuntime sourceRuntime = getSourceRuntime(sourceId);
+        Source source = sourceRuntime.getSource();
+        verifySecurity(source, request);
+
+        String queryString = request.getQueryString();
+        rateLimiter.acquire(source, 1, queryString != null ? queryString.length() : 0);
+        storeEvent(sourceRuntime, getPixelPayload(request), request.getRemoteAddr());
+
+        return ResponseEntity.ok()
+                .headers(sourceRuntime.getResponseHeaders())
+                .contentType(MediaType.IMAGE_GIF)
+                .cacheControl(CacheControl.noStore())
+                .body(PIXEL);
+    }
+
+    /*
+        The response is chosen with the response parameter, or the source's response mode when it is not passed.
+        Only the full response maps every event to a DTO, the other modes skip the conversion.
+     */
     @PostMapping("/event/source/{sourceId}/batch")
-    public ResponseEntity<List<InboundWriteEventDto>> processEventBatch(@PathVariable UUID sourceId,
-                                                                        @RequestBody ArrayNode jsonArray,
-                                                                        HttpServletRequest request) {
-        Source source = getSource(sourceId);
+    public ResponseEntity<Object> processEventBatch(@PathVariable UUID sourceId,
+                                                    @RequestParam(name = "response", required = false)
+                                                    String requestedMode,
+                                                    HttpServletRequest request,
+                                                    HttpServletResponse response) throws IOException {
+        SourceRuntime sourceRuntime = getSourceRuntime(sourceId);
+        Source source = sourceRuntime.getSource();
         verifySecurity(source, request);
+        ResponseMode responseMode = getResponseMode(source, requestedMode);
+
+        //the size of a batch is only known while reading it, so it is charged to the rate limit chunk by chunk
+        rateLimiter.acquire(source, 0, 0);
+        HttpHeaders httpHeaders = sourceRuntime.getResponseHeaders();
+
+        if (responseMode == ResponseMode.IDS) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            httpHeaders.forEach((key, values) -> values.forEach(value -> response.addHeader(key, value)));
+            writeEventIds(sourceRuntime, request, response.getOutputStream());
+            //the response was written directly
+            return null;
+        }
 
         List<InboundWriteEventDto> eventDtoList = new ArrayList<>();
-        jsonArray.forEach(jsonNode -> {
-            if (Boolean.TRUE.equals(source.getCaptureRemoteIP())) {
-                this.addRemoteIp(jsonNode, request);
+        long count = readBatch(sourceRuntime, request, events -> {
+            if (responseMode == ResponseMode.FULL) {
+                events.forEach(event -> eventDtoList.add(convert(event)));
             }
-            InboundWriteEvent event = new InboundWriteEvent();
-            event.setPayload(jsonNode);
-            event.setSource(source);
-            eventDtoList.add(convert(inboundEventService.create(event)));
         });
-        HttpHeaders httpHeaders = getHttpHeaders(source);
 
-        return ResponseEntity.ok().headers(httpHeaders).body(eventDtoList);
+        return switch (responseMode) {
+            case NONE -> ResponseEntity.accepted().headers(httpHeaders).build();
+            case COUNT -> ResponseEntity.ok().headers(httpHeaders).body(new IngestionSummaryDto(sourceId, count));
+            default -> ResponseEntity.ok().headers(httpHeaders).body(eventDtoList);
+        };
     }
 
-    private void addRemoteIp(JsonNode jsonPayload, HttpServletRequest request) {
-        ObjectNode cptnNode = JsonHelper.getMapper().createObjectNode();
-        cptnNode.put("remote_ip", request.getRemoteAddr());
-        ((ObjectNode) jsonPayload).putIfAbsent("cptn", cptnNode);
+    /*
+        Meant for large backfills. Every chunk is written with COPY in its own transaction, so a long load does not
+        hold a transaction open for its whole duration and keep vacuum from cleaning up inbound_queue. Progress is
+        written as a line per chunk with the events written and the offset reached in the array, and a failed load is
+        resumed by passing the offset of its last progress line.
+     */
+    @PostMapping("/event/source/{sourceId}/bulk")
+    public void bulkLoadEvents(@PathVariable UUID sourceId,
+                               @RequestParam(name = "offset", defaultValue = "0") long offset,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SourceRuntime sourceRuntime = getSourceRuntime(sourceId);
+        Source source = sourceRuntime.getSource();
+        verifySecurity(source, request);
+        if (offset < 0) {
+            throw new BadRequestException("Offset must not be negative");
+        }
+        rateLimiter.acquire(source, 0, 0);
+
+        JsonFactory factory = getFactory(request);
+        InputStream body = getBody(source, request);
+        writeProgress(sourceRuntime, response, progressConsumer -> fileLoader.loadArray(sourceRuntime, body, factory,
+                bulkChunkSize, offset, request.getRemoteAddr(), progressConsumer));
     }
 
-    private HttpHeaders getHttpHeaders(Source source) {
-        HttpHeaders httpHeaders = new HttpHeaders();
-        List<Header> headerList = Optional.ofNullable(source.getHeaders()).orElse(List.of());
-        headerList.forEach(header -> httpHeaders.add(header.getKey(), header.getValue()));
-        return httpHeaders;
+    /*
+        Accepts newline delimited JSON, or a sequence of binary values, over a long-lived request. Events are
+        persisted chunk by chunk as they arrive and every persisted chunk is acknowledged with a line carrying the
+        number of events written so far.
+     */
+    @PostMapping("/event/source/{sourceId}/stream")
+    public void streamEvents(@PathVariable UUID sourceId, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        SourceRuntime sourceRuntime = getSourceRuntime(sourceId);
+        Source source = sourceRuntime.getSource();
+        verifySecurity(source, request);
+        rateLimiter.acquire(source, 0, 0);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        sourceRuntime.getResponseHeaders()
+                .forEach((key, values) -> values.forEach(value -> response.addHeader(key, value)));
+
+        OutputStream outputStream = response.getOutputStream();
+        AtomicLong persistedCount = new AtomicLong();
+        CountingInputStream body = new CountingInputStream(getBody(source, request));
+        AtomicLong chargedBytes = new AtomicLong();
+        try {
+            JsonHelper.readValuesInChunks(body, getFactory(request), streamChunkSize, streamFlushInterval, chunk -> {
+                eventAssembler.write(sourceRuntime, chunk, request.getRemoteAddr(), inboundEventService::createAll);
+                writeLine(outputStream, new IngestionSummaryDto(sourceId, persistedCount.addAndGet(chunk.size())));
+                //a stream that goes over its limit is ended with an error line once the chunk is acknowledged
+                chargeChunk(source, chunk.size(), body, chargedBytes);
+                rateLimiter.acquire(source, 0, 0);
+            });
+        } catch (WebApplicationException e) {
+            if (!response.isCommitted()) {
+                throw e;
+            }
+            //acks were already sent, so the failure is reported in-stream after the last acknowledged chunk
+            writeLine(outputStream, new AppError(e.getMessage()));
+        }
     }
 
-    private Source getSource(UUID sourceId) {
-        Optional<Source> sourceOptional = sourceService.getById(sourceId);
-        if (sourceOptional.isEmpty()) {
-            throw new NotFoundException("Source not found with passed ID");
+    /*
+        Bulk import of a CSV or newline delimited JSON file sent as the file part of a multipart request. CSV columns
+        are turned into fields with the source's column mapping. Rows are written chunk by chunk and every chunk is
+        acknowledged with a line carrying the offset reached, which is passed back with the offset parameter to
+        resume a failed upload.
+     */
+    @PostMapping(value = "/event/source/{sourceId}/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public void uploadEvents(@PathVariable UUID sourceId, @RequestParam("file") MultipartFile file,
+                             @RequestParam(name = "format", required = false) String requestedFormat,
+                             @RequestParam(name = "offset", defaultValue = "0") long offset,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SourceRuntime sourceRuntime = getSourceRuntime(sourceId);
+        Source source = sourceRuntime.getSource();
+        verifySecurity(source, request);
+        if (offset < 0) {
+            throw new BadRequestException("Offset must not be negative");
         }
+        InboundFileLoader.Format format = InboundFileLoader.Format.of(requestedFormat, file.getContentType(),
+                file.getOriginalFilename());
+        rateLimiter.acquire(source, 0, 0);
 
-        Source source = sourceOptional.get();
-        if (!Boolean.TRUE.equals(source.getActive())) {
-            throw new NotFoundException("Source not active");
+        //the part is spooled to disk by the container, so it is read from there and not held in memory
+        try (InputStream inputStream = file.getInputStream()) {
+            writeProgress(sourceRuntime, response, progressConsumer -> fileLoader.load(sourceRuntime, inputStream,
+                    format, offset, request.getRemoteAddr(), progressConsumer));
         }
-        return source;
     }
 
-    private void verifySecurity(Source source, HttpServletRequest request) {
+    /*
+        Progress lines are sent as chunks are committed. A failure before the first line gets an error response,
+        after that it is written as a last line, and the client resumes from the offset of the line before it.
+     */
+    private void writeProgress(SourceRuntime sourceRuntime, HttpServletResponse response, ProgressLoad load)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        sourceRuntime.getResponseHeaders()
+                .forEach((key, values) -> values.forEach(value -> response.addHeader(key, value)));
 
-        if (Boolean.FALSE.equals(source.getSecured())) {
-            return;
+        OutputStream outputStream = response.getOutputStream();
+        try {
+            load.run(progress -> writeLine(outputStream, progress));
+        } catch (WebApplicationException e) {
+            if (!response.isCommitted()) {
+                throw e;
+            }
+            writeLine(outputStream, new AppError(e.getMessage()));
         }
+    }
 
-        String authHeader = request.getHeader("Authorization");
-        String token = request.getParameter("token");
-        if (source.getPrimaryKey().equals(authHeader) || source.getPrimaryKey().equals(token)) {
-            return;
+    /*
+        The body is read as a stream so that large batches are persisted chunk by chunk without holding the whole
+        array in memory
+     */
+    private long readBatch(SourceRuntime sourceRuntime, HttpServletRequest request,
+                           Consumer<List<InboundWriteEvent>> persistedChunkConsumer) throws IOException {
+        Source source = sourceRuntime.getSource();
+        CountingInputStream body = new CountingInputStream(getBody(source, request));
+        AtomicLong chargedBytes = new AtomicLong();
+        return JsonHelper.readArrayInChunks(body, getFactory(request), batchChunkSize, chunk -> {
+            chargeChunk(source, chunk.size(), body, chargedBytes);
+            persistedChunkConsumer.accept(eventAssembler.write(sourceRuntime, chunk, request.getRemoteAddr(),
+                    inboundEventService::createAll));
+        });
+    }
+
+    /*
+        Writes the ids as a JSON array, a chunk at a time once it is committed. The array is only opened after the
+        first chunk, so earlier failures still get an error response. A failure after that leaves the array
+        unterminated, which clients see as an invalid response.
+     */
+    private void writeEventIds(SourceRuntime sourceRuntime, HttpServletRequest request, OutputStream outputStream)
+            throws IOException {
+        AtomicBoolean first = new AtomicBoolean(true);
+        readBatch(sourceRuntime, request, events -> {
+            try {
+                for (InboundWriteEvent event : events) {
+                    outputStream.write(first.getAndSet(false) ? '[' : ',');
+                    outputStream.write('"');
+                    outputStream.write(event.getId().toString().getBytes(StandardCharsets.US_ASCII));
+                    outputStream.write('"');
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        outputStream.write(first.get() ? "[]".getBytes(StandardCharsets.US_ASCII) : new byte[]{']'});
+        outputStream.flush();
+    }
+
+    private ResponseMode getResponseMode(Source source, String requestedMode) {
+        if (requestedMode == null || requestedMode.isBlank()) {
+            return Optional.ofNullable(source.getResponseMode()).orElse(ResponseMode.FULL);
         }
+        try {
+            return ResponseMode.valueOf(requestedMode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid response mode: " + requestedMode);
+        }
+    }
 
-        if (source.getSecondaryKey().equals(authHeader) || source.getSecondaryKey().equals(token)) {
-            log.warn("Secondary key used for source: {}", source.getId());
-            return;
+    private void chargeChunk(Source source, int events, CountingInputStream body, AtomicLong chargedBytes) {
+        long count = body.getCount();
+        rateLimiter.charge(source, events, count - chargedBytes.getAndSet(count));
+    }
+
+    private InputStream getBody(Source source, HttpServletRequest request) throws IOException {
+        long maxSize = Optional.ofNullable(source.getMaxDecompressedSize()).orElse(maxDecompressedSize);
+        return ContentEncodingHelper.decode(request.getInputStream(), request.getHeader(HttpHeaders.CONTENT_ENCODING),
+                maxSize);
+    }
+
+    private JsonFactory getFactory(HttpServletRequest request) {
+        return PayloadFormat.of(request.getContentType()).getFactory();
+    }
+
+    private void writeLine(OutputStream outputStream, Object value) {
+        try {
+            outputStream.write(JsonHelper.getMapper().writeValueAsBytes(value));
+            outputStream.write('\n');
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        throw new UnauthorizedException("Unauthorized");
+    private String getIdempotencyKey(Source source, HttpServletRequest request, byte[] body, JsonNode payload,
+                                     PayloadFormat format) throws IOException {
+        String key = request.getHeader(DuplicateFilter.IDEMPOTENCY_KEY_HEADER);
+        if (key != null || source.getIdempotencyKeyPointer() == null) {
+            return key;
+        }
+        return duplicateFilter.getKey(source, payload != null ? payload : JsonHelper.readValue(body,
+                format.getFactory()));
+    }
+
+    private JsonNode getPixelPayload(HttpServletRequest request) throws IOException {
+        String data = request.getParameter(PIXEL_DATA_PARAMETER);
+        if (data != null) {
+            return JsonHelper.readValue(data.getBytes(StandardCharsets.UTF_8), PayloadFormat.JSON.getFactory());
+        }
+        ObjectNode payload = JsonHelper.getMapper().createObjectNode();
+        request.getParameterMap().forEach((name, values) -> {
+            if (!TOKEN_PARAMETER.equals(name)) {
+                payload.put(name, values[0]);
+            }
+        });
+        return payload;
+    }
+
+    /*
+        Goes through the same schema, dedup and remote ip handling as a batch, and nothing is mapped to a response
+     */
+    private void storeEvent(SourceRuntime sourceRuntime, JsonNode payload, String remoteAddr) {
+        if (!payload.isObject()) {
+            throw new BadRequestException("Payload must be a JSON object");
+        }
+        eventAssembler.write(sourceRuntime, List.of(payload), remoteAddr, events -> {
+            //a duplicate or quarantined event is acknowledged like any other
+            events.forEach(this::write);
+            return events;
+        });
+    }
+
+    /*
+        Writes through the write-ahead log or the buffer when they are enabled, which acknowledge the event once it
+        is appended or queued
+     */
+    private InboundWriteEvent write(InboundWriteEvent event) {
+        if (writeAheadLog.isEnabled()) {
+            writeAheadLog.append(event);
+            return event;
+        }
+        if (inboundEventBuffer.isEnabled()) {
+            return inboundEventBuffer.submit(event);
+        }
+        return inboundEventService.create(event);
+    }
+
+    private SourceRuntime getSourceRuntime(UUID sourceId) {
+        Optional<SourceRuntime> sourceRuntimeOptional = sourceRuntimeCache.get(sourceId);
+        if (sourceRuntimeOptional.isEmpty()) {
+            throw new NotFoundException("Source not found with passed ID");
+        }
+
+        SourceRuntime sourceRuntime = sourceRuntimeOptional.get();
+        if (!Boolean.TRUE.equals(sourceRuntime.getSource().getActive())) {
+            throw new NotFoundException("Source not active");
+        }
+        backlogMonitor.admit(sourceRuntime.getSource());
+        return sourceRuntime;
+    }
+
+    private void verifySecurity(Source source, HttpServletRequest request) {
+        if (Boolean.FALSE.equals(source.getSecured())) {
+            return;
+        }
+        SourceKeyHelper.verify(source, request.getHeader("Authorization"), request.getParameter(TOKEN_PARAMETER));
     }
 
     private InboundWriteEventDto convert(InboundWriteEvent event) {
         return inboundEventMapper.toDto(event);
     }
+
+    @FunctionalInterface
+    private interface ProgressLoad {
+        void run(Consumer<UploadProgressDto> progressConsumer) throws IOException;
+    }
 }
@@ -0,0 +1,243 @@
+package io.cptn.ingestionsvc.dedup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.cptn.common.entities.Source;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Remembers the idempotency keys of recent events per source, so retried deliveries are acknowledged without being
+    stored again. Keys are checked before the events are written and only remembered once the write succeeded, so a
+    retry after a failed write is not taken for a duplicate.
+
+    With redis enabled the keys go into an exact set in Redis with a TTL of the window, shared by all replicas. A key
+    is claimed with SET NX when it is checked, so that concurrent deliveries are stored once, and the claim is
+    released when the write fails. When Redis cannot be reached only duplicates within the same request are dropped,
+    everything else is let through.
+
+    Without Redis every replica keeps a time windowed bloom filter of the keys it has stored, which decides at the
+    configured false positive rate as long as a source sends fewer than expected-keys keys per window.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DuplicateFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String KEY_PREFIX = "cptn:dedup:";
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    //which check dropped an event, the filter can drop an event that was never seen at the false positive rate
+    private static final String CHECK_EXACT = "exact";
+
+    private static final String CHECK_FILTER = "filter";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inbound.event.dedup.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${inbound.event.dedup.expected-keys:100000}")
+    private int expectedKeys;
+
+    @Value("${inbound.event.dedup.fpp:0.000001}")
+    private double fpp;
+
+    private final Map<UUID, TimeWindowedBloomFilter> filters = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Map<String, Counter>> duplicateCounters = new ConcurrentHashMap<>();
+
+    public boolean isEnabled(Source source) {
+        return source.getDedupWindow() != null && source.getDedupWindow() > 0;
+    }
+
+    /**
+     * Reads the idempotency key from the payload with the source's JSON pointer. Only scalar values are used as keys.
+     */
+    public String getKey(Source source, JsonNode payload) {
+        if (source.getIdempotencyKeyPointer() == null || payload == null) {
+            return null;
+        }
+        JsonNode value = payload.at(source.getIdempotencyKeyPointer());
+        return value.isValueNode() && !value.isNull() ? value.asText() : null;
+    }
+
+    public boolean isDuplicate(Source source, String key) {
+        return findDuplicates(source, Collections.singletonList(key))[0];
+    }
+
+    /**
+     * Tells which of the keys were already stored within the source's window, including earlier keys of the same
+     * list. Null keys are never duplicates. The keys that are not duplicates must be passed to {@link #record} once
+     * their events are written, or to {@link #release} when writing them failed.
+     */
+    public boolean[] findDuplicates(Source source, List<String> keys) {
+        boolean[] duplicates = new boolean[keys.size()];
+        if (!isEnabled(source)) {
+            return duplicates;
+        }
+
+        HashCode[] hashes = new HashCode[keys.size()];
+        Set<HashCode> seen = new HashSet<>();
+        int exact = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (keys.get(i) != null) {
+                hashes[i] = hash(keys.get(i));
+                if (!seen.add(hashes[i])) {
+                    duplicates[i] = true;
+                    exact++;
+                }
+            }
+        }
+
+        int filtered = 0;
+        if (redisEnabled) {
+            exact += findSharedDuplicates(source, hashes, duplicates);
+        } else {
+            long now = System.nanoTime();
+            TimeWindowedBloomFilter filter = getFilter(source, now);
+            for (int i = 0; i < hashes.length; i++) {
+                if (hashes[i] != null && !duplicates[i] && filter.mightContain(hashes[i], now)) {
+                    duplicates[i] = true;
+                    filtered++;
+                }
+            }
+        }
+
+        count(source, CHECK_EXACT, exact);
+        count(source, CHECK_FILTER, filtered);
+        return duplicates;
+    }
+
+    /**
+     * Remembers the keys of events that were written.
+     */
+    public void record(Source source, List<String> keys) {
+        if (!isEnabled(source) || redisEnabled) {
+            //the claims in Redis already hold the keys
+            return;
+        }
+        long now = System.nanoTime();
+        TimeWindowedBloomFilter filter = getFilter(source, now);
+        keys.stream().filter(Objects::nonNull).forEach(key -> filter.put(hash(key), now));
+    }
+
+    /**
+     * Forgets the keys of events that could not be written, so that their retries are stored.
+     */
+    public void release(Source source, List<String> keys) {
+        if (!isEnabled(source) || !redisEnabled) {
+            return;
+        }
+        String keyPrefix = KEY_PREFIX + source.getId() + ":";
+        List<String> redisKeys = keys.stream().filter(Objects::nonNull).map(key -> keyPrefix + hash(key)).toList();
+        if (redisKeys.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(redisKeys);
+        } catch (DataAccessException e) {
+            //the retries are taken for duplicates until the keys expire
+            log.error("Failed to release {} idempotency keys of source {}: {}", redisKeys.size(), source.getId(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Number of events dropped as duplicates for the source since startup.
+     */
+    public double getDuplicateCount(UUID sourceId) {
+        return duplicateCounters.getOrDefault(sourceId, Map.of()).values().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private TimeWindowedBloomFilter getFilter(Source source, long now) {
+        long windowNanos = TimeUnit.SECONDS.toNanos(source.getDedupWindow());
+        return filters.compute(source.getId(), (id, existing) ->
+                existing != null && existing.getWindowNanos() == windowNanos ? existing :
+                        new TimeWindowedBloomFilter(windowNanos, expectedKeys, fpp, now));
+    }
+
+    private HashCode hash(String key) {
+        return HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8);
+    }
+
+    private void count(Source source, String check, int count) {
+        if (count == 0) {
+            return;
+        }
+        duplicateCounters.computeIfAbsent(source.getId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(check, key -> Counter.builder("cptn.ingestion.duplicates")
+                        .description("Events acknowledged without being stored as their idempotency key was seen")
+                        .tag("source", source.getId().toString())
+                        .tag("check", check)
+                        .register(meterRegistry))
+                .increment(count);
+    }
+
+    /*
+        Claims the keys that are not duplicates within the list yet. Fails open when Redis cannot be reached, as the
+        local filter does not know the keys stored through other replicas and is not exact.
+
+        Returns the number of duplicates found.
+     */
+    private int findSharedDuplicates(Source source, HashCode[] hashes, boolean[] duplicates) {
+        String keyPrefix = KEY_PREFIX + source.getId() + ":";
+        Expiration expiration = Expiration.seconds(source.getDedupWindow());
+        try {
+            //one round trip for all keys, SET NX tells whether the key was already there
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (int i = 0; i < hashes.length; i++) {
+                    if (hashes[i] != null && !duplicates[i]) {
+                        stringConnection.set(keyPrefix + hashes[i], "1", expiration,
+                                RedisStringCommands.SetOption.SET_IF_ABSENT);
+                    }
+                }
+                return null;
+            });
+            int result = 0;
+            int found = 0;
+            for (int i = 0; i < hashes.length; i++) {
+                if (hashes[i] != null && !duplicates[i] && !Boolean.TRUE.equals(results.get(result++))) {
+                    duplicates[i] = true;
+                    found++;
+                }
+            }
+            return found;
+        } catch (DataAccessException e) {
+            log.warn("Shared dedup index unavailable, not dropping events of source {}: {}", source.getId(),
+                    e.getMessage());
+            return 0;
+        }
+    }
+}
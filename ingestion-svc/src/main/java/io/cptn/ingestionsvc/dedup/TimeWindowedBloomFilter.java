@@ -0,0 +1,87 @@
+package io.cptn.ingestionsvc.dedup;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.HashCode;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Bloom filter that forgets keys over time. Keys go into the current generation, and every window the current
+    generation becomes the previous one and the oldest is dropped, so a key is remembered for at least one window and
+    at most two while memory stays bounded by two filters. A generation that reaches the expected number of keys is
+    rotated early, which keeps the false positive rate at the configured one but forgets keys sooner when a source
+    sends more keys per window than expected.
+ */
+class TimeWindowedBloomFilter {
+
+    private static final Funnel<HashCode> HASH_FUNNEL = (hash, into) -> into.putBytes(hash.asBytes());
+
+    private final long windowNanos;
+
+    private final int expectedKeys;
+
+    private final double fpp;
+
+    private volatile Generations generations;
+
+    TimeWindowedBloomFilter(long windowNanos, int expectedKeys, double fpp, long now) {
+        this.windowNanos = windowNanos;
+        this.expectedKeys = expectedKeys;
+        this.fpp = fpp;
+        this.generations = new Generations(newFilter(), null, now + windowNanos, new AtomicInteger());
+    }
+
+    long getWindowNanos() {
+        return windowNanos;
+    }
+
+    /**
+     * @return false when the key was definitely not added within the window, true when it might have been
+     */
+    boolean mightContain(HashCode hash, long now) {
+        Generations current = rotate(now);
+        return current.current().mightContain(hash) ||
+                current.previous() != null && current.previous().mightContain(hash);
+    }
+
+    void put(HashCode hash, long now) {
+        Generations current = rotate(now);
+        //put only changes no bits when every bit of the key was already set
+        if (current.current().put(hash) && current.size().incrementAndGet() >= expectedKeys) {
+            synchronized (this) {
+                if (generations == current) {
+                    generations = new Generations(newFilter(), current.current(), now + windowNanos,
+                            new AtomicInteger());
+                }
+            }
+        }
+    }
+
+    private Generations rotate(long now) {
+        Generations current = generations;
+        if (now - current.rotateAt() < 0) {
+            return current;
+        }
+        synchronized (this) {
+            current = generations;
+            if (now - current.rotateAt() >= 0) {
+                //after more than a whole idle window the current generation is too old to keep as well
+                BloomFilter<HashCode> previous = now - current.rotateAt() < windowNanos ? current.current() : null;
+                current = new Generations(newFilter(), previous, now + windowNanos, new AtomicInteger());
+                generations = current;
+            }
+            return current;
+        }
+    }
+
+    private BloomFilter<HashCode> newFilter() {
+        return BloomFilter.create(HASH_FUNNEL, expectedKeys, fpp);
+    }
+
+    private record Generations(BloomFilter<HashCode> current, BloomFilter<HashCode> previous, long rotateAt,
+                               AtomicInteger size) {
+    }
+}
@@ -0,0 +1,30 @@
+package io.cptn.ingestionsvc.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * Acknowledges a WebSocket frame by its sequence number, with the number of events accepted or the reason it failed
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FrameAckDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2853962137014628507L;
+
+    private long seq;
+
+    private Integer count;
+
+    private String error;
+}
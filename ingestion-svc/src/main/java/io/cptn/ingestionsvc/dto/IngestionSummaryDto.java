@@ -0,0 +1,27 @@
+package io.cptn.ingestionsvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * Compact response for ingestion requests that do not return a DTO per event
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngestionSummaryDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 4519127374407683341L;
+
+    private UUID sourceId;
+
+    private long count;
+}
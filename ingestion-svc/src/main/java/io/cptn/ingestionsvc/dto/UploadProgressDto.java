@@ -0,0 +1,32 @@
+package io.cptn.ingestionsvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/**
+ * Progress of a file upload, sent after every chunk that is written. An interrupted upload is resumed by sending the
+ * file again with the offset of the last progress line.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadProgressDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -2283718874317001466L;
+
+    private UUID sourceId;
+
+    //rows read by this upload, after the offset it started from
+    private long count;
+
+    //rows of the file that are done with, including the ones skipped when resuming
+    private long offset;
+}
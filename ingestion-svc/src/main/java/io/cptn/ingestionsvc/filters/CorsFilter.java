@@ -1,27 +1,37 @@
 package io.cptn.ingestionsvc.filters;
 
-import io.cptn.common.pojos.Header;
-import io.cptn.ingestionsvc.services.SourceService;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.helpers.EventUrlHelper;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /* @author: kc, created on 5/1/23 */
+
+/*
+    Answers CORS preflights for event urls with the Access-Control-* headers configured on the source. Preflights are
+    answered here, ahead of the security chain and the dispatcher servlet, since browser sources send one for most
+    events. Other OPTIONS requests get the headers added and continue down the chain.
+ */
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 @RequiredArgsConstructor
 public class CorsFilter implements Filter {
 
-    private final SourceService sourceService;
+    private final SourceRuntimeCache sourceRuntimeCache;
 
-    private final Pattern eventUrlPattern = Pattern.compile("/event/source/([a-fA-F0-9\\-]+)");
+    @Value("${inbound.cors.max-age:600}")
+    private long maxAge;
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
@@ -37,27 +47,32 @@ public class CorsFilter implements Filter {
             return;
         }
 
-        String uri = httpRequest.getRequestURI();
-        Matcher m = eventUrlPattern.matcher(uri);
-        if (m.find()) {
-            String sourceId = m.group(1);
-            HttpServletResponse response = (HttpServletResponse) servletResponse;
-            sourceService.getById(UUID.fromString(sourceId)).ifPresent(source -> {
-                List<Header> headers = source.getHeaders();
-                if (headers != null) {
-                    headers.forEach(header -> {
-                        if (header.getKey().startsWith("Access-Control-")) {
-                            response.setHeader(header.getKey(), header.getValue());
-                        }
-                    });
-                }
-            });
+        Map<String, String> corsHeaders = EventUrlHelper.getSourceId(httpRequest.getRequestURI())
+                .flatMap(sourceRuntimeCache::get)
+                .map(SourceRuntime::getCorsHeaders)
+                .orElse(Map.of());
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        corsHeaders.forEach(response::setHeader);
+
+        if (corsHeaders.isEmpty() || !isPreflight(httpRequest)) {
+            filterChain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        if (!corsHeaders.containsKey(HttpHeaders.ACCESS_CONTROL_MAX_AGE) && maxAge > 0) {
+            //lets browsers reuse the preflight instead of sending one before every event
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE, String.valueOf(maxAge));
         }
-        filterChain.doFilter(servletRequest, servletResponse);
+        response.setStatus(HttpServletResponse.SC_OK);
     }
 
     @Override
     public void destroy() {
         Filter.super.destroy();
     }
+
+    private boolean isPreflight(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.ORIGIN) != null &&
+                request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD) != null;
+    }
 }
@@ -0,0 +1,71 @@
+package io.cptn.ingestionsvc.grpc;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Runs the gRPC ingestion service on its own port next to the HTTP server. Plaintext, like the HTTP port, with TLS
+    expected to be terminated in front of the service.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "inbound.grpc.enabled", havingValue = "true")
+public class GrpcServer {
+
+    private final IngestionGrpcService ingestionService;
+
+    private final SourceAuthInterceptor authInterceptor;
+
+    @Value("${inbound.grpc.port:9091}")
+    private int port;
+
+    @Value("${inbound.grpc.max-message-size:1048576}")
+    private int maxMessageSize;
+
+    @Value("${inbound.grpc.shutdown-timeout:30000}")
+    private long shutdownTimeout;
+
+    private Server server;
+
+    @PostConstruct
+    public void start() throws IOException {
+        server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(ServerInterceptors.intercept(ingestionService, authInterceptor))
+                .maxInboundMessageSize(maxMessageSize)
+                .build()
+                .start();
+        log.info("gRPC ingestion started on port: {}", server.getPort());
+    }
+
+    /**
+     * Stops taking new calls and gives the open streams shutdownTimeout ms to finish.
+     */
+    @PreDestroy
+    public void stop() {
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+                log.warn("gRPC ingestion did not stop within {}ms, cancelling open streams", shutdownTimeout);
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.shutdownNow();
+        }
+    }
+}
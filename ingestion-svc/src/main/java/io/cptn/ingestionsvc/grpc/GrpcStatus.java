@@ -0,0 +1,38 @@
+package io.cptn.ingestionsvc.grpc;
+
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.exceptions.NotFoundException;
+import io.cptn.common.exceptions.PayloadTooLargeException;
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import io.cptn.common.exceptions.TooManyRequestsException;
+import io.cptn.common.exceptions.UnauthorizedException;
+import io.grpc.Status;
+
+/* @author: kc, created on 10/18/26 */
+public class GrpcStatus {
+
+    private GrpcStatus() {
+    }
+
+    /**
+     * Maps the exceptions the HTTP endpoints turn into error responses to the matching gRPC status. Anything else is
+     * reported as an internal error without its message.
+     */
+    public static Status of(RuntimeException e) {
+        Status status;
+        if (e instanceof NotFoundException) {
+            status = Status.NOT_FOUND;
+        } else if (e instanceof UnauthorizedException) {
+            status = Status.UNAUTHENTICATED;
+        } else if (e instanceof BadRequestException) {
+            status = Status.INVALID_ARGUMENT;
+        } else if (e instanceof PayloadTooLargeException || e instanceof TooManyRequestsException) {
+            status = Status.RESOURCE_EXHAUSTED;
+        } else if (e instanceof ServiceUnavailableException) {
+            status = Status.UNAVAILABLE;
+        } else {
+            return Status.INTERNAL.withDescription("Failed to store events");
+        }
+        return status.withDescription(e.getMessage());
+    }
+}
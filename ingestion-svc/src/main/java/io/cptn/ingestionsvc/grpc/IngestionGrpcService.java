@@ -0,0 +1,155 @@
+package io.cptn.ingestionsvc.grpc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.entities.Source;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.grpc.v1.Ack;
+import io.cptn.ingestionsvc.grpc.v1.Event;
+import io.cptn.ingestionsvc.grpc.v1.IngestionGrpc;
+import io.cptn.ingestionsvc.helpers.PayloadFormat;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import io.grpc.Metadata;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Client streaming counterpart of the batch endpoint. Events are written in chunks through the same path, and
+    messages are requested from the client one at a time, so a stream is held back by flow control while its chunk is
+    being written instead of piling up in memory.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class IngestionGrpcService extends IngestionGrpc.IngestionImplBase {
+
+    static final Metadata.Key<String> ACCEPTED_COUNT_KEY = Metadata.Key.of("cptn-accepted-count",
+            Metadata.ASCII_STRING_MARSHALLER);
+
+    private final InboundWriteEventService inboundEventService;
+
+    private final InboundEventAssembler eventAssembler;
+
+    private final SourceRateLimiter rateLimiter;
+
+    @Value("${inbound.grpc.chunk-size:100}")
+    private int chunkSize;
+
+    @Override
+    public StreamObserver<Event> ingestEvents(StreamObserver<Ack> responseObserver) {
+        ServerCallStreamObserver<Ack> serverObserver = (ServerCallStreamObserver<Ack>) responseObserver;
+        serverObserver.disableAutoRequest();
+        EventStreamObserver eventObserver = new EventStreamObserver(SourceAuthInterceptor.SOURCE_RUNTIME.get(),
+                SourceAuthInterceptor.REMOTE_ADDR.get(), serverObserver);
+        serverObserver.request(1);
+        return eventObserver;
+    }
+
+    /*
+        gRPC calls the observer of a stream from one thread at a time
+     */
+    private class EventStreamObserver implements StreamObserver<Event> {
+
+        private final SourceRuntime sourceRuntime;
+
+        private final String remoteAddr;
+
+        private final ServerCallStreamObserver<Ack> responseObserver;
+
+        private List<JsonNode> chunk = new ArrayList<>();
+
+        private long chunkBytes;
+
+        private long count;
+
+        private boolean closed;
+
+        EventStreamObserver(SourceRuntime sourceRuntime, String remoteAddr,
+                            ServerCallStreamObserver<Ack> responseObserver) {
+            this.sourceRuntime = sourceRuntime;
+            this.remoteAddr = remoteAddr;
+            this.responseObserver = responseObserver;
+        }
+
+        @Override
+        public void onNext(Event event) {
+            if (closed) {
+                return;
+            }
+            try {
+                chunk.add(JsonHelper.readValue(event.getPayload().toByteArray(), PayloadFormat.JSON.getFactory()));
+                chunkBytes += event.getPayload().size();
+                if (chunk.size() >= chunkSize) {
+                    flush();
+                }
+            } catch (IOException e) {
+                fail(new UncheckedIOException(e));
+                return;
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            //the next message is only requested once this one is handled
+            responseObserver.request(1);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            closed = true;
+            log.debug("gRPC event stream for source {} failed after {} events: {}",
+                    sourceRuntime.getSource().getId(), count, t.getMessage());
+        }
+
+        @Override
+        public void onCompleted() {
+            if (closed) {
+                return;
+            }
+            try {
+                if (!chunk.isEmpty()) {
+                    flush();
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            closed = true;
+            responseObserver.onNext(Ack.newBuilder().setCount(count).build());
+            responseObserver.onCompleted();
+        }
+
+        private void flush() {
+            Source source = sourceRuntime.getSource();
+            rateLimiter.charge(source, chunk.size(), chunkBytes);
+            eventAssembler.write(sourceRuntime, chunk, remoteAddr, inboundEventService::createAll);
+            count += chunk.size();
+            chunk = new ArrayList<>();
+            chunkBytes = 0;
+            //a stream that goes over its limit is ended once the chunk is written
+            rateLimiter.acquire(source, 0, 0);
+        }
+
+        /*
+            Chunks written before the failure are kept, the trailers tell the client how many events that was
+         */
+        private void fail(RuntimeException e) {
+            closed = true;
+            Metadata trailers = new Metadata();
+            trailers.put(ACCEPTED_COUNT_KEY, String.valueOf(count));
+            responseObserver.onError(GrpcStatus.of(e).asRuntimeException(trailers));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.cptn.ingestionsvc.grpc;
+
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.NotFoundException;
+import io.cptn.common.exceptions.WebApplicationException;
+import io.cptn.common.helpers.SourceKeyHelper;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Resolves and authenticates the source of a call from its metadata before any message is read, the same way the
+    HTTP endpoints do for a request. The source and the caller's address are handed to the service in the context.
+ */
+@Component
+@RequiredArgsConstructor
+public class SourceAuthInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> SOURCE_ID_KEY = Metadata.Key.of("cptn-source-id",
+            Metadata.ASCII_STRING_MARSHALLER);
+
+    static final Metadata.Key<String> AUTHORIZATION_KEY = Metadata.Key.of("authorization",
+            Metadata.ASCII_STRING_MARSHALLER);
+
+    static final Context.Key<SourceRuntime> SOURCE_RUNTIME = Context.key("cptn-source-runtime");
+
+    static final Context.Key<String> REMOTE_ADDR = Context.key("cptn-remote-addr");
+
+    private final SourceRuntimeCache sourceRuntimeCache;
+
+    private final BacklogMonitor backlogMonitor;
+
+    private final SourceRateLimiter rateLimiter;
+
+    @Override
+    public <T, R> ServerCall.Listener<T> interceptCall(ServerCall<T, R> call, Metadata headers,
+                                                       ServerCallHandler<T, R> next) {
+        SourceRuntime sourceRuntime;
+        try {
+            sourceRuntime = getSourceRuntime(headers.get(SOURCE_ID_KEY));
+            Source source = sourceRuntime.getSource();
+            SourceKeyHelper.verify(source, headers.get(AUTHORIZATION_KEY), null);
+            rateLimiter.acquire(source, 0, 0);
+        } catch (WebApplicationException e) {
+            call.close(GrpcStatus.of(e), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        Context context = Context.current().withValues(SOURCE_RUNTIME, sourceRuntime, REMOTE_ADDR,
+                getRemoteAddr(call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR)));
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+
+    private SourceRuntime getSourceRuntime(String sourceId) {
+        SourceRuntime sourceRuntime = null;
+        try {
+            if (sourceId != null) {
+                sourceRuntime = sourceRuntimeCache.get(UUID.fromString(sourceId)).orElse(null);
+            }
+        } catch (IllegalArgumentException e) {
+            //an invalid id is treated as an unknown source
+        }
+        if (sourceRuntime == null) {
+            throw new NotFoundException("Source not found with passed ID");
+        }
+        if (!Boolean.TRUE.equals(sourceRuntime.getSource().getActive())) {
+            throw new NotFoundException("Source not active");
+        }
+        backlogMonitor.admit(sourceRuntime.getSource());
+        return sourceRuntime;
+    }
+
+    private String getRemoteAddr(SocketAddress address) {
+        if (address instanceof InetSocketAddress inetAddress && inetAddress.getAddress() != null) {
+            return inetAddress.getAddress().getHostAddress();
+        }
+        return address != null ? address.toString() : null;
+    }
+}
@@ -0,0 +1,117 @@
+package io.cptn.ingestionsvc.helpers;
+
+import com.github.luben.zstd.ZstdInputStream;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.exceptions.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/* @author: kc, created on 10/18/26 */
+public class ContentEncodingHelper {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentEncodingHelper() {
+    }
+
+    /**
+     * Wraps the request body so that it is decompressed while it is read, according to the Content-Encoding header.
+     * Encodings listed in the header are undone in reverse order. The decompressed body is capped at maxDecodedSize
+     * bytes, so a small compressed body cannot expand without bound. A body without an encoding is returned as is.
+     */
+    public static InputStream decode(InputStream inputStream, String contentEncoding, long maxDecodedSize) {
+        if (contentEncoding == null || contentEncoding.isBlank()) {
+            return inputStream;
+        }
+
+        String[] encodings = contentEncoding.split(",");
+        InputStream decoded = inputStream;
+        boolean compressed = false;
+        for (int i = encodings.length - 1; i >= 0; i--) {
+            String encoding = encodings[i].trim().toLowerCase(Locale.ROOT);
+            switch (encoding) {
+                case "identity", "" -> {
+                    continue;
+                }
+                case "gzip", "x-gzip" -> decoded = gzip(decoded);
+                case "deflate" -> decoded = new InflaterInputStream(decoded);
+                case "zstd" -> decoded = zstd(decoded);
+                default -> throw new BadRequestException("Unsupported Content-Encoding: " + encoding);
+            }
+            compressed = true;
+        }
+        return compressed ? new DecodedInputStream(decoded, maxDecodedSize) : decoded;
+    }
+
+    private static InputStream gzip(InputStream inputStream) {
+        try {
+            //reads the gzip header right away
+            return new GZIPInputStream(inputStream, BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to decompress payload");
+        }
+    }
+
+    private static InputStream zstd(InputStream inputStream) {
+        try {
+            return new ZstdInputStream(inputStream);
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to decompress payload");
+        }
+    }
+
+    /*
+        Counts decompressed bytes and turns decoder failures into a bad request, since they are caused by the body sent
+     */
+    private static class DecodedInputStream extends FilterInputStream {
+
+        private final long maxSize;
+
+        private long count;
+
+        DecodedInputStream(InputStream inputStream, long maxSize) {
+            super(inputStream);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value;
+            try {
+                value = super.read();
+            } catch (IOException e) {
+                throw new BadRequestException("Failed to decompress payload");
+            }
+            if (value != -1) {
+                count(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read;
+            try {
+                read = super.read(buffer, offset, length);
+            } catch (IOException e) {
+                throw new BadRequestException("Failed to decompress payload");
+            }
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            count += read;
+            if (count > maxSize) {
+                throw new PayloadTooLargeException("Decompressed payload exceeds the limit of " + maxSize + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.cptn.ingestionsvc.helpers;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+public class EventUrlHelper {
+
+    private static final String EVENT_URL_PREFIX = "/event/source/";
+
+    //length of a uuid in its canonical form
+    private static final int SOURCE_ID_LENGTH = 36;
+
+    private EventUrlHelper() {
+    }
+
+    /**
+     * Reads the source id from an event url. Event urls start with the source id, which is read by position instead
+     * of with a regex.
+     */
+    public static Optional<UUID> getSourceId(String uri) {
+        if (!uri.startsWith(EVENT_URL_PREFIX) || uri.length() < EVENT_URL_PREFIX.length() + SOURCE_ID_LENGTH) {
+            return Optional.empty();
+        }
+        int end = EVENT_URL_PREFIX.length() + SOURCE_ID_LENGTH;
+        if (uri.length() > end && uri.charAt(end) != '/') {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(uri.substring(EVENT_URL_PREFIX.length(), end)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
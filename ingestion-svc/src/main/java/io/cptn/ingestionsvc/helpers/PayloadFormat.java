@@ -0,0 +1,55 @@
+package io.cptn.ingestionsvc.helpers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.cptn.common.helpers.JsonHelper;
+import lombok.Getter;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.util.List;
+import java.util.Locale;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Formats accepted on ingestion endpoints, picked by Content-Type. Binary formats are decoded into the same tree as
+    JSON and stored as JSON, so the rest of the pipeline is unaware of them.
+ */
+@Getter
+public enum PayloadFormat {
+
+    JSON(JsonHelper.getMapper().getFactory(), List.of()),
+    CBOR(new CBORFactory(), List.of("application/cbor")),
+    SMILE(new SmileFactory(), List.of("application/x-jackson-smile", "application/smile")),
+    MESSAGE_PACK(new MessagePackFactory(), List.of("application/msgpack", "application/x-msgpack",
+            "application/vnd.msgpack"));
+
+    private final JsonFactory factory;
+
+    private final List<String> mediaTypes;
+
+    PayloadFormat(JsonFactory factory, List<String> mediaTypes) {
+        this.factory = factory;
+        this.mediaTypes = mediaTypes;
+    }
+
+    /**
+     * Format for the Content-Type of a request. Anything that is not a known binary type is read as JSON, as before
+     * binary formats were supported.
+     */
+    public static PayloadFormat of(String contentType) {
+        if (contentType == null) {
+            return JSON;
+        }
+        int parametersStart = contentType.indexOf(';');
+        String mediaType = (parametersStart >= 0 ? contentType.substring(0, parametersStart) : contentType)
+                .trim().toLowerCase(Locale.ROOT);
+        for (PayloadFormat format : values()) {
+            if (format.mediaTypes.contains(mediaType)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+}
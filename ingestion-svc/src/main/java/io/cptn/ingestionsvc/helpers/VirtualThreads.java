@@ -0,0 +1,51 @@
+package io.cptn.ingestionsvc.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    The service is built for Java 17, so virtual threads are looked up reflectively and only used when the runtime is
+    Java 21 or later.
+ */
+@Slf4j
+public class VirtualThreads {
+
+    private static final Method NEW_EXECUTOR = findExecutorFactory();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Executor that starts a new virtual thread per task, or null when the runtime has no virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_EXECUTOR == null) {
+            log.warn("Virtual threads requested but not available on Java {}, using platform threads",
+                    Runtime.version().feature());
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Failed to create virtual thread executor, using platform threads", e);
+            return null;
+        }
+    }
+
+    private static Method findExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
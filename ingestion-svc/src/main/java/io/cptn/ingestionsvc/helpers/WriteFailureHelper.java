@@ -0,0 +1,78 @@
+package io.cptn.ingestionsvc.helpers;
+
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.QuarantinedEvent;
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/* @author: kc, created on 10/18/26 */
+public class WriteFailureHelper {
+
+    //length of the errors column of inbound_quarantine
+    private static final int MAX_ERRORS_LENGTH = 1000;
+
+    private WriteFailureHelper() {
+    }
+
+    /**
+     * Whether a failed write can succeed when it is retried as is: the database or a connection was not available,
+     * or the statement lost a race such as a deadlock. Any other error, e.g. a constraint violation or a value the
+     * column does not take, fails again on every retry.
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException ||
+                    cause instanceof DataAccessResourceFailureException ||
+                    cause instanceof CannotCreateTransactionException ||
+                    cause instanceof ServiceUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the items of a batch that failed with a permanent error. The batch is split in halves, and failing
+     * halves again, until the items that fail on their own are left, so a single bad item costs about two writes per
+     * halving. Halves that succeed are written by the writer, the failing items are passed to rejected with their
+     * error. A transient error is thrown, so that the caller can retry whatever was not written yet.
+     */
+    public static <T> void isolateFailures(List<T> failed, RuntimeException error, Consumer<List<T>> writer,
+                                           BiConsumer<T, RuntimeException> rejected) {
+        if (failed.size() == 1) {
+            rejected.accept(failed.get(0), error);
+            return;
+        }
+        int middle = failed.size() / 2;
+        for (List<T> half : List.of(failed.subList(0, middle), failed.subList(middle, failed.size()))) {
+            try {
+                writer.accept(half);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                isolateFailures(half, e, writer, rejected);
+            }
+        }
+    }
+
+    /**
+     * The quarantine entry of an event that could not be written, with the error as the reason.
+     */
+    public static QuarantinedEvent toQuarantinedEvent(InboundWriteEvent event, RuntimeException error) {
+        String errors = "Failed to write event: " + error.getMessage();
+        QuarantinedEvent quarantinedEvent = new QuarantinedEvent();
+        quarantinedEvent.setSerializedPayload(event.getSerializedPayload());
+        quarantinedEvent.setSource(event.getSource());
+        quarantinedEvent.setErrors(errors.length() > MAX_ERRORS_LENGTH ? errors.substring(0, MAX_ERRORS_LENGTH) :
+                errors);
+        return quarantinedEvent;
+    }
+}
@@ -37,7 +37,8 @@ public class InboundEventProcessor {
         pipelineRepository.findBySource(event.getSource().getId()).forEach(pipeline -> {
             OutboundWriteEvent outboundWriteEvent = new OutboundWriteEvent();
             outboundWriteEvent.setPipeline(pipeline);
-            outboundWriteEvent.setPayload(event.getPayload());
+            //copied as stored, the payload is not parsed and serialized again for every pipeline
+            outboundWriteEvent.setSerializedPayload(event.getSerializedPayload());
             outboundWriteEvent.setInboundEvent(event);
             outboundWriteEventRepository.save(outboundWriteEvent);
         });
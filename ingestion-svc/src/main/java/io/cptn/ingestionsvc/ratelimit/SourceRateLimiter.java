@@ -0,0 +1,197 @@
+package io.cptn.ingestionsvc.ratelimit;
+
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Enforces the per source limits on events and bytes per second. By default every replica keeps its own buckets, so
+    the effective limit is multiplied by the number of replicas. With redis enabled the buckets live in Redis and are
+    shared, at the cost of a round trip per check. If Redis fails, the local buckets are used.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SourceRateLimiter {
+
+    private static final String KEY_PREFIX = "cptn:rate-limit:";
+
+    //same algorithm as TokenBucket, in microseconds and for both buckets at once
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local force = ARGV[7] == '1'
+            local arrivals = {}
+            for i = 1, 2 do
+                local interval = tonumber(ARGV[i * 3 - 2])
+                if interval > 0 then
+                    local tolerance = tonumber(ARGV[i * 3 - 1])
+                    local cost = math.ceil(tonumber(ARGV[i * 3]) * interval)
+                    local arrival = tonumber(redis.call('GET', KEYS[i])) or now
+                    local new_arrival = math.max(arrival, now) + cost
+                    local excess = new_arrival - now - tolerance
+                    if not force and excess > 0 and arrival > now then
+                        if cost > tolerance then
+                            return arrival - now
+                        end
+                        return excess
+                    end
+                    arrivals[i] = new_arrival
+                end
+            end
+            for i = 1, 2 do
+                if arrivals[i] then
+                    redis.call('SET', KEYS[i], string.format('%d', arrivals[i]), 'PX',
+                        math.ceil((arrivals[i] - now) / 1000) + 1000)
+                end
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inbound.event.rate-limit.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    private final Map<UUID, SourceBuckets> buckets = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Counter> throttleCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Takes events and bytes from the source's buckets, or rejects the request with a 429 if they are not available.
+     * Passing 0 for both only checks that the source is not in debt from earlier requests.
+     */
+    public void acquire(Source source, long events, long bytes) {
+        admit(source, events, bytes, false);
+    }
+
+    /**
+     * Charges events and bytes that were already accepted, for requests whose size is only known while reading them.
+     * The buckets may go into debt, which rejects the following requests until it is paid off.
+     */
+    public void charge(Source source, long events, long bytes) {
+        admit(source, events, bytes, true);
+    }
+
+    /**
+     * Number of requests rejected for the source since startup.
+     */
+    public double getThrottledCount(UUID sourceId) {
+        Counter counter = throttleCounters.get(sourceId);
+        return counter != null ? counter.count() : 0;
+    }
+
+    private void admit(Source source, long events, long bytes, boolean force) {
+        RateLimit limit = RateLimit.of(source);
+        if (limit == null) {
+            return;
+        }
+
+        long waitNanos = redisEnabled ? admitShared(source.getId(), limit, events, bytes, force) :
+                admitLocal(source.getId(), limit, events, bytes, force);
+        if (waitNanos > 0) {
+            throttleCounters.computeIfAbsent(source.getId(), id -> Counter.builder("cptn.ingestion.throttled")
+                    .description("Requests rejected by the source rate limit")
+                    .tag("source", id.toString())
+                    .register(meterRegistry)).increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+            throw new TooManyRequestsException("Rate limit exceeded for source", retryAfterSeconds);
+        }
+    }
+
+    private long admitLocal(UUID sourceId, RateLimit limit, long events, long bytes, boolean force) {
+        long now = System.nanoTime();
+        SourceBuckets sourceBuckets = buckets.compute(sourceId, (id, existing) ->
+                existing != null && existing.limit().equals(limit) ? existing : SourceBuckets.create(limit, now));
+
+        TokenBucket eventBucket = sourceBuckets.events();
+        long wait = eventBucket != null ? eventBucket.tryAcquire(events, now, force) : 0;
+        if (wait > 0 || sourceBuckets.bytes() == null) {
+            return wait;
+        }
+        wait = sourceBuckets.bytes().tryAcquire(bytes, now, force);
+        if (wait > 0 && eventBucket != null) {
+            eventBucket.release(events);
+        }
+        return wait;
+    }
+
+    private long admitShared(UUID sourceId, RateLimit limit, long events, long bytes, boolean force) {
+        //the hash tag keeps both keys of a source in the same cluster slot
+        String keyPrefix = KEY_PREFIX + "{" + sourceId + "}:";
+        List<String> keys = List.of(keyPrefix + "events", keyPrefix + "bytes");
+        try {
+            Long waitMicros = redisTemplate.execute(ACQUIRE_SCRIPT, keys,
+                    intervalMicros(limit.eventsPerSecond()),
+                    toleranceMicros(limit.eventsPerSecond(), limit.eventCapacity()),
+                    String.valueOf(events),
+                    intervalMicros(limit.bytesPerSecond()),
+                    toleranceMicros(limit.bytesPerSecond(), limit.byteCapacity()),
+                    String.valueOf(bytes),
+                    force ? "1" : "0");
+            return waitMicros != null ? TimeUnit.MICROSECONDS.toNanos(waitMicros) : 0;
+        } catch (DataAccessException e) {
+            log.warn("Shared rate limit unavailable, using local limit for source {}: {}", sourceId, e.getMessage());
+            return admitLocal(sourceId, limit, events, bytes, force);
+        }
+    }
+
+    private static String intervalMicros(double ratePerSecond) {
+        return ratePerSecond > 0 ? String.valueOf(1_000_000d / ratePerSecond) : "0";
+    }
+
+    private static String toleranceMicros(double ratePerSecond, double capacity) {
+        return ratePerSecond > 0 ? String.valueOf((long) (capacity * 1_000_000d / ratePerSecond)) : "0";
+    }
+
+    record RateLimit(int eventsPerSecond, long bytesPerSecond, double eventCapacity, double byteCapacity) {
+
+        static RateLimit of(Source source) {
+            int eventsPerSecond = Optional.ofNullable(source.getRateLimitEventsPerSecond()).orElse(0);
+            long bytesPerSecond = Optional.ofNullable(source.getRateLimitBytesPerSecond()).orElse(0L);
+            if (eventsPerSecond <= 0 && bytesPerSecond <= 0) {
+                return null;
+            }
+
+            //the burst is given in events, the byte bucket allows a burst over the same number of seconds
+            double burstSeconds = 1;
+            double eventCapacity = eventsPerSecond;
+            if (eventsPerSecond > 0 && source.getRateLimitBurst() != null && source.getRateLimitBurst() > 0) {
+                eventCapacity = source.getRateLimitBurst();
+                burstSeconds = eventCapacity / eventsPerSecond;
+            }
+            return new RateLimit(eventsPerSecond, bytesPerSecond, eventCapacity, bytesPerSecond * burstSeconds);
+        }
+    }
+
+    private record SourceBuckets(RateLimit limit, TokenBucket events, TokenBucket bytes) {
+
+        static SourceBuckets create(RateLimit limit, long now) {
+            TokenBucket events = limit.eventsPerSecond() > 0 ?
+                    new TokenBucket(limit.eventsPerSecond(), limit.eventCapacity(), now) : null;
+            TokenBucket bytes = limit.bytesPerSecond() > 0 ?
+                    new TokenBucket(limit.bytesPerSecond(), limit.byteCapacity(), now) : null;
+            return new SourceBuckets(limit, events, bytes);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.cptn.ingestionsvc.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Token bucket kept as a single theoretical arrival time (GCRA), so it can be updated with a compare-and-set instead
+    of a lock. Taking n tokens pushes the arrival time n intervals into the future, and the bucket is empty once the
+    arrival time is more than capacity intervals ahead of now.
+ */
+class TokenBucket {
+
+    private final double intervalNanos;
+
+    private final long toleranceNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double ratePerSecond, double capacity, long now) {
+        this.intervalNanos = 1_000_000_000d / ratePerSecond;
+        this.toleranceNanos = (long) (capacity * intervalNanos);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Takes quantity tokens. With force the tokens are taken even if the bucket goes into debt, which holds back
+     * later requests until it is paid off.
+     *
+     * @return 0 when the tokens were taken, otherwise the nanos to wait before trying again
+     */
+    long tryAcquire(long quantity, long now, boolean force) {
+        long cost = (long) Math.ceil(quantity * intervalNanos);
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long newArrival = Math.max(arrival, now) + cost;
+            long excess = newArrival - now - toleranceNanos;
+            //a request bigger than the whole bucket is let through once the bucket is full
+            if (!force && excess > 0 && arrival > now) {
+                return cost > toleranceNanos ? arrival - now : excess;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, newArrival)) {
+                return 0;
+            }
+        }
+    }
+
+    void release(long quantity) {
+        theoreticalArrival.addAndGet(-(long) Math.ceil(quantity * intervalNanos));
+    }
+}
@@ -0,0 +1,97 @@
+package io.cptn.ingestionsvc.scheduler;
+
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Shares the connection pool between dispatch tasks and ingestion requests. With virtual threads neither the
+    dispatch executor nor Tomcat bounds how many of them run at once, and without a cap every one of them would wait
+    on Hikari and time out. Every database call holds one of pool-size connection permits, and dispatch tasks are
+    capped below that so that a few connections are always left for ingestion requests. Requests that cannot get a
+    permit in time are turned away with a 503 instead of queueing on the pool.
+
+    Only event writes and dispatch are counted, lookups such as the source cache, dedup and schemas still take
+    connections of their own, so this bounds the bulk of the load rather than guarding the pool. It is on by default
+    only with virtual threads. With platform threads the executors and Tomcat already bound the load, and work runs
+    directly, as it did before.
+ */
+@Component
+public class ConnectionPoolLimiter {
+
+    private final Semaphore connections;
+
+    private final Semaphore dispatchPermits;
+
+    private final long requestTimeout;
+
+    private final boolean enabled;
+
+    public ConnectionPoolLimiter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                 @Value("${inbound.event.processor.reserved-connections:2}") int reservedConnections,
+                                 @Value("${inbound.event.connection-timeout:5000}") long requestTimeout,
+                                 @Value("${inbound.event.connection-limit.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        this.connections = new Semaphore(Math.max(1, poolSize), true);
+        this.dispatchPermits = new Semaphore(Math.max(1, poolSize - reservedConnections), true);
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Runs a dispatch task, waiting for as long as it takes to get a connection permit.
+     */
+    public void run(Runnable task) {
+        if (!enabled) {
+            task.run();
+            return;
+        }
+        dispatchPermits.acquireUninterruptibly();
+        try {
+            connections.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                connections.release();
+            }
+        } finally {
+            dispatchPermits.release();
+        }
+    }
+
+    /**
+     * Runs database work of a request. The work must open its own transaction, so that the connection is only taken
+     * once the permit is held.
+     */
+    public <T> T call(Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        try {
+            if (!connections.tryAcquire(requestTimeout, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("Database connections are exhausted", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for a database connection", 1);
+        }
+        try {
+            return work.get();
+        } finally {
+            connections.release();
+        }
+    }
+
+    public int availablePermits() {
+        return dispatchPermits.availablePermits();
+    }
+
+    public int availableConnections() {
+        return connections.availablePermits();
+    }
+}
@@ -9,7 +9,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
 /* @author: kc, created on 2/22/23 */
@@ -22,7 +22,9 @@ public class InboundEventScheduler {
     private final InboundEventRepository eventRepository;
     private final InboundEventProcessor inboundEventProcessor;
 
-    private final ForkJoinPool forkJoinPool;
+    private final ExecutorService inboundEventExecutor;
+
+    private final ConnectionPoolLimiter connectionPoolLimiter;
 
     @Scheduled(fixedDelayString = "${inbound.event.processor.interval:5000}")
     public void run() {
@@ -35,7 +37,8 @@ public class InboundEventScheduler {
     @Transactional
     public void processRecords() {
         try (Stream<InboundEvent> eventStream = eventRepository.fetchEventsForProcessing()) {
-            eventStream.forEach(event -> forkJoinPool.submit(() -> inboundEventProcessor.processEvent(event)));
+            eventStream.forEach(event -> inboundEventExecutor.submit(
+                    () -> connectionPoolLimiter.run(() -> inboundEventProcessor.processEvent(event))));
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
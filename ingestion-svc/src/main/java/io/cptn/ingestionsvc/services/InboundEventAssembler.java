@@ -0,0 +1,192 @@
+package io.cptn.ingestionsvc.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.ValidationMessage;
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.QuarantinedEvent;
+import io.cptn.common.entities.SchemaViolationAction;
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.helpers.SchemaHelper;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Turns parsed payloads into events for a source: checks them against the source's schema, drops duplicates and
+    adds the remote ip. Shared by the HTTP endpoints and the WebSocket channel so both treat events the same way.
+ */
+@Service
+@RequiredArgsConstructor
+public class InboundEventAssembler {
+
+    public static final String CPTN_FIELD = "cptn";
+
+    private final InboundWriteEventService inboundEventService;
+
+    private final DuplicateFilter duplicateFilter;
+
+    /**
+     * Checks the payload against the source's compiled schema. An invalid payload is rejected with a 400, or stored
+     * in quarantine when the source is set to quarantine violations.
+     *
+     * @return false when the payload was quarantined
+     */
+    public boolean validate(SourceRuntime sourceRuntime, JsonNode payload) {
+        JsonSchema schema = sourceRuntime.getSchema();
+        if (schema == null) {
+            return true;
+        }
+        Set<ValidationMessage> errors = schema.validate(payload);
+        if (errors.isEmpty()) {
+            return true;
+        }
+        if (sourceRuntime.getSchemaViolationAction() == SchemaViolationAction.REJECT) {
+            throw new BadRequestException("Payload does not match the source schema: " +
+                    SchemaHelper.describe(errors));
+        }
+        inboundEventService.quarantine(List.of(toQuarantinedEvent(payload, sourceRuntime.getSource(), errors)));
+        return false;
+    }
+
+    /**
+     * Builds the events for a chunk of payloads, leaving out the ones that were quarantined or are duplicates, and
+     * hands them to the writer. The idempotency keys of the events are remembered once the writer returns and
+     * released when it fails, so that the retry of a failed write is not dropped as a duplicate.
+     */
+    public <T> T write(SourceRuntime sourceRuntime, List<JsonNode> chunk, String remoteAddr,
+                       Function<List<InboundWriteEvent>, T> writer) {
+        Source source = sourceRuntime.getSource();
+        AssembledChunk assembledChunk = assemble(sourceRuntime, chunk, remoteAddr);
+        try {
+            T result = writer.apply(assembledChunk.events());
+            duplicateFilter.record(source, assembledChunk.keys());
+            return result;
+        } catch (RuntimeException e) {
+            duplicateFilter.release(source, assembledChunk.keys());
+            throw e;
+        }
+    }
+
+    /**
+     * Like {@link #write}, for writers that complete once the events are written.
+     */
+    public CompletableFuture<Void> writeAsync(SourceRuntime sourceRuntime, List<JsonNode> chunk, String remoteAddr,
+                                              Function<List<InboundWriteEvent>, CompletableFuture<Void>> writer) {
+        Source source = sourceRuntime.getSource();
+        AssembledChunk assembledChunk = assemble(sourceRuntime, chunk, remoteAddr);
+        CompletableFuture<Void> written;
+        try {
+            written = writer.apply(assembledChunk.events());
+        } catch (RuntimeException e) {
+            duplicateFilter.release(source, assembledChunk.keys());
+            throw e;
+        }
+        return written.whenComplete((result, e) -> {
+            if (e == null) {
+                duplicateFilter.record(source, assembledChunk.keys());
+            } else {
+                duplicateFilter.release(source, assembledChunk.keys());
+            }
+        });
+    }
+
+    public void addRemoteIp(JsonNode jsonPayload, String remoteAddr) {
+        ((ObjectNode) jsonPayload).putIfAbsent(CPTN_FIELD, getCptnNode(remoteAddr));
+    }
+
+    public ObjectNode getCptnNode(String remoteAddr) {
+        ObjectNode cptnNode = JsonHelper.getMapper().createObjectNode();
+        cptnNode.put("remote_ip", remoteAddr);
+        return cptnNode;
+    }
+
+    /*
+        With reject, the first invalid event fails the request, and earlier chunks stay persisted as with any other
+        invalid event. With quarantine, invalid events are stored aside and the rest of the chunk goes on.
+     */
+    private List<JsonNode> dropInvalid(SourceRuntime sourceRuntime, List<JsonNode> chunk) {
+        JsonSchema schema = sourceRuntime.getSchema();
+        if (schema == null) {
+            return chunk;
+        }
+        boolean reject = sourceRuntime.getSchemaViolationAction() == SchemaViolationAction.REJECT;
+        List<JsonNode> events = new ArrayList<>(chunk.size());
+        List<QuarantinedEvent> quarantinedEvents = new ArrayList<>();
+        for (JsonNode jsonNode : chunk) {
+            Set<ValidationMessage> errors = schema.validate(jsonNode);
+            if (errors.isEmpty()) {
+                events.add(jsonNode);
+            } else if (reject) {
+                throw new BadRequestException("Payload does not match the source schema: " +
+                        SchemaHelper.describe(errors));
+            } else {
+                quarantinedEvents.add(toQuarantinedEvent(jsonNode, sourceRuntime.getSource(), errors));
+            }
+        }
+        if (!quarantinedEvents.isEmpty()) {
+            inboundEventService.quarantine(quarantinedEvents);
+        }
+        return events;
+    }
+
+    /*
+        Duplicates are dropped before the events are built, so they are acknowledged with the rest of the chunk
+        without being stored
+     */
+    private AssembledChunk assemble(SourceRuntime sourceRuntime, List<JsonNode> chunk, String remoteAddr) {
+        Source source = sourceRuntime.getSource();
+        List<JsonNode> payloads = dropInvalid(sourceRuntime, chunk);
+        List<String> keys = new ArrayList<>();
+        if (duplicateFilter.isEnabled(source)) {
+            List<String> payloadKeys = payloads.stream().map(jsonNode -> duplicateFilter.getKey(source, jsonNode))
+                    .toList();
+            boolean[] duplicates = duplicateFilter.findDuplicates(source, payloadKeys);
+            List<JsonNode> uniquePayloads = new ArrayList<>(payloads.size());
+            for (int i = 0; i < payloads.size(); i++) {
+                if (!duplicates[i]) {
+                    uniquePayloads.add(payloads.get(i));
+                    keys.add(payloadKeys.get(i));
+                }
+            }
+            payloads = uniquePayloads;
+        }
+        List<InboundWriteEvent> events = payloads.stream().map(jsonNode -> toEvent(jsonNode, source, remoteAddr))
+                .toList();
+        return new AssembledChunk(events, keys);
+    }
+
+    private InboundWriteEvent toEvent(JsonNode jsonPayload, Source source, String remoteAddr) {
+        if (Boolean.TRUE.equals(source.getCaptureRemoteIP())) {
+            addRemoteIp(jsonPayload, remoteAddr);
+        }
+        InboundWriteEvent event = new InboundWriteEvent();
+        event.setPayload(jsonPayload);
+        event.setSource(source);
+        return event;
+    }
+
+    private QuarantinedEvent toQuarantinedEvent(JsonNode payload, Source source, Set<ValidationMessage> errors) {
+        QuarantinedEvent quarantinedEvent = new QuarantinedEvent();
+        quarantinedEvent.setSerializedPayload(JsonHelper.serializeJson(payload));
+        quarantinedEvent.setSource(source);
+        quarantinedEvent.setErrors(SchemaHelper.describe(errors));
+        return quarantinedEvent;
+    }
+
+    //keys of the events that were not duplicates, null for events without a key
+    private record AssembledChunk(List<InboundWriteEvent> events, List<String> keys) {
+    }
+}
@@ -0,0 +1,234 @@
+package io.cptn.ingestionsvc.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.google.common.io.CountingInputStream;
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.dto.UploadProgressDto;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Loads CSV and newline delimited JSON files one row at a time, and JSON arrays one chunk of elements at a time, so
+    memory use depends on the chunk size and not on the size of the file. Every chunk is written with COPY in its own
+    transaction and reported with the offset reached, so a load that fails part way can be resumed from there instead
+    of starting over. Callers admit the load against the source's rate limit once, before the file is read, and every
+    chunk is charged once written. A load that goes over the limit is completed, and its debt holds back the
+    following requests of the source.
+ */
+@Service
+@RequiredArgsConstructor
+public class InboundFileLoader {
+
+    //the first line holds the column names, which key the values of each row
+    private static final ObjectReader CSV_READER = new CsvMapper().readerForMapOf(String.class)
+            .with(CsvSchema.emptySchema().withHeader());
+
+    private static final ObjectReader NDJSON_READER = JsonHelper.getMapper().readerFor(JsonNode.class);
+
+    private final InboundWriteEventService inboundEventService;
+
+    private final InboundEventAssembler eventAssembler;
+
+    private final SourceRateLimiter rateLimiter;
+
+    @Value("${inbound.event.upload.chunk-size:5000}")
+    private int chunkSize;
+
+    /**
+     * Loads the rows of the file that come after the first offset rows. Rows before the offset still have to be
+     * read, as CSV cannot be split at a row without parsing it, but they are not converted or written.
+     *
+     * @return offset after the last row of the file
+     */
+    public long load(SourceRuntime sourceRuntime, InputStream inputStream, Format format, long offset,
+                     String remoteAddr, Consumer<UploadProgressDto> progressConsumer) throws IOException {
+        Source source = sourceRuntime.getSource();
+        CountingInputStream body = new CountingInputStream(inputStream);
+        long chargedBytes = 0;
+        long position = 0;
+        long count = 0;
+        boolean reported = false;
+        List<JsonNode> chunk = new ArrayList<>(chunkSize);
+
+        try (MappingIterator<?> rows = format.open(body)) {
+            while (hasNextRow(rows, position)) {
+                Object row = nextRow(rows, position);
+                position++;
+                if (position <= offset) {
+                    continue;
+                }
+                chunk.add(toPayload(sourceRuntime, row, position));
+                if (chunk.size() == chunkSize) {
+                    count += flush(sourceRuntime, chunk, remoteAddr);
+                    chargedBytes = report(source, chunk.size(), count, position, body, chargedBytes,
+                            progressConsumer);
+                    chunk = new ArrayList<>(chunkSize);
+                    reported = true;
+                }
+            }
+        }
+        if (!chunk.isEmpty() || !reported) {
+            count += flush(sourceRuntime, chunk, remoteAddr);
+            report(source, chunk.size(), count, position, body, chargedBytes, progressConsumer);
+        }
+        return position;
+    }
+
+    /**
+     * Loads the elements of a JSON array, or of an array in a binary format, that come after the first offset
+     * elements. Elements before the offset are still parsed, but they are not converted or written.
+     *
+     * @return offset after the last element of the array
+     */
+    public long loadArray(SourceRuntime sourceRuntime, InputStream inputStream, JsonFactory factory,
+                          int arrayChunkSize, long offset, String remoteAddr,
+                          Consumer<UploadProgressDto> progressConsumer) throws IOException {
+        Source source = sourceRuntime.getSource();
+        CountingInputStream body = new CountingInputStream(inputStream);
+        AtomicLong chargedBytes = new AtomicLong();
+        AtomicLong position = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        AtomicBoolean reported = new AtomicBoolean();
+
+        long end = JsonHelper.readArrayInChunks(body, factory, arrayChunkSize, chunk -> {
+            long start = position.getAndAdd(chunk.size());
+            if (position.get() <= offset) {
+                return;
+            }
+            List<JsonNode> pending = start < offset ? chunk.subList((int) (offset - start), chunk.size()) : chunk;
+            count.addAndGet(flush(sourceRuntime, pending, remoteAddr));
+            chargedBytes.set(report(source, pending.size(), count.get(), position.get(), body, chargedBytes.get(),
+                    progressConsumer));
+            reported.set(true);
+        });
+        if (!reported.get()) {
+            report(source, 0, 0, end, body, chargedBytes.get(), progressConsumer);
+        }
+        return end;
+    }
+
+    private JsonNode toPayload(SourceRuntime sourceRuntime, Object row, long position) {
+        if (row instanceof JsonNode jsonNode) {
+            if (!jsonNode.isObject()) {
+                throw new BadRequestException("Row " + position + " is not a JSON object");
+            }
+            return jsonNode;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> columns = (Map<String, String>) row;
+        try {
+            return sourceRuntime.getColumnMapping().toPayload(columns);
+        } catch (BadRequestException e) {
+            throw new BadRequestException(e.getMessage() + " at row " + position);
+        }
+    }
+
+    /*
+        Returns the rows written, which leaves out the rows the assembler dropped as duplicates or quarantined
+     */
+    private long flush(SourceRuntime sourceRuntime, List<JsonNode> chunk, String remoteAddr) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        return eventAssembler.write(sourceRuntime, chunk, remoteAddr, inboundEventService::copyAll);
+    }
+
+    private long report(Source source, int events, long count, long position, CountingInputStream body,
+                        long chargedBytes, Consumer<UploadProgressDto> progressConsumer) {
+        progressConsumer.accept(new UploadProgressDto(source.getId(), count, position));
+        long bytes = body.getCount();
+        rateLimiter.charge(source, events, bytes - chargedBytes);
+        return bytes;
+    }
+
+    private boolean hasNextRow(MappingIterator<?> rows, long position) throws IOException {
+        try {
+            return rows.hasNextValue();
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Failed to parse row " + (position + 1));
+        }
+    }
+
+    private Object nextRow(MappingIterator<?> rows, long position) throws IOException {
+        try {
+            return rows.nextValue();
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Failed to parse row " + (position + 1));
+        }
+    }
+
+    public enum Format {
+
+        CSV(List.of("text/csv", "application/csv"), List.of(".csv")),
+        NDJSON(List.of("application/x-ndjson", "application/ndjson", "application/jsonl",
+                "application/x-jsonlines"), List.of(".ndjson", ".jsonl"));
+
+        private final List<String> mediaTypes;
+
+        private final List<String> extensions;
+
+        Format(List<String> mediaTypes, List<String> extensions) {
+            this.mediaTypes = mediaTypes;
+            this.extensions = extensions;
+        }
+
+        /**
+         * Format of an uploaded file, from the format parameter when it is passed, then the content type of the
+         * part and then the extension of the file name.
+         */
+        public static Format of(String requestedFormat, String contentType, String filename) {
+            if (requestedFormat != null && !requestedFormat.isBlank()) {
+                try {
+                    return valueOf(requestedFormat.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new BadRequestException("Unsupported file format: " + requestedFormat);
+                }
+            }
+            String mediaType = contentType != null ? contentType.split(";")[0].trim().toLowerCase(Locale.ROOT) : "";
+            for (Format format : values()) {
+                if (format.mediaTypes.contains(mediaType)) {
+                    return format;
+                }
+            }
+            //browsers and curl often send files as application/octet-stream
+            String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+            for (Format format : values()) {
+                if (format.extensions.stream().anyMatch(name::endsWith)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Unknown file format, pass format=csv or format=ndjson");
+        }
+
+        private MappingIterator<?> open(InputStream inputStream) throws IOException {
+            try {
+                return this == CSV ? CSV_READER.readValues(inputStream) : NDJSON_READER.readValues(inputStream);
+            } catch (JsonProcessingException e) {
+                throw new BadRequestException("Failed to parse the header of the file");
+            }
+        }
+    }
+}
@@ -1,20 +1,67 @@
 package io.cptn.ingestionsvc.services;
 
 import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.QuarantinedEvent;
+import io.cptn.common.repositories.InboundWriteEventBulkRepository;
 import io.cptn.common.repositories.InboundWriteEventRepository;
+import io.cptn.common.repositories.QuarantinedEventRepository;
 import io.cptn.common.services.CommonService;
+import io.cptn.ingestionsvc.scheduler.ConnectionPoolLimiter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
 
 /* @author: kc, created on 2/8/23 */
+
+/*
+    Every call holds a connection permit of the ConnectionPoolLimiter. Transactions are opened inside the permit, with
+    the transaction template rather than @Transactional, as the proxy would take the connection before the permit.
+ */
 @Service
 @RequiredArgsConstructor
 public class InboundWriteEventService extends CommonService {
 
     private final InboundWriteEventRepository writeEventRepository;
 
+    private final InboundWriteEventBulkRepository bulkRepository;
+
+    private final QuarantinedEventRepository quarantinedEventRepository;
+
+    private final ConnectionPoolLimiter connectionPoolLimiter;
+
+    private final TransactionTemplate transactionTemplate;
+
     public InboundWriteEvent create(InboundWriteEvent event) {
-        return writeEventRepository.save(event);
+        return connectionPoolLimiter.call(() -> writeEventRepository.save(event));
+    }
+
+    /**
+     * Stores events that did not match their source's schema, where they are kept out of processing.
+     */
+    public void quarantine(List<QuarantinedEvent> events) {
+        connectionPoolLimiter.call(() -> quarantinedEventRepository.saveAll(events));
+    }
+
+    /**
+     * Inserts the events as a single JDBC batch in one transaction. The returned list is in the same order as the
+     * input, with ids populated.
+     */
+    public List<InboundWriteEvent> createAll(List<InboundWriteEvent> events) {
+        return connectionPoolLimiter.call(() ->
+                transactionTemplate.execute(status -> bulkRepository.insertAll(events)));
+    }
+
+    /**
+     * Writes the events with COPY in their own transaction, so chunks written before a later failure are kept.
+     *
+     * @return number of rows written
+     */
+    public long copyAll(List<InboundWriteEvent> events) {
+        Long count = connectionPoolLimiter.call(() ->
+                transactionTemplate.execute(status -> bulkRepository.copyAll(events)));
+        return count != null ? count : 0;
     }
 
 }
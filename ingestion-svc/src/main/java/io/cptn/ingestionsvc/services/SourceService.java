@@ -4,6 +4,7 @@ import io.cptn.common.entities.Source;
 import io.cptn.common.repositories.SourceRepository;
 import io.cptn.common.services.CommonService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -23,4 +24,9 @@ public class SourceService extends CommonService {
         return sourceRepository.findById(id);
     }
 
+    @CacheEvict(value = "sources", key = "#id")
+    public void evict(UUID id) {
+        //only evicts the cached entry
+    }
+
 }
@@ -0,0 +1,361 @@
+package io.cptn.ingestionsvc.wal;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.exceptions.WebApplicationException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.helpers.UuidHelper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Local write-ahead log for accepted inbound events, so that ingestion does not depend on the database being
+    reachable. Events are appended to memory-mapped segment files of a fixed size. Each record is laid out as
+
+        [int body length][long crc32c of body][long id msb][long id lsb][long source msb][long source lsb]
+        [long created_at in epoch micros][payload]
+
+    The length is written last, so a record whose length is still 0 was never completed. A checkpoint file holds the
+    position up to which records have been written to the database. Segments before the checkpoint are deleted.
+    created_at is stamped on append, so that a replayed event keeps its acceptance time and its primary key.
+    Events that can neither be written nor quarantined are appended to a dead-letter file, one JSON object per line,
+    so that replay can move past them without losing them.
+ */
+@Component
+@Slf4j
+public class WriteAheadLog {
+
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    private static final int FIXED_BODY_SIZE = 5 * Long.BYTES;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final String DEAD_LETTER_FILE = "dead-letter.jsonl";
+
+    @Getter
+    @Value("${inbound.event.wal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inbound.event.wal.directory:/data/wal}")
+    private String directory;
+
+    @Value("${inbound.event.wal.segment-size:67108864}")
+    private int segmentSize;
+
+    @Value("${inbound.event.wal.force-on-append:true}")
+    private boolean forceOnAppend;
+
+    private Path walPath;
+
+    //guarded by this
+    private long writeSegment;
+
+    private MappedByteBuffer writeBuffer;
+
+    private int writePosition;
+
+    //only used by the replayer thread
+    private volatile Position committedPosition;
+
+    private long readSegment = -1;
+
+    private ByteBuffer readBuffer;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        walPath = Path.of(directory);
+        Files.createDirectories(walPath);
+
+        List<Long> segments = listSegments();
+        committedPosition = readCheckpoint();
+        if (committedPosition == null) {
+            committedPosition = new Position(segments.isEmpty() ? 0 : segments.get(0), 0);
+        }
+
+        writeSegment = segments.isEmpty() ? committedPosition.segment() : segments.get(segments.size() - 1);
+        writeBuffer = mapSegment(writeSegment, FileChannel.MapMode.READ_WRITE);
+        writePosition = recoverWritePosition(writeBuffer);
+        deleteSegmentsBefore(committedPosition.segment());
+        log.info("Write-ahead log opened at {}, write segment: {}, write position: {}, replay from: {}", walPath,
+                writeSegment, writePosition, committedPosition);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (writeBuffer != null) {
+            writeBuffer.force();
+        }
+    }
+
+    /**
+     * Appends the event to the log. Once this returns the event survives a restart of the process, and with
+     * force-on-append also a crash of the host.
+     */
+    public void append(InboundWriteEvent event) {
+        if (event.getId() == null) {
+            event.setId(UuidHelper.newTimeOrderedId());
+        }
+        if (event.getCreatedAt() == null) {
+            //the timestamp columns only keep microseconds
+            event.setCreatedAt(ZonedDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        }
+        byte[] payload = event.getSerializedPayload() != null ?
+                event.getSerializedPayload().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int bodyLength = FIXED_BODY_SIZE + payload.length;
+        if (HEADER_SIZE + bodyLength > segmentSize) {
+            throw new BadRequestException("Event is too large for the write-ahead log");
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        UUID sourceId = event.getSource().getId();
+        body.putLong(event.getId().getMostSignificantBits()).putLong(event.getId().getLeastSignificantBits())
+                .putLong(sourceId.getMostSignificantBits()).putLong(sourceId.getLeastSignificantBits())
+                .putLong(ChronoUnit.MICROS.between(Instant.EPOCH, event.getCreatedAt().toInstant()))
+                .put(payload)
+                .flip();
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+
+        synchronized (this) {
+            if (writePosition + HEADER_SIZE + bodyLength > segmentSize) {
+                rollSegment();
+            }
+            int recordPosition = writePosition;
+            writeBuffer.putLong(recordPosition + Integer.BYTES, crc.getValue());
+            writeBuffer.put(recordPosition + HEADER_SIZE, body, 0, bodyLength);
+            writeBuffer.putInt(recordPosition, bodyLength);
+            if (forceOnAppend) {
+                writeBuffer.force(recordPosition, HEADER_SIZE + bodyLength);
+            }
+            writePosition = recordPosition + HEADER_SIZE + bodyLength;
+        }
+    }
+
+    /**
+     * Reads up to maxRecords events starting at the committed position. Nothing moves until {@link #commit} is
+     * called with the returned position, so a failed write to the database is simply read again.
+     */
+    public ReadResult read(int maxRecords) {
+        List<InboundWriteEvent> events = new ArrayList<>();
+        Position position = committedPosition;
+        while (events.size() < maxRecords) {
+            boolean activeSegment;
+            int limit;
+            synchronized (this) {
+                activeSegment = position.segment() == writeSegment;
+                limit = activeSegment ? writePosition : segmentSize;
+            }
+
+            ByteBuffer buffer = getReadBuffer(position.segment());
+            int offset = position.offset();
+            int length = offset + HEADER_SIZE <= limit ? buffer.getInt(offset) : 0;
+            if (length <= 0 || offset + HEADER_SIZE + length > limit) {
+                if (activeSegment) {
+                    break;
+                }
+                position = new Position(position.segment() + 1, 0);
+                continue;
+            }
+
+            ByteBuffer body = buffer.slice(offset + HEADER_SIZE, length);
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            if (crc.getValue() != buffer.getLong(offset + Integer.BYTES)) {
+                if (activeSegment) {
+                    throw new WebApplicationException("Checksum mismatch in write-ahead log at " + position);
+                }
+                log.error("Checksum mismatch in write-ahead log at {}, skipping rest of the segment", position);
+                position = new Position(position.segment() + 1, 0);
+                continue;
+            }
+            events.add(toEvent(body));
+            position = new Position(position.segment(), offset + HEADER_SIZE + length);
+        }
+        return new ReadResult(events, position);
+    }
+
+    /**
+     * Records that everything before the position is in the database and drops segments that are no longer needed.
+     */
+    public void commit(Position position) {
+        try {
+            Path temp = walPath.resolve(CHECKPOINT_FILE + ".tmp");
+            Files.writeString(temp, position.segment() + ":" + position.offset());
+            Files.move(temp, walPath.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            committedPosition = position;
+            deleteSegmentsBefore(position.segment());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets aside an event that replay can not write, with the reason. The dead-letter file is kept when segments are
+     * deleted and is left for an operator to inspect.
+     */
+    public synchronized void deadLetter(InboundWriteEvent event, String reason) {
+        ObjectNode record = JsonHelper.getMapper().createObjectNode()
+                .put("id", event.getId().toString())
+                .put("source", event.getSource().getId().toString())
+                .put("created_at", event.getCreatedAt().toString())
+                .put("reason", reason)
+                .put("payload", event.getSerializedPayload());
+        try {
+            Files.writeString(walPath.resolve(DEAD_LETTER_FILE), JsonHelper.serializeJson(record) + "\n",
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE,
+                    StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void rollSegment() {
+        writeBuffer.force();
+        writeSegment++;
+        try {
+            writeBuffer = mapSegment(writeSegment, FileChannel.MapMode.READ_WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writePosition = 0;
+    }
+
+    private ByteBuffer getReadBuffer(long segment) {
+        if (segment != readSegment) {
+            synchronized (this) {
+                if (segment == writeSegment) {
+                    readBuffer = writeBuffer.duplicate();
+                } else {
+                    try {
+                        readBuffer = mapSegment(segment, FileChannel.MapMode.READ_ONLY);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+            readSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private InboundWriteEvent toEvent(ByteBuffer body) {
+        UUID id = new UUID(body.getLong(), body.getLong());
+        UUID sourceId = new UUID(body.getLong(), body.getLong());
+        ZonedDateTime createdAt = Instant.EPOCH.plus(body.getLong(), ChronoUnit.MICROS).atZone(ZoneOffset.UTC);
+        byte[] payload = new byte[body.remaining()];
+        body.get(payload);
+
+        InboundWriteEvent event = new InboundWriteEvent();
+        event.setId(id);
+        event.setSource(new Source(sourceId));
+        event.setCreatedAt(createdAt);
+        event.setSerializedPayload(payload.length > 0 ? new String(payload, StandardCharsets.UTF_8) : null);
+        return event;
+    }
+
+    private int recoverWritePosition(ByteBuffer buffer) {
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(position + HEADER_SIZE, length));
+            if (crc.getValue() != buffer.getLong(position + Integer.BYTES)) {
+                //torn write from a crash, the record was never acknowledged
+                log.warn("Discarding incomplete record at the end of write-ahead log segment {}", writeSegment);
+                buffer.putInt(position, 0);
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private MappedByteBuffer mapSegment(long segment, FileChannel.MapMode mode) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath(segment).toFile(),
+                mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw")) {
+            if (mode != FileChannel.MapMode.READ_ONLY && file.length() < segmentSize) {
+                file.setLength(segmentSize);
+            }
+            return file.getChannel().map(mode, 0, segmentSize);
+        }
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path checkpoint = walPath.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return null;
+        }
+        String[] parts = Files.readString(checkpoint).trim().split(":");
+        return new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(walPath)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void deleteSegmentsBefore(long segment) throws IOException {
+        for (Long existing : listSegments()) {
+            if (existing < segment) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return walPath.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    public record Position(long segment, int offset) {
+    }
+
+    public record ReadResult(List<InboundWriteEvent> events, Position next) {
+    }
+}
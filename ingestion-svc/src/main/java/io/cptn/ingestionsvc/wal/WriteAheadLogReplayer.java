@@ -0,0 +1,128 @@
+package io.cptn.ingestionsvc.wal;
+
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.ingestionsvc.helpers.WriteFailureHelper;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Drains the write-ahead log into inbound_queue. The checkpoint only moves after a batch is committed, so a crash
+    between the commit and the checkpoint replays that batch. Replayed events keep their id and created_at and the
+    insert skips rows that already exist, so the batch is not written twice.
+    While the database is down the batch is retried every retryInterval ms and requests keep being accepted.
+    A batch that fails with a permanent error is split up to find the records that can not be written. Those are
+    quarantined, or appended to the dead-letter file when quarantining fails too, and the checkpoint moves past the
+    batch, so a poison record does not stall replay.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class WriteAheadLogReplayer {
+
+    private final WriteAheadLog writeAheadLog;
+
+    private final InboundWriteEventService inboundEventService;
+
+    @Value("${inbound.event.wal.replay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inbound.event.wal.replay.poll-interval:100}")
+    private long pollInterval;
+
+    @Value("${inbound.event.wal.replay.retry-interval:5000}")
+    private long retryInterval;
+
+    private Thread replayer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!writeAheadLog.isEnabled()) {
+            return;
+        }
+        running = true;
+        replayer = new Thread(this::run, "inbound-event-wal-replayer");
+        replayer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (replayer == null) {
+            return;
+        }
+        running = false;
+        replayer.interrupt();
+        try {
+            replayer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (!replayBatch()) {
+                    Thread.sleep(pollInterval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to replay write-ahead log, retrying in {}ms: {}", retryInterval, e.getMessage());
+                try {
+                    Thread.sleep(retryInterval);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the next batch from the log to the database and moves the checkpoint past it.
+     *
+     * @return false when the log had nothing to replay
+     */
+    boolean replayBatch() {
+        WriteAheadLog.ReadResult result = writeAheadLog.read(batchSize);
+        List<InboundWriteEvent> events = result.events();
+        if (!events.isEmpty()) {
+            try {
+                inboundEventService.createAll(events);
+            } catch (RuntimeException e) {
+                if (WriteFailureHelper.isTransient(e)) {
+                    throw e;
+                }
+                //a retry after a transient error while isolating writes the batch again, the insert skips what is in
+                WriteFailureHelper.isolateFailures(events, e, inboundEventService::createAll, this::setAside);
+            }
+        }
+        writeAheadLog.commit(result.next());
+        return !events.isEmpty();
+    }
+
+    private void setAside(InboundWriteEvent event, RuntimeException error) {
+        log.error("Replayed event {} can not be written: {}", event.getId(), error.getMessage());
+        try {
+            inboundEventService.quarantine(List.of(WriteFailureHelper.toQuarantinedEvent(event, error)));
+        } catch (RuntimeException e) {
+            if (WriteFailureHelper.isTransient(e)) {
+                throw e;
+            }
+            log.error("Failed to quarantine replayed event {}, moving it to the dead-letter file", event.getId(), e);
+            writeAheadLog.deadLetter(event, error.getMessage());
+        }
+    }
+}
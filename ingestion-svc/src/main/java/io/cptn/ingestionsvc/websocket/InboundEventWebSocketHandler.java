@@ -0,0 +1,207 @@
+package io.cptn.ingestionsvc.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.WebApplicationException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.helpers.SourceKeyHelper;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.buffer.InboundWriteEventBuffer;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.dto.FrameAckDto;
+import io.cptn.ingestionsvc.helpers.PayloadFormat;
+import io.cptn.ingestionsvc.helpers.VirtualThreads;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Ingests events over a long-lived WebSocket connection. Every text frame carries a JSON object for one event or a
+    JSON array for a batch, and frames are numbered from 1 in the order they arrive on the connection. Each frame is
+    acknowledged with its number once its events are committed, or with an error, so a client can keep sending without
+    waiting and resend the frames that were not acknowledged.
+
+    Events from all connections go through the write buffer and are coalesced into its group commits. Acks are sent
+    from a separate executor so that a slow client never holds up the flusher.
+
+    The source and the key presented at the handshake are checked again on every frame against the cached source, so
+    a connection is closed once its source is deactivated or its key is rotated out.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InboundEventWebSocketHandler extends TextWebSocketHandler {
+
+    private final SourceRuntimeCache sourceRuntimeCache;
+
+    private final InboundEventAssembler eventAssembler;
+
+    private final InboundWriteEventBuffer inboundEventBuffer;
+
+    private final WriteAheadLog writeAheadLog;
+
+    private final SourceRateLimiter rateLimiter;
+
+    private final BacklogMonitor backlogMonitor;
+
+    @Value("${inbound.event.websocket.send-time-limit:10000}")
+    private int sendTimeLimit;
+
+    @Value("${inbound.event.websocket.send-buffer-size:524288}")
+    private int sendBufferSize;
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    private ExecutorService ackExecutor;
+
+    @PostConstruct
+    public void init() {
+        ackExecutor = Optional.ofNullable(VirtualThreads.newVirtualThreadPerTaskExecutor())
+                .orElseGet(Executors::newCachedThreadPool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ackExecutor.shutdown();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        //acks are sent from several threads, the decorator serializes them and drops clients that stop reading
+        WebSocketSession concurrentSession = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimit,
+                sendBufferSize);
+        Map<String, Object> attributes = session.getAttributes();
+        connections.put(session.getId(), new Connection(
+                (UUID) attributes.get(SourceHandshakeInterceptor.SOURCE_ID_ATTRIBUTE),
+                (String) attributes.get(SourceHandshakeInterceptor.REMOTE_ADDR_ATTRIBUTE),
+                (String) attributes.get(SourceHandshakeInterceptor.AUTHORIZATION_ATTRIBUTE),
+                (String) attributes.get(SourceHandshakeInterceptor.TOKEN_ATTRIBUTE),
+                concurrentSession, new AtomicLong()));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        connections.remove(session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        Connection connection = connections.get(session.getId());
+        //frames of a connection are handled one at a time, in order
+        long seq = connection.sequence().incrementAndGet();
+
+        SourceRuntime sourceRuntime = sourceRuntimeCache.get(connection.sourceId())
+                .filter(runtime -> Boolean.TRUE.equals(runtime.getSource().getActive()))
+                .orElse(null);
+        if (sourceRuntime == null) {
+            //the source was deleted or deactivated after the handshake
+            connection.session().close(CloseStatus.POLICY_VIOLATION.withReason("Source not active"));
+            return;
+        }
+        Source source = sourceRuntime.getSource();
+        if (!SourceKeyHelper.isValid(source, connection.authorization(), connection.token())) {
+            //the key was rotated out, or the source secured, after the handshake
+            connection.session().close(CloseStatus.POLICY_VIOLATION.withReason("Unauthorized"));
+            return;
+        }
+
+        try {
+            backlogMonitor.admit(source);
+            byte[] frame = message.asBytes();
+            List<JsonNode> payloads = readFrame(frame);
+            rateLimiter.acquire(source, payloads.size(), frame.length);
+
+            CompletableFuture<Void> written = eventAssembler.writeAsync(sourceRuntime, payloads,
+                    connection.remoteAddr(), this::write);
+            if (written.isDone() && !written.isCompletedExceptionally()) {
+                //nothing was left to write, or the events went to the write-ahead log
+                send(connection, new FrameAckDto(seq, payloads.size(), null));
+                return;
+            }
+            written.whenCompleteAsync((result, e) -> send(connection, e == null ?
+                    new FrameAckDto(seq, payloads.size(), null) : new FrameAckDto(seq, null, getFailure(e))),
+                    ackExecutor);
+        } catch (WebApplicationException e) {
+            send(connection, new FrameAckDto(seq, null, e.getMessage()));
+        }
+    }
+
+    private CompletableFuture<Void> write(List<InboundWriteEvent> events) {
+        if (events.isEmpty()) {
+            //every event was a duplicate or quarantined
+            return CompletableFuture.completedFuture(null);
+        }
+        if (writeAheadLog.isEnabled()) {
+            events.forEach(writeAheadLog::append);
+            return CompletableFuture.completedFuture(null);
+        }
+        return inboundEventBuffer.submitAll(events);
+    }
+
+    private List<JsonNode> readFrame(byte[] frame) throws IOException {
+        JsonNode payload = JsonHelper.readValue(frame, PayloadFormat.JSON.getFactory());
+        if (!payload.isArray()) {
+            return List.of(payload);
+        }
+        List<JsonNode> payloads = new ArrayList<>(payload.size());
+        payload.forEach(payloads::add);
+        return payloads;
+    }
+
+    private String getFailure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        //only messages meant for clients are passed on
+        return cause instanceof WebApplicationException ? cause.getMessage() : "Failed to store events";
+    }
+
+    private void send(Connection connection, FrameAckDto ack) {
+        WebSocketSession session = connection.session();
+        if (!session.isOpen()) {
+            //the client resends frames that were not acknowledged
+            return;
+        }
+        try {
+            session.sendMessage(new TextMessage(JsonHelper.getMapper().writeValueAsString(ack)));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize frame ack", e);
+        } catch (IOException e) {
+            log.debug("Failed to send ack for frame {}: {}", ack.getSeq(), e.getMessage());
+        } catch (RuntimeException e) {
+            //thrown when the client is too slow to read its acks, the decorator closes the session
+            log.warn("Closing WebSocket connection for source {}: {}", connection.sourceId(), e.getMessage());
+        }
+    }
+
+    private record Connection(UUID sourceId, String remoteAddr, String authorization, String token,
+                              WebSocketSession session, AtomicLong sequence) {
+    }
+}
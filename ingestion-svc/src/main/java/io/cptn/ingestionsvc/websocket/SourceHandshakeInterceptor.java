@@ -0,0 +1,98 @@
+package io.cptn.ingestionsvc.websocket;
+
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.NotFoundException;
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import io.cptn.common.exceptions.UnauthorizedException;
+import io.cptn.common.helpers.SourceKeyHelper;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.helpers.EventUrlHelper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Authenticates a WebSocket connection at the handshake, with the same source keys as the HTTP endpoints.
+    Browsers cannot set headers on a WebSocket handshake, so the key can also be passed with the token parameter.
+    The presented key is kept with the session, so that the handler can check it against the source again.
+ */
+@Component
+@RequiredArgsConstructor
+public class SourceHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String SOURCE_ID_ATTRIBUTE = "cptn.sourceId";
+
+    static final String REMOTE_ADDR_ATTRIBUTE = "cptn.remoteAddr";
+
+    static final String AUTHORIZATION_ATTRIBUTE = "cptn.authorization";
+
+    static final String TOKEN_ATTRIBUTE = "cptn.token";
+
+    private final SourceRuntimeCache sourceRuntimeCache;
+
+    private final BacklogMonitor backlogMonitor;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                                   Map<String, Object> attributes) {
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        UUID sourceId = EventUrlHelper.getSourceId(servletRequest.getRequestURI()).orElse(null);
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String token = servletRequest.getParameter("token");
+        try {
+            SourceRuntime sourceRuntime = sourceId != null ? sourceRuntimeCache.get(sourceId).orElse(null) : null;
+            if (sourceRuntime == null) {
+                throw new NotFoundException("Source not found with passed ID");
+            }
+            if (!Boolean.TRUE.equals(sourceRuntime.getSource().getActive())) {
+                throw new NotFoundException("Source not active");
+            }
+            backlogMonitor.admit(sourceRuntime.getSource());
+            Source source = sourceRuntime.getSource();
+            if (!Boolean.FALSE.equals(source.getSecured())) {
+                SourceKeyHelper.verify(source, authorization, token);
+            }
+        } catch (NotFoundException e) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        } catch (UnauthorizedException e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        } catch (ServiceUnavailableException e) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            return false;
+        }
+
+        attributes.put(SOURCE_ID_ATTRIBUTE, sourceId);
+        attributes.put(REMOTE_ADDR_ATTRIBUTE, servletRequest.getRemoteAddr());
+        //session attributes do not take null values
+        if (authorization != null) {
+            attributes.put(AUTHORIZATION_ATTRIBUTE, authorization);
+        }
+        if (token != null) {
+            attributes.put(TOKEN_ATTRIBUTE, token);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                               Exception exception) {
+        //nothing to do once the connection is upgraded
+    }
+}
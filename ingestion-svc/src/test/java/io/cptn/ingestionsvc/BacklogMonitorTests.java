@@ -0,0 +1,97 @@
+package io.cptn.ingestionsvc;
+
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import io.cptn.common.repositories.InboundEventRepository;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/* @author: kc, created on 10/18/26 */
+class BacklogMonitorTests {
+
+    private final InboundEventRepository eventRepository = mock(InboundEventRepository.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BacklogMonitor monitor;
+
+    @BeforeEach
+    void setup() {
+        monitor = new BacklogMonitor(eventRepository, eventPublisher, meterRegistry);
+        ReflectionTestUtils.setField(monitor, "maxDepth", 100L);
+        ReflectionTestUtils.setField(monitor, "maxAgeSeconds", 60L);
+        ReflectionTestUtils.setField(monitor, "sampleInterval", 10000L);
+        monitor.registerGauges();
+    }
+
+    @Test
+    void readinessTest() {
+        when(eventRepository.countQueuedEvents(200)).thenReturn(150L, 10L);
+        when(eventRepository.getOldestQueuedEventAgeSeconds()).thenReturn(5d, 1d);
+
+        monitor.sample();
+        assertTrue(monitor.isBacklogged());
+        assertEquals(150, meterRegistry.get("cptn.ingestion.backlog.depth").gauge().value());
+        assertEquals(5, meterRegistry.get("cptn.ingestion.backlog.oldest.age").gauge().value());
+
+        monitor.sample();
+        assertFalse(monitor.isBacklogged());
+
+        ArgumentCaptor<AvailabilityChangeEvent<ReadinessState>> captor =
+                ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(captor.capture());
+        assertEquals(List.of(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC),
+                captor.getAllValues().stream().map(AvailabilityChangeEvent::getState).toList());
+    }
+
+    @Test
+    void oldestAgeThresholdTest() {
+        when(eventRepository.countQueuedEvents(200)).thenReturn(1L);
+        when(eventRepository.getOldestQueuedEventAgeSeconds()).thenReturn(120d);
+
+        monitor.sample();
+        assertTrue(monitor.isBacklogged());
+        //no change is published while the state stays the same
+        monitor.sample();
+        verify(eventPublisher, times(1)).publishEvent(any(AvailabilityChangeEvent.class));
+    }
+
+    @Test
+    void sampleFailureTest() {
+        when(eventRepository.countQueuedEvents(200)).thenThrow(new RuntimeException("db down"));
+
+        monitor.sample();
+        assertFalse(monitor.isBacklogged());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shedLowPriorityTest() {
+        ReflectionTestUtils.setField(monitor, "shedLowPriority", true);
+        when(eventRepository.countQueuedEvents(200)).thenReturn(500L);
+        monitor.sample();
+
+        Source source = new Source(UUID.randomUUID());
+        assertDoesNotThrow(() -> monitor.admit(source));
+
+        source.setLowPriority(true);
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class, () -> monitor.admit(source));
+        assertEquals(10, e.getRetryAfterSeconds());
+    }
+}
@@ -0,0 +1,101 @@
+package io.cptn.ingestionsvc;
+
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import io.cptn.ingestionsvc.helpers.VirtualThreads;
+import io.cptn.ingestionsvc.scheduler.ConnectionPoolLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* @author: kc, created on 10/18/26 */
+class ConnectionPoolLimiterTests {
+
+    @Test
+    void concurrencyCappedTest() throws InterruptedException {
+        ConnectionPoolLimiter limiter = new ConnectionPoolLimiter(5, 2, 1000, true);
+        assertEquals(3, limiter.availablePermits());
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> limiter.run(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(3, limiter.availablePermits());
+    }
+
+    @Test
+    void requestsShareConnectionsTest() throws InterruptedException {
+        ConnectionPoolLimiter limiter = new ConnectionPoolLimiter(2, 1, 10, true);
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread dispatcher = new Thread(() -> limiter.run(() -> {
+            dispatching.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        dispatcher.start();
+        assertTrue(dispatching.await(5, TimeUnit.SECONDS));
+
+        //dispatch is capped at one task, the other connection is left for requests
+        assertEquals(0, limiter.availablePermits());
+        assertEquals("ok", limiter.call(() -> "ok"));
+        release.countDown();
+        dispatcher.join();
+        assertEquals(2, limiter.availableConnections());
+    }
+
+    @Test
+    void requestTimeoutTest() {
+        ConnectionPoolLimiter limiter = new ConnectionPoolLimiter(1, 0, 10, true);
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> limiter.call(() -> limiter.call(() -> "nested")));
+        assertEquals("Database connections are exhausted", e.getMessage());
+        assertEquals(1, limiter.availableConnections());
+    }
+
+    @Test
+    void disabledByDefaultTest() {
+        //with platform threads nothing is limited and requests are never turned away
+        ConnectionPoolLimiter limiter = new ConnectionPoolLimiter(1, 0, 10, false);
+        assertEquals("nested", limiter.call(() -> limiter.call(() -> "nested")));
+        AtomicInteger ran = new AtomicInteger();
+        limiter.run(() -> limiter.run(ran::incrementAndGet));
+        assertEquals(1, ran.get());
+        assertEquals(1, limiter.availableConnections());
+    }
+
+    @Test
+    void virtualThreadsTest() {
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        if (Runtime.version().feature() >= 21) {
+            assertTrue(VirtualThreads.isSupported());
+            executor.shutdown();
+        } else {
+            assertNull(executor);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.cptn.ingestionsvc;
+
+import com.github.luben.zstd.Zstd;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.exceptions.PayloadTooLargeException;
+import io.cptn.ingestionsvc.helpers.ContentEncodingHelper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/* @author: kc, created on 10/18/26 */
+class ContentEncodingHelperTests {
+
+    private static final String PAYLOAD = "[{\"foo\":\"bar\"},{\"foo\":\"baz\"}]";
+
+    @Test
+    void noEncodingTest() {
+        InputStream inputStream = stream(bytes(PAYLOAD));
+        assertSame(inputStream, ContentEncodingHelper.decode(inputStream, null, 10));
+        assertSame(inputStream, ContentEncodingHelper.decode(inputStream, "identity", 10));
+    }
+
+    @Test
+    void gzipTest() throws IOException {
+        assertEquals(PAYLOAD, decode(gzip(bytes(PAYLOAD)), "gzip", 1024));
+    }
+
+    @Test
+    void deflateTest() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(outputStream)) {
+            deflater.write(bytes(PAYLOAD));
+        }
+        assertEquals(PAYLOAD, decode(outputStream.toByteArray(), "deflate", 1024));
+    }
+
+    @Test
+    void zstdTest() throws IOException {
+        assertEquals(PAYLOAD, decode(Zstd.compress(bytes(PAYLOAD)), "zstd", 1024));
+    }
+
+    @Test
+    void layeredEncodingTest() throws IOException {
+        assertEquals(PAYLOAD, decode(gzip(Zstd.compress(bytes(PAYLOAD))), "zstd, gzip", 1024));
+    }
+
+    @Test
+    void decompressedLimitTest() throws IOException {
+        byte[] compressed = gzip(new byte[1024 * 1024]);
+        PayloadTooLargeException e = assertThrows(PayloadTooLargeException.class,
+                () -> decode(compressed, "gzip", 1024));
+        assertEquals("Decompressed payload exceeds the limit of 1024 bytes", e.getMessage());
+    }
+
+    @Test
+    void invalidEncodingTest() {
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> ContentEncodingHelper.decode(stream(bytes(PAYLOAD)), "br", 1024));
+        assertEquals("Unsupported Content-Encoding: br", e.getMessage());
+
+        e = assertThrows(BadRequestException.class, () -> decode(bytes(PAYLOAD), "gzip", 1024));
+        assertEquals("Failed to decompress payload", e.getMessage());
+    }
+
+    private String decode(byte[] body, String encoding, long limit) throws IOException {
+        return new String(ContentEncodingHelper.decode(stream(body), encoding, limit).readAllBytes(),
+                StandardCharsets.UTF_8);
+    }
+
+    private byte[] gzip(byte[] value) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(outputStream)) {
+            gzip.write(value);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private InputStream stream(byte[] value) {
+        return new ByteArrayInputStream(value);
+    }
+}
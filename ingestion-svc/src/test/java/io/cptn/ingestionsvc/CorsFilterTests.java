@@ -0,0 +1,127 @@
+package io.cptn.ingestionsvc;
+
+import io.cptn.common.entities.Source;
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.filters.CorsFilter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+class CorsFilterTests {
+
+    private final SourceRuntimeCache sourceRuntimeCache = mock(SourceRuntimeCache.class);
+
+    private final FilterChain filterChain = mock(FilterChain.class);
+
+    private final CorsFilter corsFilter = new CorsFilter(sourceRuntimeCache);
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(corsFilter, "maxAge", 600L);
+    }
+
+    @Test
+    void preflightTest() throws Exception {
+        Source source = getSource(getHeader("Access-Control-Allow-Origin", "*"));
+        MockHttpServletRequest request = getPreflight("/event/source/" + source.getId() + "/batch");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        corsFilter.doFilter(request, response, filterChain);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("*", response.getHeader("Access-Control-Allow-Origin"));
+        assertEquals("600", response.getHeader("Access-Control-Max-Age"));
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void sourceMaxAgeTest() throws Exception {
+        Source source = getSource(getHeader("Access-Control-Allow-Origin", "*"),
+                getHeader("Access-Control-Max-Age", "86400"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        corsFilter.doFilter(getPreflight("/event/source/" + source.getId()), response, filterChain);
+
+        assertEquals("86400", response.getHeader("Access-Control-Max-Age"));
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void notPreflightTest() throws Exception {
+        Source source = getSource(getHeader("Access-Control-Allow-Origin", "*"));
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/event/source/" + source.getId());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        corsFilter.doFilter(request, response, filterChain);
+
+        assertEquals("*", response.getHeader("Access-Control-Allow-Origin"));
+        assertNull(response.getHeader("Access-Control-Max-Age"));
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void sourceWithoutCorsHeadersTest() throws Exception {
+        Source source = getSource();
+        MockHttpServletRequest request = getPreflight("/event/source/" + source.getId());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        corsFilter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void otherUrlsTest() throws Exception {
+        for (String uri : List.of("/actuator/health", "/event/source/invalid", "/event/source/" + UUID.randomUUID() +
+                "x")) {
+            MockHttpServletRequest request = getPreflight(uri);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            corsFilter.doFilter(request, response, filterChain);
+            verify(filterChain).doFilter(request, response);
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/event/source/" + UUID.randomUUID());
+        corsFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+        verify(sourceRuntimeCache, never()).get(any());
+    }
+
+    private MockHttpServletRequest getPreflight(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", uri);
+        request.addHeader("Origin", "https://example.com");
+        request.addHeader("Access-Control-Request-Method", "POST");
+        return request;
+    }
+
+    private Source getSource(Header... headers) {
+        Source source = new Source(UUID.randomUUID());
+        source.setHeaders(new ArrayList<>(List.of(headers)));
+        when(sourceRuntimeCache.get(source.getId())).thenReturn(Optional.of(SourceRuntime.of(source)));
+        return source;
+    }
+
+    private Header getHeader(String key, String value) {
+        Header header = new Header();
+        header.setKey(key);
+        header.setValue(value);
+        return header;
+    }
+}
@@ -0,0 +1,146 @@
+package io.cptn.ingestionsvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.hash.Hashing;
+import io.cptn.common.entities.Source;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+class DuplicateFilterTests {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DuplicateFilter duplicateFilter = new DuplicateFilter(redisTemplate, meterRegistry);
+
+    DuplicateFilterTests() {
+        ReflectionTestUtils.setField(duplicateFilter, "expectedKeys", 1000);
+        ReflectionTestUtils.setField(duplicateFilter, "fpp", 0.000001);
+    }
+
+    @Test
+    void disabledSourceTest() {
+        Source source = getSource(null);
+        assertFalse(duplicateFilter.isEnabled(source));
+        assertFalse(duplicateFilter.isDuplicate(source, "a"));
+        assertFalse(duplicateFilter.isDuplicate(source, "a"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void localDuplicatesTest() {
+        Source source = getSource(60);
+        assertFalse(duplicateFilter.isDuplicate(source, "a"));
+        //keys are only remembered once their events are written
+        assertFalse(duplicateFilter.isDuplicate(source, "a"));
+        duplicateFilter.record(source, List.of("a"));
+        assertTrue(duplicateFilter.isDuplicate(source, "a"));
+
+        //duplicates within the same list are found too, null keys are never duplicates
+        boolean[] duplicates = duplicateFilter.findDuplicates(source, Arrays.asList("b", "a", null, "b", null));
+        assertArrayEquals(new boolean[]{false, true, false, true, false}, duplicates);
+        assertEquals(3, duplicateFilter.getDuplicateCount(source.getId()));
+        assertEquals(1, meterRegistry.get("cptn.ingestion.duplicates")
+                .tag("source", source.getId().toString()).tag("check", "exact").counter().count());
+        assertEquals(2, meterRegistry.get("cptn.ingestion.duplicates")
+                .tag("source", source.getId().toString()).tag("check", "filter").counter().count());
+
+        //keys are tracked per source
+        assertFalse(duplicateFilter.isDuplicate(getSource(60), "a"));
+    }
+
+    @Test
+    void fullFilterRotatedTest() {
+        ReflectionTestUtils.setField(duplicateFilter, "expectedKeys", 10);
+        Source source = getSource(60);
+        duplicateFilter.record(source, List.of("a"));
+        for (int i = 0; i < 9; i++) {
+            duplicateFilter.record(source, List.of("key-" + i));
+        }
+        //still in the previous generation
+        assertTrue(duplicateFilter.isDuplicate(source, "a"));
+
+        for (int i = 9; i < 19; i++) {
+            duplicateFilter.record(source, List.of("key-" + i));
+        }
+        //forgotten early rather than filling the filter past its expected keys
+        assertFalse(duplicateFilter.isDuplicate(source, "a"));
+    }
+
+    @Test
+    void sharedDuplicatesTest() {
+        ReflectionTestUtils.setField(duplicateFilter, "redisEnabled", true);
+        Source source = getSource(60);
+        //another replica already stored "a"
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(false, true));
+
+        assertArrayEquals(new boolean[]{true, false}, duplicateFilter.findDuplicates(source, List.of("a", "b")));
+    }
+
+    @Test
+    void sharedDuplicatesFallbackTest() {
+        ReflectionTestUtils.setField(duplicateFilter, "redisEnabled", true);
+        Source source = getSource(60);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        //without Redis only the exact duplicates within the list are dropped
+        duplicateFilter.record(source, List.of("a"));
+        assertArrayEquals(new boolean[]{false, true}, duplicateFilter.findDuplicates(source, List.of("a", "a")));
+    }
+
+    @Test
+    void sharedKeysReleasedTest() {
+        ReflectionTestUtils.setField(duplicateFilter, "redisEnabled", true);
+        Source source = getSource(60);
+
+        duplicateFilter.release(source, Arrays.asList("a", null));
+        verify(redisTemplate).delete(List.of("cptn:dedup:" + source.getId() + ":" +
+                Hashing.murmur3_128().hashString("a", StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void payloadKeyTest() throws IOException {
+        Source source = getSource(60);
+        JsonNode payload = JsonHelper.getMapper().readTree("{\"order\": {\"id\": 42, \"lines\": [1, 2]}}");
+        assertNull(duplicateFilter.getKey(source, payload));
+
+        source.setIdempotencyKeyPointer("/order/id");
+        assertEquals("42", duplicateFilter.getKey(source, payload));
+        source.setIdempotencyKeyPointer("/order/lines");
+        assertNull(duplicateFilter.getKey(source, payload));
+        source.setIdempotencyKeyPointer("/missing");
+        assertNull(duplicateFilter.getKey(source, payload));
+    }
+
+    private Source getSource(Integer dedupWindow) {
+        Source source = new Source(UUID.randomUUID());
+        source.setDedupWindow(dedupWindow);
+        return source;
+    }
+}
@@ -1,19 +1,35 @@
 package io.cptn.ingestionsvc;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.QuarantinedEvent;
+import io.cptn.common.entities.ResponseMode;
+import io.cptn.common.entities.SchemaViolationAction;
 import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
 import io.cptn.common.exceptions.NotFoundException;
+import io.cptn.common.exceptions.PayloadTooLargeException;
 import io.cptn.common.exceptions.UnauthorizedException;
 import io.cptn.common.helpers.JsonHelper;
 import io.cptn.common.pojos.Header;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
+import io.cptn.ingestionsvc.buffer.InboundWriteEventBuffer;
 import io.cptn.ingestionsvc.controllers.InboundWriteEventController;
 import io.cptn.ingestionsvc.dto.InboundWriteEventDto;
+import io.cptn.ingestionsvc.dto.IngestionSummaryDto;
 import io.cptn.ingestionsvc.mappers.InboundWriteEventMapper;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.services.InboundFileLoader;
 import io.cptn.ingestionsvc.services.InboundWriteEventService;
 import io.cptn.ingestionsvc.services.SourceService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,16 +38,30 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /* @author: kc, created on 5/23/23 */
@@ -45,6 +75,16 @@ class InboundEventControllerBatchTests {
     private SourceService sourceService;
     @Mock
     private InboundWriteEventService inboundWriteEventService;
+    @Mock
+    private InboundWriteEventBuffer inboundWriteEventBuffer;
+    @Mock
+    private WriteAheadLog writeAheadLog;
+    @Mock
+    private SourceRateLimiter rateLimiter;
+    @Mock
+    private BacklogMonitor backlogMonitor;
+    @Mock
+    private DuplicateFilter duplicateFilter;
 
     @Mock
     private HttpServletRequest request;
@@ -54,7 +94,14 @@ class InboundEventControllerBatchTests {
 
     @BeforeEach
     void setup() {
-        this.controller = new InboundWriteEventController(sourceService, inboundWriteEventService, mapper);
+        SourceRuntimeCache sourceRuntimeCache = new SourceRuntimeCache(sourceService);
+        sourceRuntimeCache.init();
+        InboundEventAssembler eventAssembler = new InboundEventAssembler(inboundWriteEventService, duplicateFilter);
+        this.controller = new InboundWriteEventController(sourceRuntimeCache, inboundWriteEventService, mapper,
+                inboundWriteEventBuffer, writeAheadLog, rateLimiter, backlogMonitor, duplicateFilter, eventAssembler,
+                new InboundFileLoader(inboundWriteEventService, eventAssembler, rateLimiter));
+        ReflectionTestUtils.setField(controller, "batchChunkSize", 100);
+        ReflectionTestUtils.setField(controller, "maxDecompressedSize", 1024L * 1024);
     }
 
     @Test
@@ -62,7 +109,8 @@ class InboundEventControllerBatchTests {
 
         UUID sourceId = UUID.randomUUID();
         when(sourceService.getById(sourceId)).thenReturn(Optional.empty());
-        NotFoundException e = assertThrows(NotFoundException.class, () -> controller.processEventBatch(sourceId, null, null));
+        NotFoundException e = assertThrows(NotFoundException.class, () -> controller.processEventBatch(sourceId, null,
+                null, null));
         assertEquals("Source not found with passed ID", e.getMessage());
     }
 
@@ -72,7 +120,8 @@ class InboundEventControllerBatchTests {
         source.setActive(false);
         UUID sourceId = source.getId();
         when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
-        NotFoundException e = assertThrows(NotFoundException.class, () -> controller.processEventBatch(sourceId, null, null));
+        NotFoundException e = assertThrows(NotFoundException.class, () -> controller.processEventBatch(sourceId, null,
+                null, null));
         assertEquals("Source not active", e.getMessage());
     }
 
@@ -86,7 +135,7 @@ class InboundEventControllerBatchTests {
         when(request.getParameter("token")).thenReturn(null);
 
         UnauthorizedException e = assertThrows(UnauthorizedException.class, () -> controller.processEventBatch(sourceId,
-                null, request));
+                null, request, null));
         assertEquals("Unauthorized", e.getMessage());
     }
 
@@ -100,12 +149,12 @@ class InboundEventControllerBatchTests {
         when(request.getParameter("token")).thenReturn("invalid");
 
         UnauthorizedException e = assertThrows(UnauthorizedException.class, () -> controller.processEventBatch(sourceId,
-                null, request));
+                null, request, null));
         assertEquals("Unauthorized", e.getMessage());
     }
 
     @Test
-    void verifyDisabledSecurityTest() {
+    void verifyDisabledSecurityTest() throws IOException {
         Source source = getSource();
         source.setSecured(false);
         UUID sourceId = source.getId();
@@ -114,13 +163,14 @@ class InboundEventControllerBatchTests {
         when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
 
         List<UUID> eventIds = setupEvents(arrayEvents, source);
+        setupRequestBody(arrayEvents);
 
-        ResponseEntity<List<InboundWriteEventDto>> response = controller.processEventBatch(sourceId, arrayEvents, request);
+        ResponseEntity<Object> response = controller.processEventBatch(sourceId, null, request, null);
         performAssertions(response, sourceId, eventIds);
     }
 
     @Test
-    void verifyValidSecurityAuthPKAndSKTest() {
+    void verifyValidSecurityAuthPKAndSKTest() throws IOException {
         Source source = getSource();
         source.setSecured(true);
         source.setupNewKeys();
@@ -133,20 +183,21 @@ class InboundEventControllerBatchTests {
 
 
         List<UUID> eventIds = setupEvents(arrayEvents, source);
+        setupRequestBody(arrayEvents);
 
         //try with primary key
-        ResponseEntity<List<InboundWriteEventDto>> response = controller.processEventBatch(sourceId, arrayEvents, request);
+        ResponseEntity<Object> response = controller.processEventBatch(sourceId, null, request, null);
         performAssertions(response, sourceId, eventIds);
 
 
         //try with secondary key
         when(request.getHeader("Authorization")).thenReturn(source.getSecondaryKey());
-        response = controller.processEventBatch(sourceId, arrayEvents, request);
+        response = controller.processEventBatch(sourceId, null, request, null);
         performAssertions(response, sourceId, eventIds);
     }
 
     @Test
-    void verifyValidSecurityTokenPKAndSKTest() {
+    void verifyValidSecurityTokenPKAndSKTest() throws IOException {
         Source source = getSource();
         source.setSecured(true);
         source.setupNewKeys();
@@ -159,55 +210,332 @@ class InboundEventControllerBatchTests {
         when(request.getParameter("token")).thenReturn(source.getPrimaryKey());
 
         List<UUID> eventIds = setupEvents(arrayEvents, source);
+        setupRequestBody(arrayEvents);
 
         //try with primary key as token
-        ResponseEntity<List<InboundWriteEventDto>> response = controller.processEventBatch(sourceId, arrayEvents, request);
+        ResponseEntity<Object> response = controller.processEventBatch(sourceId, null, request, null);
         performAssertions(response, sourceId, eventIds);
 
         //try with secondary key as token
         when(request.getParameter("token")).thenReturn(source.getSecondaryKey());
-        response = controller.processEventBatch(sourceId, arrayEvents, request);
+        response = controller.processEventBatch(sourceId, null, request, null);
         performAssertions(response, sourceId, eventIds);
     }
 
-    private void performAssertions(ResponseEntity<List<InboundWriteEventDto>> response, UUID sourceId, List<UUID> eventIds) {
-        assertEquals(200, response.getStatusCodeValue());
-        assertEquals(2, response.getBody().size());
-        assertEquals(sourceId, response.getBody().get(0).getSourceId());
-        assertEquals(eventIds.get(0), response.getBody().get(0).getId());
-        assertEquals(sourceId, response.getBody().get(1).getSourceId());
-        assertEquals(eventIds.get(1), response.getBody().get(1).getId());
+    @Test
+    void chunkedBatchWithRemoteIpTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setCaptureRemoteIP(true);
+        UUID sourceId = source.getId();
+        ArrayNode arrayEvents = getPayload();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        ReflectionTestUtils.setField(controller, "batchChunkSize", 1);
+        setupRequestBody(arrayEvents);
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(
+                invocation -> {
+                    List<InboundWriteEvent> events = invocation.getArgument(0);
+                    chunkSizes.add(events.size());
+                    events.forEach(e -> {
+                        assertEquals("10.0.0.1", e.getPayload().get("cptn").get("remote_ip").asText());
+                        e.setId(UUID.randomUUID());
+                    });
+                    return events;
+                }
+        );
+
+        ResponseEntity<Object> response = controller.processEventBatch(sourceId, null, request, null);
+        assertEquals(2, getEvents(response).size());
+        assertEquals(List.of(1, 1), chunkSizes);
+    }
 
+    @Test
+    void invalidBatchPayloadTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+                new ByteArrayInputStream("{\"foo\":\"bar\"}".getBytes())));
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> controller.processEventBatch(sourceId,
+                null, request, null));
+        assertEquals("Payload must be a JSON array", e.getMessage());
+    }
+
+    @Test
+    void countResponseModeTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setResponseMode(ResponseMode.COUNT);
+        UUID sourceId = source.getId();
+        ArrayNode arrayEvents = getPayload();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        setupEvents(arrayEvents, source);
+        setupRequestBody(arrayEvents);
+
+        ResponseEntity<Object> response = controller.processEventBatch(sourceId, null, request, null);
+        assertEquals(200, response.getStatusCode().value());
+        IngestionSummaryDto summary = (IngestionSummaryDto) response.getBody();
+        assertEquals(sourceId, summary.getSourceId());
+        assertEquals(2, summary.getCount());
         assertEquals(List.of("bar-value"), response.getHeaders().get("x-foo"));
     }
 
-    private List<UUID> setupEvents(ArrayNode arrayEvents, Source source) {
-        List<InboundWriteEvent> inboundEvents = new ArrayList<>();
-        List<UUID> eventIds = new ArrayList<>();
+    @Test
+    void noneResponseModeTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setResponseMode(ResponseMode.COUNT);
+        UUID sourceId = source.getId();
+        ArrayNode arrayEvents = getPayload();
 
-        arrayEvents.forEach(payload -> {
-            InboundWriteEvent event = new InboundWriteEvent();
-            event.setPayload(payload);
-            event.setSource(source);
-            inboundEvents.add(event);
-        });
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        setupEvents(arrayEvents, source);
+        setupRequestBody(arrayEvents);
+
+        //the request overrides the mode of the source
+        ResponseEntity<Object> response = controller.processEventBatch(sourceId, "none", request, null);
+        assertEquals(202, response.getStatusCode().value());
+        assertNull(response.getBody());
+        verify(inboundWriteEventService).createAll(anyList());
+    }
 
-        for (int i = 0; i < inboundEvents.size(); i++) {
-            InboundWriteEvent event = inboundEvents.get(i);
-            UUID eventId = UUID.randomUUID();
-            eventIds.add(eventId);
+    @Test
+    void idsResponseModeTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+        ArrayNode arrayEvents = getPayload();
 
-            when(inboundWriteEventService.create(event)).thenAnswer(
-                    invocation -> {
-                        InboundWriteEvent e = invocation.getArgument(0);
-                        e.setId(eventId);
-                        return e;
-                    }
-            );
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        List<UUID> eventIds = setupEvents(arrayEvents, source);
+        setupRequestBody(arrayEvents);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(controller.processEventBatch(sourceId, "IDS", request, response));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals("bar-value", response.getHeader("x-foo"));
+        assertEquals("[\"" + eventIds.get(0) + "\",\"" + eventIds.get(1) + "\"]",
+                response.getContentAsString());
+    }
+
+    @Test
+    void invalidResponseModeTest() {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> controller.processEventBatch(sourceId,
+                "everything", request, null));
+        assertEquals("Invalid response mode: everything", e.getMessage());
+        verify(inboundWriteEventService, never()).createAll(anyList());
+    }
+
+    @Test
+    void bulkLoadTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        setupRequestBody(getPayload());
+        List<List<InboundWriteEvent>> chunks = mockCopy();
+        ReflectionTestUtils.setField(controller, "bulkChunkSize", 1);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.bulkLoadEvents(sourceId, 0, request, response);
+
+        //every chunk is committed on its own and reported with the offset reached
+        assertEquals(2, chunks.size());
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, JsonHelper.deserializeJson(lines[0]).get("offset").asLong());
+        JsonNode lastProgress = JsonHelper.deserializeJson(lines[1]);
+        assertEquals(sourceId.toString(), lastProgress.get("sourceId").asText());
+        assertEquals(2, lastProgress.get("count").asLong());
+        assertEquals(2, lastProgress.get("offset").asLong());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+        assertEquals("bar-value", response.getHeader("x-foo"));
+    }
+
+    @Test
+    void bulkLoadResumeTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        setupRequestBody(getPayload());
+        List<List<InboundWriteEvent>> chunks = mockCopy();
+        ReflectionTestUtils.setField(controller, "bulkChunkSize", 2);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.bulkLoadEvents(sourceId, 1, request, response);
+
+        //elements before the offset are skipped, also within a chunk
+        assertEquals(1, chunks.size());
+        assertEquals("{\"bar\":\"baz\"}", chunks.get(0).get(0).getSerializedPayload());
+        JsonNode progress = JsonHelper.deserializeJson(response.getContentAsString().trim());
+        assertEquals(1, progress.get("count").asLong());
+        assertEquals(2, progress.get("offset").asLong());
+    }
+
+    @Test
+    void gzipBatchTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+        ArrayNode arrayEvents = getPayload();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getHeader(HttpHeaders.CONTENT_ENCODING)).thenReturn("gzip");
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+                new ByteArrayInputStream(gzip(JsonHelper.getMapper().writeValueAsBytes(arrayEvents)))));
+        List<UUID> eventIds = setupEvents(arrayEvents, source);
+
+        performAssertions(controller.processEventBatch(sourceId, null, request, null), sourceId, eventIds);
+    }
+
+    @Test
+    void messagePackBatchTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+        ArrayNode arrayEvents = getPayload();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getContentType()).thenReturn("application/msgpack");
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(new ByteArrayInputStream(
+                new ObjectMapper(new MessagePackFactory()).writeValueAsBytes(arrayEvents))));
+        List<UUID> eventIds = setupEvents(arrayEvents, source);
+
+        performAssertions(controller.processEventBatch(sourceId, null, request, null), sourceId, eventIds);
+    }
+
+    @Test
+    void quarantinedBatchTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setJsonSchema(JsonHelper.deserializeJson("{\"required\": [\"foo\"]}"));
+        source.setSchemaViolationAction(SchemaViolationAction.QUARANTINE);
+        UUID sourceId = source.getId();
+        setupRequestBody(getPayload());
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        List<QuarantinedEvent> quarantinedEvents = new ArrayList<>();
+        doAnswer(invocation -> quarantinedEvents.addAll(invocation.getArgument(0)))
+                .when(inboundWriteEventService).quarantine(anyList());
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<Object> response = controller.processEventBatch(sourceId, "count", request, null);
+        //quarantined events are counted as accepted
+        assertEquals(2, ((IngestionSummaryDto) response.getBody()).getCount());
+        assertEquals(1, quarantinedEvents.size());
+        assertEquals("{\"bar\":\"baz\"}", quarantinedEvents.get(0).getSerializedPayload());
+    }
+
+    @Test
+    void rejectedBatchTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setJsonSchema(JsonHelper.deserializeJson("{\"required\": [\"foo\"]}"));
+        UUID sourceId = source.getId();
+        setupRequestBody(getPayload());
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> controller.processEventBatch(sourceId,
+                null, request, null));
+        assertEquals("Payload does not match the source schema: $.foo: is missing but it is required",
+                e.getMessage());
+        verify(inboundWriteEventService, never()).createAll(anyList());
+    }
+
+    @Test
+    void sourceDecompressionLimitTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setMaxDecompressedSize(10L);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getHeader(HttpHeaders.CONTENT_ENCODING)).thenReturn("gzip");
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+                new ByteArrayInputStream(gzip(JsonHelper.getMapper().writeValueAsBytes(getPayload())))));
+
+        PayloadTooLargeException e = assertThrows(PayloadTooLargeException.class,
+                () -> controller.processEventBatch(sourceId, null, request, null));
+        assertEquals("Decompressed payload exceeds the limit of 10 bytes", e.getMessage());
+        verify(inboundWriteEventService, never()).createAll(anyList());
+    }
+
+    private byte[] gzip(byte[] value) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(outputStream)) {
+            gzip.write(value);
         }
+        return outputStream.toByteArray();
+    }
+
+    private void performAssertions(ResponseEntity<Object> response, UUID sourceId, List<UUID> eventIds) {
+        assertEquals(200, response.getStatusCodeValue());
+        List<InboundWriteEventDto> events = getEvents(response);
+        assertEquals(2, events.size());
+        assertEquals(sourceId, events.get(0).getSourceId());
+        assertEquals(eventIds.get(0), events.get(0).getId());
+        assertEquals(sourceId, events.get(1).getSourceId());
+        assertEquals(eventIds.get(1), events.get(1).getId());
+
+        assertEquals(List.of("bar-value"), response.getHeaders().get("x-foo"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<InboundWriteEventDto> getEvents(ResponseEntity<Object> response) {
+        return (List<InboundWriteEventDto>) response.getBody();
+    }
+
+    private List<UUID> setupEvents(ArrayNode arrayEvents, Source source) {
+        List<UUID> eventIds = new ArrayList<>();
+        arrayEvents.forEach(payload -> eventIds.add(UUID.randomUUID()));
+
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(
+                invocation -> {
+                    List<InboundWriteEvent> events = invocation.getArgument(0);
+                    for (int i = 0; i < events.size(); i++) {
+                        assertEquals(source, events.get(i).getSource());
+                        assertEquals(arrayEvents.get(i), events.get(i).getPayload());
+                        events.get(i).setId(eventIds.get(i));
+                    }
+                    return events;
+                }
+        );
         return eventIds;
     }
 
+    private List<List<InboundWriteEvent>> mockCopy() {
+        List<List<InboundWriteEvent>> chunks = new ArrayList<>();
+        when(inboundWriteEventService.copyAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            chunks.add(events);
+            return (long) events.size();
+        });
+        return chunks;
+    }
+
+    private void setupRequestBody(ArrayNode arrayEvents) throws IOException {
+        //a fresh stream is handed out on every call as the tests post the same payload more than once
+        byte[] body = JsonHelper.getMapper().writeValueAsBytes(arrayEvents);
+        when(request.getInputStream()).thenAnswer(invocation -> new DelegatingServletInputStream(new ByteArrayInputStream(body)));
+    }
 
     private Source getSource() {
         Header header = new Header();
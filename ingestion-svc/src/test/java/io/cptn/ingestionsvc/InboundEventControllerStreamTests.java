@@ -0,0 +1,173 @@
+package io.cptn.ingestionsvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.exceptions.UnauthorizedException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
+import io.cptn.ingestionsvc.buffer.InboundWriteEventBuffer;
+import io.cptn.ingestionsvc.controllers.InboundWriteEventController;
+import io.cptn.ingestionsvc.mappers.InboundWriteEventMapper;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.services.InboundFileLoader;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import io.cptn.ingestionsvc.services.SourceService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles(profiles = "test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class InboundEventControllerStreamTests {
+
+    private InboundWriteEventController controller;
+    @Mock
+    private SourceService sourceService;
+    @Mock
+    private InboundWriteEventService inboundWriteEventService;
+    @Mock
+    private InboundWriteEventBuffer inboundWriteEventBuffer;
+    @Mock
+    private WriteAheadLog writeAheadLog;
+    @Mock
+    private SourceRateLimiter rateLimiter;
+    @Mock
+    private BacklogMonitor backlogMonitor;
+    @Mock
+    private DuplicateFilter duplicateFilter;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Autowired
+    private InboundWriteEventMapper mapper;
+
+    @BeforeEach
+    void setup() {
+        SourceRuntimeCache sourceRuntimeCache = new SourceRuntimeCache(sourceService);
+        sourceRuntimeCache.init();
+        InboundEventAssembler eventAssembler = new InboundEventAssembler(inboundWriteEventService, duplicateFilter);
+        this.controller = new InboundWriteEventController(sourceRuntimeCache, inboundWriteEventService, mapper,
+                inboundWriteEventBuffer, writeAheadLog, rateLimiter, backlogMonitor, duplicateFilter, eventAssembler,
+                new InboundFileLoader(inboundWriteEventService, eventAssembler, rateLimiter));
+        ReflectionTestUtils.setField(controller, "streamChunkSize", 2);
+        ReflectionTestUtils.setField(controller, "streamFlushInterval", Long.MAX_VALUE);
+    }
+
+    @Test
+    void unauthorizedStreamTest() {
+        Source source = getSource();
+        source.setSecured(true);
+        source.setupNewKeys();
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getHeader("Authorization")).thenReturn("invalid");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThrows(UnauthorizedException.class, () -> controller.streamEvents(sourceId, request, response));
+        verify(inboundWriteEventService, never()).createAll(anyList());
+    }
+
+    @Test
+    void acknowledgePerChunkTest() throws IOException {
+        Source source = getSource();
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        setupRequestBody("{\"a\":1}\n{\"b\":2}\n{\"c\":3}\n");
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            events.forEach(e -> assertEquals(source, e.getSource()));
+            return events;
+        });
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.streamEvents(sourceId, request, response);
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2, JsonHelper.deserializeJson(lines[0]).get("count").asLong());
+        JsonNode lastAck = JsonHelper.deserializeJson(lines[1]);
+        assertEquals(3, lastAck.get("count").asLong());
+        assertEquals(sourceId.toString(), lastAck.get("sourceId").asText());
+        assertEquals("application/x-ndjson", response.getContentType());
+        assertEquals("bar-value", response.getHeader("x-foo"));
+    }
+
+    @Test
+    void malformedLineAfterAckTest() throws IOException {
+        Source source = getSource();
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        setupRequestBody("{\"a\":1}\n{\"b\":2}\n{\"c\"\n");
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setBufferSize(1);
+        controller.streamEvents(sourceId, request, response);
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2, JsonHelper.deserializeJson(lines[0]).get("count").asLong());
+        assertEquals("Failed to deserialize payload", JsonHelper.deserializeJson(lines[1]).get("message").asText());
+    }
+
+    @Test
+    void malformedFirstLineTest() throws IOException {
+        Source source = getSource();
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        setupRequestBody("{\"a\"\n");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThrows(BadRequestException.class, () -> controller.streamEvents(sourceId, request, response));
+    }
+
+    private void setupRequestBody(String body) throws IOException {
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+                new ByteArrayInputStream(body.getBytes())));
+    }
+
+    private Source getSource() {
+        Header header = new Header();
+        header.setKey("x-foo");
+        header.setValue("bar-value");
+
+        Source source = new Source();
+        source.setId(UUID.randomUUID());
+        source.setActive(true);
+        source.setHeaders(List.of(header));
+        source.setSecured(false);
+        return source;
+    }
+}
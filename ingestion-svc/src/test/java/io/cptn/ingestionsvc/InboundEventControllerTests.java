@@ -3,34 +3,60 @@ package io.cptn.ingestionsvc;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.QuarantinedEvent;
+import io.cptn.common.entities.SchemaViolationAction;
 import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
 import io.cptn.common.exceptions.NotFoundException;
+import io.cptn.common.exceptions.ServiceUnavailableException;
 import io.cptn.common.exceptions.UnauthorizedException;
 import io.cptn.common.helpers.JsonHelper;
 import io.cptn.common.pojos.Header;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
+import io.cptn.ingestionsvc.buffer.InboundWriteEventBuffer;
 import io.cptn.ingestionsvc.controllers.InboundWriteEventController;
 import io.cptn.ingestionsvc.dto.InboundWriteEventDto;
 import io.cptn.ingestionsvc.mappers.InboundWriteEventMapper;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.services.InboundFileLoader;
 import io.cptn.ingestionsvc.services.InboundWriteEventService;
 import io.cptn.ingestionsvc.services.SourceService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.DelegatingServletInputStream;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /* @author: kc, created on 5/23/23 */
@@ -44,6 +70,16 @@ class InboundEventControllerTests {
     private SourceService sourceService;
     @Mock
     private InboundWriteEventService inboundWriteEventService;
+    @Mock
+    private InboundWriteEventBuffer inboundWriteEventBuffer;
+    @Mock
+    private WriteAheadLog writeAheadLog;
+    @Mock
+    private SourceRateLimiter rateLimiter;
+    @Mock
+    private BacklogMonitor backlogMonitor;
+    @Mock
+    private DuplicateFilter duplicateFilter;
 
     @Mock
     private HttpServletRequest request;
@@ -53,7 +89,12 @@ class InboundEventControllerTests {
 
     @BeforeEach
     void setup() {
-        this.controller = new InboundWriteEventController(sourceService, inboundWriteEventService, mapper);
+        SourceRuntimeCache sourceRuntimeCache = new SourceRuntimeCache(sourceService);
+        sourceRuntimeCache.init();
+        InboundEventAssembler eventAssembler = new InboundEventAssembler(inboundWriteEventService, duplicateFilter);
+        this.controller = new InboundWriteEventController(sourceRuntimeCache, inboundWriteEventService, mapper,
+                inboundWriteEventBuffer, writeAheadLog, rateLimiter, backlogMonitor, duplicateFilter, eventAssembler,
+                new InboundFileLoader(inboundWriteEventService, eventAssembler, rateLimiter));
     }
 
     @Test
@@ -61,7 +102,7 @@ class InboundEventControllerTests {
 
         UUID sourceId = UUID.randomUUID();
         when(sourceService.getById(sourceId)).thenReturn(Optional.empty());
-        NotFoundException e = assertThrows(NotFoundException.class, () -> controller.createEvent(sourceId, null, null));
+        NotFoundException e = assertThrows(NotFoundException.class, () -> controller.createEvent(sourceId, null));
         assertEquals("Source not found with passed ID", e.getMessage());
     }
 
@@ -71,7 +112,7 @@ class InboundEventControllerTests {
         source.setActive(false);
         UUID sourceId = source.getId();
         when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
-        NotFoundException e = assertThrows(NotFoundException.class, () -> controller.createEvent(sourceId, null, null));
+        NotFoundException e = assertThrows(NotFoundException.class, () -> controller.createEvent(sourceId, null));
         assertEquals("Source not active", e.getMessage());
     }
 
@@ -84,8 +125,7 @@ class InboundEventControllerTests {
         when(request.getHeader("Authorization")).thenReturn("invalid");
         when(request.getParameter("token")).thenReturn(null);
 
-        UnauthorizedException e = assertThrows(UnauthorizedException.class, () -> controller.createEvent(sourceId,
-                null, request));
+        UnauthorizedException e = assertThrows(UnauthorizedException.class, () -> controller.createEvent(sourceId, request));
         assertEquals("Unauthorized", e.getMessage());
     }
 
@@ -98,29 +138,29 @@ class InboundEventControllerTests {
         when(request.getHeader("Authorization")).thenReturn(null);
         when(request.getParameter("token")).thenReturn("invalid");
 
-        UnauthorizedException e = assertThrows(UnauthorizedException.class, () -> controller.createEvent(sourceId,
-                null, request));
+        UnauthorizedException e = assertThrows(UnauthorizedException.class, () -> controller.createEvent(sourceId, request));
         assertEquals("Unauthorized", e.getMessage());
     }
 
     @Test
-    void verifyDisabledSecurityTest() {
+    void verifyDisabledSecurityTest() throws IOException {
         Source source = getSource();
         source.setSecured(false);
         UUID sourceId = source.getId();
         JsonNode payload = getPayload();
 
         when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockBody(payload);
 
         UUID eventId = setupEvent(payload, source);
 
-        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, payload, request);
+        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, request);
 
         performAssertions(response, sourceId, eventId);
     }
 
     @Test
-    void verifyValidSecurityAuthPKAndSKTest() {
+    void verifyValidSecurityAuthPKAndSKTest() throws IOException {
         Source source = getSource();
         source.setSecured(true);
         source.setupNewKeys();
@@ -130,23 +170,24 @@ class InboundEventControllerTests {
 
         when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
         when(request.getHeader("Authorization")).thenReturn(source.getPrimaryKey());
+        mockBody(payload);
 
         UUID eventId = setupEvent(payload, source);
 
         //try with primary key
-        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, payload, request);
+        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, request);
 
         performAssertions(response, sourceId, eventId);
 
         //try with secondary key
         when(request.getHeader("Authorization")).thenReturn(source.getSecondaryKey());
-        response = controller.createEvent(sourceId, payload, request);
+        response = controller.createEvent(sourceId, request);
 
         performAssertions(response, sourceId, eventId);
     }
 
     @Test
-    void verifyValidSecurityTokenPKAndSKTest() {
+    void verifyValidSecurityTokenPKAndSKTest() throws IOException {
         Source source = getSource();
         source.setSecured(true);
         source.setupNewKeys();
@@ -157,21 +198,321 @@ class InboundEventControllerTests {
         when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
         when(request.getHeader("Authorization")).thenReturn(null);
         when(request.getParameter("token")).thenReturn(source.getPrimaryKey());
+        mockBody(payload);
 
         UUID eventId = setupEvent(payload, source);
 
         //try with primary key
-        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, payload, request);
+        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, request);
 
         performAssertions(response, sourceId, eventId);
 
         //try with secondary key
         when(request.getParameter("token")).thenReturn(source.getSecondaryKey());
-        response = controller.createEvent(sourceId, payload, request);
+        response = controller.createEvent(sourceId, request);
 
         performAssertions(response, sourceId, eventId);
     }
 
+    @Test
+    void bufferedAckOnAcceptTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+        JsonNode payload = getPayload();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockBody(payload);
+        when(inboundWriteEventBuffer.isEnabled()).thenReturn(true);
+        when(inboundWriteEventBuffer.getAckMode()).thenReturn(InboundWriteEventBuffer.AckMode.ACCEPT);
+
+        UUID eventId = UUID.randomUUID();
+        when(inboundWriteEventBuffer.submit(any(InboundWriteEvent.class))).thenAnswer(invocation -> {
+            InboundWriteEvent e = invocation.getArgument(0);
+            e.setId(eventId);
+            return e;
+        });
+
+        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, request);
+        assertEquals(202, response.getStatusCode().value());
+        assertEquals(eventId, response.getBody().getId());
+        verify(inboundWriteEventService, never()).create(any());
+    }
+
+    @Test
+    void writeAheadLogAcceptTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+        JsonNode payload = getPayload();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockBody(payload);
+        when(writeAheadLog.isEnabled()).thenReturn(true);
+
+        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, request);
+        assertEquals(202, response.getStatusCode().value());
+        assertEquals(sourceId, response.getBody().getSourceId());
+        verify(writeAheadLog).append(any(InboundWriteEvent.class));
+        verify(inboundWriteEventService, never()).create(any());
+        verify(inboundWriteEventBuffer, never()).submit(any());
+    }
+
+    @Test
+    void duplicateEventTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setDedupWindow(60);
+        source.setIdempotencyKeyPointer("/foo");
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockBody(getPayload());
+        when(duplicateFilter.isEnabled(source)).thenReturn(true);
+        when(duplicateFilter.getKey(eq(source), any(JsonNode.class))).thenReturn("order-1");
+        when(duplicateFilter.isDuplicate(source, "order-1")).thenReturn(true);
+
+        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, request);
+        assertEquals(202, response.getStatusCode().value());
+        assertNull(response.getBody());
+        verify(inboundWriteEventService, never()).create(any());
+    }
+
+    @Test
+    void duplicateKeyReleasedOnFailureTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setDedupWindow(60);
+        source.setIdempotencyKeyPointer("/foo");
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockBody(getPayload());
+        when(duplicateFilter.isEnabled(source)).thenReturn(true);
+        when(duplicateFilter.getKey(eq(source), any(JsonNode.class))).thenReturn("order-1");
+        when(inboundWriteEventService.create(any())).thenThrow(new ServiceUnavailableException("db down", 1));
+
+        assertThrows(ServiceUnavailableException.class, () -> controller.createEvent(sourceId, request));
+        //the retry is stored instead of being dropped as a duplicate
+        verify(duplicateFilter).release(source, List.of("order-1"));
+        verify(duplicateFilter, never()).record(any(), any());
+    }
+
+    @Test
+    void rawPayloadWithRemoteIpTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setCaptureRemoteIP(true);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        String body = "{ \"foo\" : \"bar\", \"nested\": {\"cptn\": 1} }";
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+        when(inboundWriteEventService.create(any(InboundWriteEvent.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        controller.createEvent(sourceId, request);
+
+        ArgumentCaptor<InboundWriteEvent> captor = ArgumentCaptor.forClass(InboundWriteEvent.class);
+        verify(inboundWriteEventService).create(captor.capture());
+        //original formatting is kept and the field is added at the top level only
+        assertEquals("{ \"foo\" : \"bar\", \"nested\": {\"cptn\": 1} ,\"cptn\":{\"remote_ip\":\"10.0.0.1\"}}",
+                captor.getValue().getSerializedPayload());
+    }
+
+    @Test
+    void cborPayloadWithRemoteIpTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setCaptureRemoteIP(true);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getContentType()).thenReturn("application/cbor");
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+                new ByteArrayInputStream(new ObjectMapper(new CBORFactory()).writeValueAsBytes(getPayload()))));
+        when(inboundWriteEventService.create(any(InboundWriteEvent.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        controller.createEvent(sourceId, request);
+
+        ArgumentCaptor<InboundWriteEvent> captor = ArgumentCaptor.forClass(InboundWriteEvent.class);
+        verify(inboundWriteEventService).create(captor.capture());
+        //binary payloads are stored as JSON
+        assertEquals("{\"foo\":\"bar\",\"cptn\":{\"remote_ip\":\"10.0.0.1\"}}",
+                captor.getValue().getSerializedPayload());
+    }
+
+    @Test
+    void invalidRawPayloadTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+                new ByteArrayInputStream("{\"foo\": ".getBytes(StandardCharsets.UTF_8))));
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> controller.createEvent(sourceId, request));
+        assertEquals("Failed to deserialize payload", e.getMessage());
+        verify(inboundWriteEventService, never()).create(any());
+    }
+
+    @Test
+    void schemaViolationRejectTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setJsonSchema(getSchema());
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockBody(getPayload());
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> controller.createEvent(sourceId, request));
+        assertEquals("Payload does not match the source schema: $.foo: string found, integer expected",
+                e.getMessage());
+        verify(inboundWriteEventService, never()).create(any());
+        verify(inboundWriteEventService, never()).quarantine(anyList());
+    }
+
+    @Test
+    void schemaViolationQuarantineTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setJsonSchema(getSchema());
+        source.setSchemaViolationAction(SchemaViolationAction.QUARANTINE);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockBody(getPayload());
+
+        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, request);
+        assertEquals(202, response.getStatusCode().value());
+        assertNull(response.getBody());
+        verify(inboundWriteEventService, never()).create(any());
+
+        ArgumentCaptor<List<QuarantinedEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(inboundWriteEventService).quarantine(captor.capture());
+        QuarantinedEvent quarantinedEvent = captor.getValue().get(0);
+        assertEquals("{\"foo\":\"bar\"}", quarantinedEvent.getSerializedPayload());
+        assertEquals("$.foo: string found, integer expected", quarantinedEvent.getErrors());
+    }
+
+    @Test
+    void schemaMatchTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        source.setJsonSchema(JsonHelper.deserializeJson("{\"properties\": {\"foo\": {\"type\": \"string\"}}}"));
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockBody(getPayload());
+        when(inboundWriteEventService.create(any(InboundWriteEvent.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<InboundWriteEventDto> response = controller.createEvent(sourceId, request);
+        assertEquals(200, response.getStatusCode().value());
+        verify(inboundWriteEventService, never()).quarantine(anyList());
+    }
+
+    @Test
+    void beaconTokenTest() throws IOException {
+        Source source = getSource();
+        source.setupNewKeys();
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getHeader("Authorization")).thenReturn(null);
+        when(request.getParameter("token")).thenReturn(source.getPrimaryKey());
+        mockBody(getPayload());
+
+        ResponseEntity<Void> response = controller.createBeaconEvent(sourceId, request);
+        assertEquals(204, response.getStatusCode().value());
+        assertEquals(List.of("bar-value"), response.getHeaders().get("x-foo"));
+
+        ArgumentCaptor<InboundWriteEvent> captor = ArgumentCaptor.forClass(InboundWriteEvent.class);
+        verify(inboundWriteEventService).create(captor.capture());
+        assertEquals(getPayload(), captor.getValue().getPayload());
+    }
+
+    @Test
+    void beaconNonObjectPayloadTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+                new ByteArrayInputStream("[1, 2]".getBytes(StandardCharsets.UTF_8))));
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> controller.createBeaconEvent(sourceId, request));
+        assertEquals("Payload must be a JSON object", e.getMessage());
+        verify(inboundWriteEventService, never()).create(any());
+    }
+
+    @Test
+    void pixelQueryParametersTest() throws IOException {
+        Source source = getSource();
+        source.setupNewKeys();
+        source.setCaptureRemoteIP(true);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getHeader("Authorization")).thenReturn(null);
+        when(request.getParameter("token")).thenReturn(source.getPrimaryKey());
+        when(request.getParameter("data")).thenReturn(null);
+        when(request.getQueryString()).thenReturn("foo=bar&token=" + source.getPrimaryKey());
+        when(request.getParameterMap()).thenReturn(Map.of("foo", new String[]{"bar"},
+                "token", new String[]{source.getPrimaryKey()}));
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(writeAheadLog.isEnabled()).thenReturn(true);
+
+        ResponseEntity<byte[]> response = controller.createPixelEvent(sourceId, request);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(MediaType.IMAGE_GIF, response.getHeaders().getContentType());
+        assertEquals("no-store", response.getHeaders().getCacheControl());
+        assertEquals("GIF89a", new String(response.getBody(), 0, 6, StandardCharsets.US_ASCII));
+
+        ArgumentCaptor<InboundWriteEvent> captor = ArgumentCaptor.forClass(InboundWriteEvent.class);
+        verify(writeAheadLog).append(captor.capture());
+        //the token is not part of the event
+        assertEquals("{\"foo\":\"bar\",\"cptn\":{\"remote_ip\":\"10.0.0.1\"}}",
+                JsonHelper.serializeJson(captor.getValue().getPayload()));
+        verify(inboundWriteEventService, never()).create(any());
+    }
+
+    @Test
+    void pixelDataParameterTest() throws IOException {
+        Source source = getSource();
+        source.setSecured(false);
+        UUID sourceId = source.getId();
+
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        when(request.getParameter("data")).thenReturn("{\"foo\":\"bar\"}");
+        when(inboundWriteEventBuffer.isEnabled()).thenReturn(true);
+
+        ResponseEntity<byte[]> response = controller.createPixelEvent(sourceId, request);
+        assertEquals(200, response.getStatusCode().value());
+
+        ArgumentCaptor<InboundWriteEvent> captor = ArgumentCaptor.forClass(InboundWriteEvent.class);
+        verify(inboundWriteEventBuffer).submit(captor.capture());
+        assertEquals(getPayload(), captor.getValue().getPayload());
+    }
+
+    private JsonNode getSchema() {
+        return JsonHelper.deserializeJson("{\"properties\": {\"foo\": {\"type\": \"integer\"}}}");
+    }
+
+    private void mockBody(JsonNode payload) throws IOException {
+        byte[] body = JsonHelper.getMapper().writeValueAsBytes(payload);
+        when(request.getInputStream()).thenAnswer(
+                invocation -> new DelegatingServletInputStream(new ByteArrayInputStream(body)));
+    }
+
     private void performAssertions(ResponseEntity<InboundWriteEventDto> response, UUID sourceId, UUID eventId) {
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(sourceId, response.getBody().getSourceId());
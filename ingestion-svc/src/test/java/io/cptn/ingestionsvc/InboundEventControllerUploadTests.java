@@ -0,0 +1,222 @@
+package io.cptn.ingestionsvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.SchemaViolationAction;
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.buffer.InboundWriteEventBuffer;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.controllers.InboundWriteEventController;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
+import io.cptn.ingestionsvc.mappers.InboundWriteEventMapper;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.services.InboundFileLoader;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import io.cptn.ingestionsvc.services.SourceService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles(profiles = "test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class InboundEventControllerUploadTests {
+
+    private InboundWriteEventController controller;
+    @Mock
+    private SourceService sourceService;
+    @Mock
+    private InboundWriteEventService inboundWriteEventService;
+    @Mock
+    private InboundWriteEventBuffer inboundWriteEventBuffer;
+    @Mock
+    private WriteAheadLog writeAheadLog;
+    @Mock
+    private SourceRateLimiter rateLimiter;
+    @Mock
+    private BacklogMonitor backlogMonitor;
+    @Mock
+    private DuplicateFilter duplicateFilter;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Autowired
+    private InboundWriteEventMapper mapper;
+
+    private final List<List<InboundWriteEvent>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        SourceRuntimeCache sourceRuntimeCache = new SourceRuntimeCache(sourceService);
+        sourceRuntimeCache.init();
+        InboundEventAssembler eventAssembler = new InboundEventAssembler(inboundWriteEventService, duplicateFilter);
+        InboundFileLoader fileLoader = new InboundFileLoader(inboundWriteEventService, eventAssembler, rateLimiter);
+        ReflectionTestUtils.setField(fileLoader, "chunkSize", 2);
+        this.controller = new InboundWriteEventController(sourceRuntimeCache, inboundWriteEventService, mapper,
+                inboundWriteEventBuffer, writeAheadLog, rateLimiter, backlogMonitor, duplicateFilter, eventAssembler,
+                fileLoader);
+    }
+
+    @Test
+    void csvUploadWithColumnMappingTest() throws IOException {
+        Source source = getSource();
+        source.setColumnMapping(JsonHelper.deserializeJson(
+                "{\"id\": \"/order/id\", \"amount\": {\"pointer\": \"/amount\", \"type\": \"number\"}}"));
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockCopy();
+
+        MockMultipartFile file = new MockMultipartFile("file", "orders.csv", "application/octet-stream",
+                "id,amount,note\nA-1,2.5,x\nA-2,3,y\nA-3,4,z\n".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.uploadEvents(sourceId, file, null, 0, request, response);
+
+        assertEquals(List.of(2, 1), chunks.stream().map(List::size).toList());
+        assertEquals("{\"order\":{\"id\":\"A-1\"},\"amount\":2.5}", chunks.get(0).get(0).getSerializedPayload());
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2, JsonHelper.deserializeJson(lines[0]).get("offset").asLong());
+        JsonNode lastProgress = JsonHelper.deserializeJson(lines[1]);
+        assertEquals(3, lastProgress.get("count").asLong());
+        assertEquals(3, lastProgress.get("offset").asLong());
+        assertEquals("application/x-ndjson", response.getContentType());
+        assertEquals("bar-value", response.getHeader("x-foo"));
+        //the upload is admitted once before the file is read, chunks are only charged
+        verify(rateLimiter).acquire(source, 0, 0);
+    }
+
+    @Test
+    void resumeFromOffsetTest() throws IOException {
+        Source source = getSource();
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockCopy();
+
+        MockMultipartFile file = new MockMultipartFile("file", "events", "application/x-ndjson",
+                "{\"a\":1}\n{\"b\":2}\n{\"c\":3}\n".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.uploadEvents(sourceId, file, null, 2, request, response);
+
+        assertEquals(1, chunks.size());
+        assertEquals("{\"c\":3}", chunks.get(0).get(0).getSerializedPayload());
+        JsonNode progress = JsonHelper.deserializeJson(response.getContentAsString().trim());
+        assertEquals(1, progress.get("count").asLong());
+        assertEquals(3, progress.get("offset").asLong());
+    }
+
+    @Test
+    void quarantinedRowsNotCountedTest() throws IOException {
+        Source source = getSource();
+        source.setJsonSchema(JsonHelper.deserializeJson("{\"required\": [\"a\"]}"));
+        source.setSchemaViolationAction(SchemaViolationAction.QUARANTINE);
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockCopy();
+
+        MockMultipartFile file = new MockMultipartFile("file", "events.ndjson", "application/octet-stream",
+                "{\"a\":1}\n{\"b\":2}\n{\"a\":3}\n".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.uploadEvents(sourceId, file, null, 0, request, response);
+
+        //the count is of rows written, the offset of rows read
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(1, JsonHelper.deserializeJson(lines[0]).get("count").asLong());
+        assertEquals(2, JsonHelper.deserializeJson(lines[0]).get("offset").asLong());
+        JsonNode lastProgress = JsonHelper.deserializeJson(lines[1]);
+        assertEquals(2, lastProgress.get("count").asLong());
+        assertEquals(3, lastProgress.get("offset").asLong());
+        verify(inboundWriteEventService).quarantine(anyList());
+    }
+
+    @Test
+    void invalidRowAfterProgressTest() throws IOException {
+        Source source = getSource();
+        source.setColumnMapping(JsonHelper.deserializeJson(
+                "{\"amount\": {\"pointer\": \"/amount\", \"type\": \"integer\"}}"));
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+        mockCopy();
+
+        MockMultipartFile file = new MockMultipartFile("file", "orders.csv", "text/csv",
+                "amount\n1\n2\nthree\n".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setBufferSize(1);
+        controller.uploadEvents(sourceId, file, null, 0, request, response);
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        //the first chunk stays written and the upload is resumed from its offset
+        assertEquals(2, JsonHelper.deserializeJson(lines[0]).get("offset").asLong());
+        assertEquals("Invalid integer in column amount at row 3",
+                JsonHelper.deserializeJson(lines[1]).get("message").asText());
+        assertEquals(1, chunks.size());
+    }
+
+    @Test
+    void unknownFormatTest() {
+        Source source = getSource();
+        UUID sourceId = source.getId();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.of(source));
+
+        MockMultipartFile file = new MockMultipartFile("file", "orders.xlsx", "application/octet-stream",
+                new byte[0]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> controller.uploadEvents(sourceId, file, null, 0, request, response));
+        assertEquals("Unknown file format, pass format=csv or format=ndjson", e.getMessage());
+        verify(inboundWriteEventService, never()).copyAll(anyList());
+    }
+
+    private void mockCopy() {
+        when(inboundWriteEventService.copyAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            chunks.add(events);
+            return (long) events.size();
+        });
+    }
+
+    private Source getSource() {
+        Header header = new Header();
+        header.setKey("x-foo");
+        header.setValue("bar-value");
+
+        Source source = new Source();
+        source.setId(UUID.randomUUID());
+        source.setActive(true);
+        source.setHeaders(List.of(header));
+        source.setSecured(false);
+        return source;
+    }
+}
@@ -0,0 +1,177 @@
+package io.cptn.ingestionsvc;
+
+import io.cptn.common.entities.Source;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.buffer.InboundWriteEventBuffer;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
+import io.cptn.ingestionsvc.websocket.InboundEventWebSocketHandler;
+import io.cptn.ingestionsvc.websocket.SourceHandshakeInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+class InboundEventWebSocketTests {
+
+    private final SourceRuntimeCache sourceRuntimeCache = mock(SourceRuntimeCache.class);
+
+    private final InboundWriteEventService inboundWriteEventService = mock(InboundWriteEventService.class);
+
+    private final InboundWriteEventBuffer inboundWriteEventBuffer = mock(InboundWriteEventBuffer.class);
+
+    private final WebSocketSession session = mock(WebSocketSession.class);
+
+    private final SourceHandshakeInterceptor handshakeInterceptor = new SourceHandshakeInterceptor(sourceRuntimeCache,
+            mock(BacklogMonitor.class));
+
+    private InboundEventWebSocketHandler handler;
+
+    private Source source;
+
+    @BeforeEach
+    void setup() {
+        handler = new InboundEventWebSocketHandler(sourceRuntimeCache,
+                new InboundEventAssembler(inboundWriteEventService, mock(DuplicateFilter.class)),
+                inboundWriteEventBuffer, mock(WriteAheadLog.class), mock(SourceRateLimiter.class),
+                mock(BacklogMonitor.class));
+        ReflectionTestUtils.setField(handler, "sendTimeLimit", 1000);
+        ReflectionTestUtils.setField(handler, "sendBufferSize", 1024);
+        handler.init();
+
+        source = new Source();
+        source.setId(UUID.randomUUID());
+        source.setActive(true);
+        source.setupNewKeys();
+        when(sourceRuntimeCache.get(source.getId())).thenReturn(Optional.of(SourceRuntime.of(source)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown();
+    }
+
+    @Test
+    void handshakeWithTokenTest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/event/source/" + source.getId() + "/ws");
+        request.setParameter("token", source.getPrimaryKey());
+        Map<String, Object> attributes = new HashMap<>();
+
+        assertTrue(handshakeInterceptor.beforeHandshake(new ServletServerHttpRequest(request),
+                new ServletServerHttpResponse(new MockHttpServletResponse()), handler, attributes));
+        assertEquals(source.getId(), attributes.get("cptn.sourceId"));
+        assertEquals(source.getPrimaryKey(), attributes.get("cptn.token"));
+    }
+
+    @Test
+    void unauthorizedHandshakeTest() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/event/source/" + source.getId() + "/ws");
+        request.setParameter("token", "invalid");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+
+        assertFalse(handshakeInterceptor.beforeHandshake(new ServletServerHttpRequest(request), serverResponse,
+                handler, new HashMap<>()));
+        serverResponse.flush();
+        assertEquals(401, response.getStatus());
+    }
+
+    @Test
+    void frameAckTest() throws Exception {
+        when(inboundWriteEventBuffer.submitAll(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+        connect();
+
+        handler.handleMessage(session, new TextMessage("[{\"foo\": \"bar\"}, {\"foo\": \"baz\"}]"));
+        handler.handleMessage(session, new TextMessage("{\"foo\": \"bar\"}"));
+
+        verify(session, timeout(5000)).sendMessage(new TextMessage("{\"seq\":1,\"count\":2}"));
+        verify(session, timeout(5000)).sendMessage(new TextMessage("{\"seq\":2,\"count\":1}"));
+    }
+
+    @Test
+    void invalidFrameTest() throws Exception {
+        connect();
+
+        handler.handleMessage(session, new TextMessage("{\"foo\": "));
+
+        verify(session).sendMessage(new TextMessage("{\"seq\":1,\"error\":\"Failed to deserialize payload\"}"));
+        verify(inboundWriteEventBuffer, never()).submitAll(anyList());
+    }
+
+    @Test
+    void failedWriteTest() throws Exception {
+        when(inboundWriteEventBuffer.submitAll(anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("db down")));
+        connect();
+
+        handler.handleMessage(session, new TextMessage("{\"foo\": \"bar\"}"));
+
+        //internal errors are not passed on to clients
+        verify(session, timeout(5000))
+                .sendMessage(new TextMessage("{\"seq\":1,\"error\":\"Failed to store events\"}"));
+    }
+
+    @Test
+    void inactiveSourceTest() throws Exception {
+        connect();
+        source.setActive(false);
+
+        handler.handleMessage(session, new TextMessage("{\"foo\": \"bar\"}"));
+
+        verify(session).close(CloseStatus.POLICY_VIOLATION.withReason("Source not active"));
+        verify(inboundWriteEventBuffer, never()).submitAll(anyList());
+    }
+
+    @Test
+    void rotatedKeyTest() throws Exception {
+        connect();
+        //both keys are replaced, so the key of the connection is no longer accepted
+        source.setupNewKeys();
+
+        handler.handleMessage(session, new TextMessage("{\"foo\": \"bar\"}"));
+
+        verify(session).close(CloseStatus.POLICY_VIOLATION.withReason("Unauthorized"));
+        verify(inboundWriteEventBuffer, never()).submitAll(anyList());
+    }
+
+    private void connect() throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("cptn.sourceId", source.getId());
+        attributes.put("cptn.token", source.getPrimaryKey());
+        attributes.put("cptn.remoteAddr", "10.0.0.1");
+        when(session.getId()).thenReturn("session-1");
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+    }
+}
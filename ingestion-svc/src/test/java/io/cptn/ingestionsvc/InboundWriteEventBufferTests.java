@@ -0,0 +1,224 @@
+package io.cptn.ingestionsvc;
+
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.QuarantinedEvent;
+import io.cptn.common.exceptions.ServiceUnavailableException;
+import io.cptn.common.exceptions.WebApplicationException;
+import io.cptn.ingestionsvc.buffer.InboundWriteEventBuffer;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/* @author: kc, created on 10/18/26 */
+class InboundWriteEventBufferTests {
+
+    private final InboundWriteEventService inboundWriteEventService = mock(InboundWriteEventService.class);
+
+    private final WriteAheadLog writeAheadLog = mock(WriteAheadLog.class);
+
+    private InboundWriteEventBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    void ackAfterFlushTest() {
+        List<Integer> flushedBatches = new CopyOnWriteArrayList<>();
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            flushedBatches.add(events.size());
+            return events;
+        });
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.FLUSH, 10);
+
+        InboundWriteEvent event = buffer.submit(new InboundWriteEvent());
+        assertNotNull(event.getId());
+        assertEquals(List.of(1), flushedBatches);
+    }
+
+    @Test
+    void flushFailureTest() {
+        when(inboundWriteEventService.createAll(anyList())).thenThrow(new WebApplicationException("db down"));
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.FLUSH, 10);
+
+        WebApplicationException e = assertThrows(WebApplicationException.class,
+                () -> buffer.submit(new InboundWriteEvent()));
+        assertEquals("db down", e.getMessage());
+    }
+
+    @Test
+    void bufferFullTest() throws InterruptedException {
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> {
+            flushStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.ACCEPT, 1);
+
+        //first event is picked up by the flusher which then blocks, the second one fills the buffer
+        buffer.submit(new InboundWriteEvent());
+        assertTrue(flushStarted.await(5, TimeUnit.SECONDS));
+        buffer.submit(new InboundWriteEvent());
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> buffer.submit(new InboundWriteEvent()));
+        assertEquals("Ingestion buffer is full", e.getMessage());
+        release.countDown();
+    }
+
+    @Test
+    void drainOnStopTest() {
+        List<InboundWriteEvent> written = new CopyOnWriteArrayList<>();
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            written.addAll(events);
+            return events;
+        });
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.ACCEPT, 100);
+
+        for (int i = 0; i < 20; i++) {
+            buffer.submit(new InboundWriteEvent());
+        }
+        buffer.stop();
+
+        assertEquals(20, written.size());
+        assertThrows(ServiceUnavailableException.class, () -> buffer.submit(new InboundWriteEvent()));
+    }
+
+    @Test
+    void submitAllTest() throws Exception {
+        List<Integer> flushedBatches = new CopyOnWriteArrayList<>();
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            flushedBatches.add(events.size());
+            return events;
+        });
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.FLUSH, 100);
+
+        List<InboundWriteEvent> events = List.of(new InboundWriteEvent(), new InboundWriteEvent(),
+                new InboundWriteEvent());
+        CompletableFuture<Void> first = buffer.submitAll(events);
+        CompletableFuture<Void> second = buffer.submitAll(List.of(new InboundWriteEvent(), new InboundWriteEvent()));
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        //batches from different submitters share the group commits
+        assertEquals(5, flushedBatches.stream().mapToInt(Integer::intValue).sum());
+        assertNotNull(events.get(0).getId());
+    }
+
+    @Test
+    void submitAllOverCapacityTest() {
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.FLUSH, 2);
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class, () -> buffer.submitAll(
+                List.of(new InboundWriteEvent(), new InboundWriteEvent(), new InboundWriteEvent())));
+        assertEquals("Ingestion buffer is full", e.getMessage());
+    }
+
+    @Test
+    void retryWithBackoffTest() {
+        when(inboundWriteEventService.createAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.FLUSH, 10);
+        ReflectionTestUtils.setField(buffer, "maxRetries", 2);
+
+        InboundWriteEvent event = new InboundWriteEvent();
+        assertSame(event, buffer.submit(event));
+        verify(inboundWriteEventService, times(3)).createAll(anyList());
+    }
+
+    @Test
+    void acceptedEventsSpilledTest() {
+        when(inboundWriteEventService.createAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+        when(writeAheadLog.isEnabled()).thenReturn(true);
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.ACCEPT, 10);
+
+        InboundWriteEvent event = new InboundWriteEvent();
+        buffer.submit(event);
+
+        verify(writeAheadLog, timeout(5000)).append(event);
+    }
+
+    @Test
+    void acceptedEventsHeldTest() {
+        List<InboundWriteEvent> written = new CopyOnWriteArrayList<>();
+        when(inboundWriteEventService.createAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenAnswer(invocation -> {
+                    written.addAll(invocation.getArgument(0));
+                    return invocation.getArgument(0);
+                });
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.ACCEPT, 10);
+
+        InboundWriteEvent event = new InboundWriteEvent();
+        buffer.submit(event);
+        buffer.stop();
+
+        assertEquals(List.of(event), written);
+    }
+
+    @Test
+    void permanentFailureIsolatedTest() {
+        InboundWriteEvent bad = new InboundWriteEvent();
+        List<InboundWriteEvent> written = new CopyOnWriteArrayList<>();
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event == bad)) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            written.addAll(events);
+            return events;
+        });
+        buffer = createBuffer(InboundWriteEventBuffer.AckMode.ACCEPT, 10);
+        ReflectionTestUtils.setField(buffer, "maxRetries", 3);
+
+        List<InboundWriteEvent> events = List.of(new InboundWriteEvent(), bad, new InboundWriteEvent(),
+                new InboundWriteEvent());
+        events.forEach(buffer::submit);
+        buffer.stop();
+
+        //the bad event is quarantined without retries and the events around it are written
+        assertEquals(3, written.size());
+        assertTrue(written.stream().noneMatch(event -> event == bad));
+        verify(inboundWriteEventService).quarantine(argThat((List<QuarantinedEvent> quarantined) ->
+                quarantined.size() == 1 && quarantined.get(0).getErrors().contains("value too long")));
+    }
+
+    private InboundWriteEventBuffer createBuffer(InboundWriteEventBuffer.AckMode ackMode, int capacity) {
+        InboundWriteEventBuffer eventBuffer = new InboundWriteEventBuffer(inboundWriteEventService, writeAheadLog);
+        ReflectionTestUtils.setField(eventBuffer, "enabled", true);
+        ReflectionTestUtils.setField(eventBuffer, "ackMode", ackMode);
+        ReflectionTestUtils.setField(eventBuffer, "capacity", capacity);
+        ReflectionTestUtils.setField(eventBuffer, "flushSize", 5);
+        ReflectionTestUtils.setField(eventBuffer, "flushInterval", 10L);
+        ReflectionTestUtils.setField(eventBuffer, "ackTimeout", 5000L);
+        ReflectionTestUtils.setField(eventBuffer, "maxRetries", 0);
+        ReflectionTestUtils.setField(eventBuffer, "retryBackoff", 1L);
+        ReflectionTestUtils.setField(eventBuffer, "maxRetryBackoff", 10L);
+        ReflectionTestUtils.setField(eventBuffer, "shutdownTimeout", 5000L);
+        eventBuffer.start();
+        return eventBuffer;
+    }
+}
@@ -0,0 +1,171 @@
+package io.cptn.ingestionsvc;
+
+import com.google.protobuf.ByteString;
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.Source;
+import io.cptn.ingestionsvc.backlog.BacklogMonitor;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.dedup.DuplicateFilter;
+import io.cptn.ingestionsvc.grpc.IngestionGrpcService;
+import io.cptn.ingestionsvc.grpc.SourceAuthInterceptor;
+import io.cptn.ingestionsvc.grpc.v1.Ack;
+import io.cptn.ingestionsvc.grpc.v1.Event;
+import io.cptn.ingestionsvc.grpc.v1.IngestionGrpc;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.cptn.ingestionsvc.services.InboundEventAssembler;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+class IngestionGrpcServiceTests {
+
+    private static final Metadata.Key<String> SOURCE_ID_KEY = Metadata.Key.of("cptn-source-id",
+            Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final Metadata.Key<String> AUTHORIZATION_KEY = Metadata.Key.of("authorization",
+            Metadata.ASCII_STRING_MARSHALLER);
+
+    private final SourceRuntimeCache sourceRuntimeCache = mock(SourceRuntimeCache.class);
+
+    private final InboundWriteEventService inboundWriteEventService = mock(InboundWriteEventService.class);
+
+    private Server server;
+
+    private ManagedChannel channel;
+
+    private Source source;
+
+    @BeforeEach
+    void setup() throws IOException {
+        SourceRateLimiter rateLimiter = mock(SourceRateLimiter.class);
+        IngestionGrpcService service = new IngestionGrpcService(inboundWriteEventService,
+                new InboundEventAssembler(inboundWriteEventService, mock(DuplicateFilter.class)), rateLimiter);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        SourceAuthInterceptor interceptor = new SourceAuthInterceptor(sourceRuntimeCache, mock(BacklogMonitor.class),
+                rateLimiter);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(service, interceptor))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+
+        source = new Source();
+        source.setId(UUID.randomUUID());
+        source.setActive(true);
+        source.setupNewKeys();
+        when(sourceRuntimeCache.get(source.getId())).thenReturn(Optional.of(SourceRuntime.of(source)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void ingestEventsTest() throws Exception {
+        List<Integer> chunkSizes = new CopyOnWriteArrayList<>();
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            chunkSizes.add(events.size());
+            return events;
+        });
+
+        Ack ack = send(source.getPrimaryKey(), "{\"a\":1}", "{\"b\":2}", "{\"c\":3}");
+
+        assertEquals(3, ack.getCount());
+        assertEquals(List.of(2, 1), chunkSizes);
+    }
+
+    @Test
+    void unauthenticatedTest() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> send("invalid", "{\"a\":1}"));
+
+        StatusRuntimeException cause = assertInstanceOf(StatusRuntimeException.class, e.getCause());
+        assertEquals(Status.Code.UNAUTHENTICATED, cause.getStatus().getCode());
+        verify(inboundWriteEventService, never()).createAll(anyList());
+    }
+
+    @Test
+    void invalidEventTest() {
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> send(source.getPrimaryKey(), "{\"a\":1}", "{\"b\":2}", "{\"c\":"));
+
+        StatusRuntimeException cause = assertInstanceOf(StatusRuntimeException.class, e.getCause());
+        assertEquals(Status.Code.INVALID_ARGUMENT, cause.getStatus().getCode());
+        assertEquals("Failed to deserialize payload", cause.getStatus().getDescription());
+        //the first chunk was written before the failure
+        assertEquals("2", cause.getTrailers().get(Metadata.Key.of("cptn-accepted-count",
+                Metadata.ASCII_STRING_MARSHALLER)));
+    }
+
+    private Ack send(String key, String... payloads) throws Exception {
+        Metadata metadata = new Metadata();
+        metadata.put(SOURCE_ID_KEY, source.getId().toString());
+        metadata.put(AUTHORIZATION_KEY, key);
+        IngestionGrpc.IngestionStub stub = IngestionGrpc.newStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(metadata));
+
+        CompletableFuture<Ack> result = new CompletableFuture<>();
+        StreamObserver<Event> requestObserver = stub.ingestEvents(new StreamObserver<>() {
+            @Override
+            public void onNext(Ack ack) {
+                result.complete(ack);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                //the ack was already received
+            }
+        });
+        for (String payload : payloads) {
+            requestObserver.onNext(Event.newBuilder()
+                    .setPayload(ByteString.copyFrom(payload, StandardCharsets.UTF_8)).build());
+        }
+        requestObserver.onCompleted();
+        return result.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,88 @@
+package io.cptn.ingestionsvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.ingestionsvc.helpers.PayloadFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* @author: kc, created on 10/18/26 */
+class PayloadFormatTests {
+
+    @Test
+    void contentTypeTest() {
+        assertEquals(PayloadFormat.JSON, PayloadFormat.of(null));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.of("application/json"));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.of("text/plain"));
+        assertEquals(PayloadFormat.CBOR, PayloadFormat.of("application/cbor"));
+        assertEquals(PayloadFormat.SMILE, PayloadFormat.of("application/x-jackson-smile"));
+        assertEquals(PayloadFormat.MESSAGE_PACK, PayloadFormat.of("Application/MsgPack; charset=binary"));
+    }
+
+    @Test
+    void sameTreeTest() throws IOException {
+        JsonNode payload = getPayload(0);
+        for (PayloadFormat format : PayloadFormat.values()) {
+            byte[] encoded = new ObjectMapper(format.getFactory()).writeValueAsBytes(payload);
+            assertEquals(payload, JsonHelper.readValue(encoded, format.getFactory()), format.name());
+        }
+    }
+
+    @Test
+    void valueSequenceTest() throws IOException {
+        for (PayloadFormat format : PayloadFormat.values()) {
+            ObjectMapper mapper = new ObjectMapper(format.getFactory());
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            for (int i = 0; i < 3; i++) {
+                outputStream.write(mapper.writeValueAsBytes(getPayload(i)));
+                //only JSON needs a separator between values
+                if (format == PayloadFormat.JSON) {
+                    outputStream.write('\n');
+                }
+            }
+
+            List<JsonNode> values = new ArrayList<>();
+            long count = JsonHelper.readValuesInChunks(new ByteArrayInputStream(outputStream.toByteArray()),
+                    format.getFactory(), 2, Long.MAX_VALUE, values::addAll);
+            assertEquals(3, count, format.name());
+            assertEquals(getPayload(2), values.get(2), format.name());
+        }
+    }
+
+    @Test
+    void bytesOnTheWireTest() throws IOException {
+        //a batch of device readings, where binary formats save on field names and numbers
+        ArrayNode batch = JsonHelper.getMapper().createArrayNode();
+        for (int i = 0; i < 100; i++) {
+            batch.add(getPayload(i));
+        }
+
+        int jsonSize = JsonHelper.getMapper().writeValueAsBytes(batch).length;
+        for (PayloadFormat format : List.of(PayloadFormat.CBOR, PayloadFormat.SMILE, PayloadFormat.MESSAGE_PACK)) {
+            int size = new ObjectMapper(format.getFactory()).writeValueAsBytes(batch).length;
+            assertTrue(size < jsonSize, format.name() + " " + size + " bytes, JSON " + jsonSize + " bytes");
+        }
+    }
+
+    private JsonNode getPayload(int sequence) {
+        ObjectNode payload = JsonHelper.getMapper().createObjectNode();
+        payload.put("device_id", "sensor-0042");
+        payload.put("sequence", sequence);
+        payload.put("timestamp", 1792300000000L + sequence * 1000L);
+        payload.put("temperature", 21.5 + sequence);
+        payload.put("battery", 0.87);
+        payload.putArray("readings").add(12).add(15).add(11);
+        return payload;
+    }
+}
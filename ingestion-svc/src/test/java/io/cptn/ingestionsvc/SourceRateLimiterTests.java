@@ -0,0 +1,125 @@
+package io.cptn.ingestionsvc;
+
+import io.cptn.common.entities.Source;
+import io.cptn.common.exceptions.TooManyRequestsException;
+import io.cptn.ingestionsvc.ratelimit.SourceRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+class SourceRateLimiterTests {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SourceRateLimiter rateLimiter = new SourceRateLimiter(redisTemplate, meterRegistry);
+
+    @Test
+    void unlimitedSourceTest() {
+        Source source = getSource(null, null, null);
+        for (int i = 0; i < 1000; i++) {
+            rateLimiter.acquire(source, 1, 1024);
+        }
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void eventBurstTest() {
+        Source source = getSource(1, null, 5);
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire(source, 1, 0);
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> rateLimiter.acquire(source, 1, 0));
+        assertEquals("Rate limit exceeded for source", e.getMessage());
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(1, rateLimiter.getThrottledCount(source.getId()));
+        assertEquals(1, meterRegistry.get("cptn.ingestion.throttled")
+                .tag("source", source.getId().toString()).counter().count());
+    }
+
+    @Test
+    void byteLimitTest() {
+        Source source = getSource(null, 1000L, null);
+        rateLimiter.acquire(source, 1, 600);
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire(source, 1, 600));
+
+        //a single request larger than the bucket goes through when the bucket is full
+        Source other = getSource(null, 1000L, null);
+        assertDoesNotThrow(() -> rateLimiter.acquire(other, 1, 5000));
+    }
+
+    @Test
+    void chargeDebtTest() {
+        Source source = getSource(10, null, null);
+        rateLimiter.acquire(source, 0, 0);
+        //a batch of 100 events at 10 per second holds the source back for about 9 seconds
+        rateLimiter.charge(source, 100, 0);
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> rateLimiter.acquire(source, 0, 0));
+        assertTrue(e.getRetryAfterSeconds() >= 8 && e.getRetryAfterSeconds() <= 10);
+    }
+
+    @Test
+    void limitChangeTest() {
+        Source source = getSource(1, null, 1);
+        rateLimiter.acquire(source, 1, 0);
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire(source, 1, 0));
+
+        source.setRateLimitEventsPerSecond(0);
+        assertDoesNotThrow(() -> rateLimiter.acquire(source, 1, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sharedLimitTest() {
+        ReflectionTestUtils.setField(rateLimiter, "redisEnabled", true);
+        Source source = getSource(1, null, null);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(0L, 2_500_000L);
+
+        rateLimiter.acquire(source, 1, 0);
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> rateLimiter.acquire(source, 1, 0));
+        assertEquals(3, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sharedLimitFallbackTest() {
+        ReflectionTestUtils.setField(rateLimiter, "redisEnabled", true);
+        Source source = getSource(1, null, 1);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        rateLimiter.acquire(source, 1, 0);
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire(source, 1, 0));
+    }
+
+    private Source getSource(Integer eventsPerSecond, Long bytesPerSecond, Integer burst) {
+        Source source = new Source(UUID.randomUUID());
+        source.setRateLimitEventsPerSecond(eventsPerSecond);
+        source.setRateLimitBytesPerSecond(bytesPerSecond);
+        source.setRateLimitBurst(burst);
+        return source;
+    }
+}
@@ -0,0 +1,105 @@
+package io.cptn.ingestionsvc;
+
+import io.cptn.common.entities.Source;
+import io.cptn.common.pojos.Header;
+import io.cptn.ingestionsvc.cache.SourceRuntime;
+import io.cptn.ingestionsvc.cache.SourceRuntimeCache;
+import io.cptn.ingestionsvc.services.SourceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+class SourceRuntimeCacheTests {
+
+    private final SourceService sourceService = mock(SourceService.class);
+
+    private final SourceRuntimeCache sourceRuntimeCache = new SourceRuntimeCache(sourceService);
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(sourceRuntimeCache, "ttl", 60000L);
+        ReflectionTestUtils.setField(sourceRuntimeCache, "maxSize", 100L);
+        sourceRuntimeCache.init();
+    }
+
+    @Test
+    void cachedRuntimeTest() {
+        Source source = getSource();
+        when(sourceService.getById(source.getId())).thenReturn(Optional.of(source));
+
+        SourceRuntime sourceRuntime = sourceRuntimeCache.get(source.getId()).orElseThrow();
+        assertSame(sourceRuntime, sourceRuntimeCache.get(source.getId()).orElseThrow());
+        verify(sourceService, times(1)).getById(source.getId());
+
+        assertEquals(Map.of("Access-Control-Allow-Origin", "*"), sourceRuntime.getCorsHeaders());
+        HttpHeaders responseHeaders = sourceRuntime.getResponseHeaders();
+        assertEquals(List.of("a", "b"), responseHeaders.get("X-Custom"));
+        //responses get their own copy
+        responseHeaders.add("X-Custom", "c");
+        assertEquals(List.of("a", "b"), sourceRuntime.getResponseHeaders().get("X-Custom"));
+    }
+
+    @Test
+    void missingSourceTest() {
+        UUID sourceId = UUID.randomUUID();
+        when(sourceService.getById(sourceId)).thenReturn(Optional.empty());
+
+        assertTrue(sourceRuntimeCache.get(sourceId).isEmpty());
+        assertTrue(sourceRuntimeCache.get(sourceId).isEmpty());
+        verify(sourceService, times(1)).getById(sourceId);
+    }
+
+    @Test
+    void changeMessageTest() {
+        Source source = getSource();
+        when(sourceService.getById(source.getId())).thenReturn(Optional.of(source));
+        sourceRuntimeCache.get(source.getId());
+
+        sourceRuntimeCache.onMessage(new DefaultMessage(Source.CHANGES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                source.getId().toString().getBytes(StandardCharsets.UTF_8)), null);
+        verify(sourceService).evict(source.getId());
+
+        sourceRuntimeCache.get(source.getId());
+        verify(sourceService, times(2)).getById(source.getId());
+    }
+
+    @Test
+    void invalidChangeMessageTest() {
+        sourceRuntimeCache.onMessage(new DefaultMessage(Source.CHANGES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "invalid".getBytes(StandardCharsets.UTF_8)), null);
+        verify(sourceService, never()).evict(any());
+    }
+
+    private Source getSource() {
+        Source source = new Source(UUID.randomUUID());
+        source.setHeaders(List.of(getHeader("Access-Control-Allow-Origin", "*"), getHeader("X-Custom", "a"),
+                getHeader("X-Custom", "b")));
+        return source;
+    }
+
+    private Header getHeader(String key, String value) {
+        Header header = new Header();
+        header.setKey(key);
+        header.setValue(value);
+        return header;
+    }
+}
@@ -0,0 +1,176 @@
+package io.cptn.ingestionsvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.entities.InboundWriteEvent;
+import io.cptn.common.entities.Source;
+import io.cptn.common.helpers.JsonHelper;
+import io.cptn.ingestionsvc.services.InboundWriteEventService;
+import io.cptn.ingestionsvc.wal.WriteAheadLog;
+import io.cptn.ingestionsvc.wal.WriteAheadLogReplayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/* @author: kc, created on 10/18/26 */
+class WriteAheadLogTests {
+
+    @TempDir
+    Path walDirectory;
+
+    @Test
+    void appendAndReadTest() throws IOException {
+        WriteAheadLog wal = open(4096);
+        UUID sourceId = UUID.randomUUID();
+        InboundWriteEvent event = createEvent(sourceId, "{\"foo\":\"bar\"}");
+        wal.append(event);
+
+        WriteAheadLog.ReadResult result = wal.read(10);
+        assertEquals(1, result.events().size());
+        InboundWriteEvent replayed = result.events().get(0);
+        assertEquals(event.getId(), replayed.getId());
+        assertEquals(sourceId, replayed.getSource().getId());
+        assertEquals(event.getCreatedAt().toInstant(), replayed.getCreatedAt().toInstant());
+        assertEquals("bar", replayed.getPayload().get("foo").asText());
+
+        //reads do not move until committed
+        assertEquals(1, wal.read(10).events().size());
+        wal.commit(result.next());
+        assertTrue(wal.read(10).events().isEmpty());
+    }
+
+    @Test
+    void resumeAfterRestartTest() throws IOException {
+        WriteAheadLog wal = open(4096);
+        UUID sourceId = UUID.randomUUID();
+        wal.append(createEvent(sourceId, "{\"n\":1}"));
+        wal.commit(wal.read(10).next());
+        wal.append(createEvent(sourceId, "{\"n\":2}"));
+        wal.close();
+
+        WriteAheadLog reopened = open(4096);
+        List<InboundWriteEvent> events = reopened.read(10).events();
+        assertEquals(1, events.size());
+        assertEquals(2, events.get(0).getPayload().get("n").asInt());
+
+        //new appends go after the recovered records
+        reopened.append(createEvent(sourceId, "{\"n\":3}"));
+        assertEquals(2, reopened.read(10).events().size());
+    }
+
+    @Test
+    void segmentRollAndDeletionTest() throws IOException {
+        WriteAheadLog wal = open(256);
+        UUID sourceId = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            wal.append(createEvent(sourceId, "{\"n\":" + i + "}"));
+        }
+        assertTrue(countSegments() > 1);
+
+        WriteAheadLog.ReadResult result = wal.read(100);
+        assertEquals(10, result.events().size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, result.events().get(i).getPayload().get("n").asInt());
+        }
+        wal.commit(result.next());
+        assertEquals(1, countSegments());
+    }
+
+    @Test
+    void tornWriteDiscardedTest() throws IOException {
+        WriteAheadLog wal = open(4096);
+        UUID sourceId = UUID.randomUUID();
+        wal.append(createEvent(sourceId, "{\"n\":1}"));
+        wal.append(createEvent(sourceId, "{\"n\":2}"));
+        wal.close();
+
+        //corrupt the payload of the last record as if the process died halfway through writing it
+        Path segment;
+        try (Stream<Path> files = Files.list(walDirectory)) {
+            segment = files.filter(path -> path.toString().endsWith(".wal")).findFirst().orElseThrow();
+        }
+        //header (length + crc) + ids + created_at + payload
+        int recordSize = 12 + 40 + "{\"n\":1}".length();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(2L * recordSize - 1);
+            file.write('x');
+        }
+
+        WriteAheadLog reopened = open(4096);
+        List<InboundWriteEvent> events = reopened.read(10).events();
+        assertEquals(1, events.size());
+        assertEquals(1, events.get(0).getPayload().get("n").asInt());
+    }
+
+    @Test
+    void poisonRecordSetAsideTest() throws IOException {
+        WriteAheadLog wal = open(4096);
+        UUID sourceId = UUID.randomUUID();
+        for (int i = 0; i < 4; i++) {
+            wal.append(createEvent(sourceId, "{\"n\":" + i + "}"));
+        }
+        InboundWriteEventService inboundWriteEventService = mock(InboundWriteEventService.class);
+        List<Integer> written = new ArrayList<>();
+        when(inboundWriteEventService.createAll(anyList())).thenAnswer(invocation -> {
+            List<InboundWriteEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getPayload().get("n").asInt() == 2)) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            events.forEach(event -> written.add(event.getPayload().get("n").asInt()));
+            return events;
+        });
+        doThrow(new DataIntegrityViolationException("value too long")).when(inboundWriteEventService)
+                .quarantine(anyList());
+        WriteAheadLogReplayer replayer = new WriteAheadLogReplayer(wal, inboundWriteEventService);
+        ReflectionTestUtils.setField(replayer, "batchSize", 10);
+
+        assertEquals(Boolean.TRUE, ReflectionTestUtils.invokeMethod(replayer, "replayBatch"));
+
+        //the records around the poison record are written and replay moves past all of them
+        assertEquals(List.of(0, 1, 3), written);
+        assertTrue(wal.read(10).events().isEmpty());
+        List<String> deadLetters = Files.readAllLines(walDirectory.resolve("dead-letter.jsonl"));
+        assertEquals(1, deadLetters.size());
+        JsonNode deadLetter = JsonHelper.deserializeJson(deadLetters.get(0));
+        assertEquals("value too long", deadLetter.get("reason").asText());
+        assertEquals(2, JsonHelper.deserializeJson(deadLetter.get("payload").asText()).get("n").asInt());
+    }
+
+    private WriteAheadLog open(int segmentSize) throws IOException {
+        WriteAheadLog wal = new WriteAheadLog();
+        ReflectionTestUtils.setField(wal, "enabled", true);
+        ReflectionTestUtils.setField(wal, "directory", walDirectory.toString());
+        ReflectionTestUtils.setField(wal, "segmentSize", segmentSize);
+        ReflectionTestUtils.setField(wal, "forceOnAppend", true);
+        wal.open();
+        return wal;
+    }
+
+    private InboundWriteEvent createEvent(UUID sourceId, String json) {
+        InboundWriteEvent event = new InboundWriteEvent();
+        JsonNode payload = JsonHelper.deserializeJson(json);
+        event.setPayload(payload);
+        event.setSource(new Source(sourceId));
+        return event;
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(walDirectory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).count();
+        }
+    }
+}
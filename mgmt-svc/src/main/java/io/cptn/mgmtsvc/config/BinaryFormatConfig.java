@@ -0,0 +1,51 @@
+package io.cptn.mgmtsvc.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Lets API clients ask for CBOR, Smile or MessagePack with the Accept header, for large event listings. The
+    converters are added after the JSON one, so JSON stays the default. They use the application's Jackson settings.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+    private static final MediaType MESSAGE_PACK = MediaType.parseMediaType("application/msgpack");
+
+    private static final MediaType X_MESSAGE_PACK = MediaType.parseMediaType("application/x-msgpack");
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build()));
+        converters.add(new MessagePackHttpMessageConverter(
+                objectMapperBuilder.factory(new MessagePackFactory()).build()));
+    }
+
+    private static class MessagePackHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+        MessagePackHttpMessageConverter(ObjectMapper objectMapper) {
+            super(objectMapper, MESSAGE_PACK, X_MESSAGE_PACK);
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package io.cptn.mgmtsvc.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import io.cptn.common.dto.BaseDto;
 import io.cptn.common.entities.State;
-import io.cptn.common.helpers.JsonHelper;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -16,15 +15,9 @@ import lombok.NoArgsConstructor;
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
 public class InboundEventDto extends BaseDto {
 
+    //the stored JSON is written into responses as is, without being parsed first
+    @JsonRawValue
     private String payload;
 
     private State state = State.QUEUED;
-
-    public JsonNode getPayload() {
-        return JsonHelper.deserializeJson(this.payload);
-    }
-
-    public void setPayload(JsonNode payload) {
-        this.payload = JsonHelper.serializeJson(payload);
-    }
 }
@@ -1,9 +1,8 @@
 package io.cptn.mgmtsvc.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import io.cptn.common.dto.BaseDto;
 import io.cptn.common.entities.State;
-import io.cptn.common.helpers.JsonHelper;
 import lombok.*;
 
 /* @author: kc, created on 4/3/23 */
@@ -13,19 +12,11 @@ import lombok.*;
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
 public class OutboundEventDto extends BaseDto {
 
-    @Getter(AccessLevel.NONE)
-    @Setter(AccessLevel.NONE)
+    //the stored JSON is written into responses as is, without being parsed first
+    @JsonRawValue
     private String payload;
 
     private State state = State.QUEUED;
 
     private String consoleLog;
-
-    public JsonNode getPayload() {
-        return JsonHelper.deserializeJson(this.payload);
-    }
-
-    public void setPayload(JsonNode payload) {
-        this.payload = JsonHelper.serializeJson(payload);
-    }
 }
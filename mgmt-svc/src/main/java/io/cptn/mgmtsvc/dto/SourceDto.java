@@ -1,12 +1,20 @@
 package io.cptn.mgmtsvc.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.cptn.common.dto.BaseDto;
+import io.cptn.common.entities.ResponseMode;
+import io.cptn.common.entities.SchemaViolationAction;
 import io.cptn.common.entities.Source;
 import io.cptn.common.validation.OnCreate;
+import io.cptn.mgmtsvc.validators.ColumnMapping;
+import io.cptn.mgmtsvc.validators.JsonSchema;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Null;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -52,4 +60,38 @@ public class SourceDto extends BaseDto {
     private List<HeaderDto> headers;
     
     private Boolean captureRemoteIP;
+
+    @Positive(message = "Must be greater than 0")
+    private Long maxDecompressedSize;
+
+    //0 removes the limit
+    @PositiveOrZero(message = "Must not be negative")
+    private Integer rateLimitEventsPerSecond;
+
+    @PositiveOrZero(message = "Must not be negative")
+    private Long rateLimitBytesPerSecond;
+
+    @PositiveOrZero(message = "Must not be negative")
+    private Integer rateLimitBurst;
+
+    private Boolean lowPriority;
+
+    private ResponseMode responseMode;
+
+    //0 turns duplicate suppression off
+    @PositiveOrZero(message = "Must not be negative")
+    private Integer dedupWindow;
+
+    @Size(max = 256, message = "Length must not exceed 256 characters")
+    @Pattern(regexp = "^$|^/.*", message = "Must be a JSON pointer")
+    private String idempotencyKeyPointer;
+
+    @JsonSchema
+    private JsonNode jsonSchema;
+
+    //rejects events that do not match the schema when not set
+    private SchemaViolationAction schemaViolationAction;
+
+    @ColumnMapping
+    private JsonNode columnMapping;
 }
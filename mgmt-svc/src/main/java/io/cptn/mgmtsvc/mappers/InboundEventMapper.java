@@ -12,9 +12,11 @@ import org.mapstruct.ReportingPolicy;
 @Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING)
 public interface InboundEventMapper {
 
+    @Mapping(target = "payload", source = "serializedPayload")
     InboundEventDto toDto(InboundEvent event);
 
     @Mapping(target = "state", source = "state", defaultValue = "QUEUED")
+    @Mapping(target = "payload", source = "serializedPayload")
     InboundEventDto toDto(InboundWriteEvent event);
 
 }
@@ -3,6 +3,7 @@ package io.cptn.mgmtsvc.mappers;
 import io.cptn.common.entities.OutboundEvent;
 import io.cptn.mgmtsvc.dto.OutboundEventDto;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import org.mapstruct.ReportingPolicy;
 
@@ -10,6 +11,7 @@ import org.mapstruct.ReportingPolicy;
 @Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING)
 public interface OutboundEventMapper {
 
+    @Mapping(target = "payload", source = "serializedPayload")
     OutboundEventDto toDto(OutboundEvent event);
 
 }
@@ -17,6 +17,7 @@ public interface SourceMapper {
     @Mapping(source = "secured", target = "secured", nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
     @Mapping(source = "active", target = "active", nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
     @Mapping(source = "captureRemoteIP", target = "captureRemoteIP", nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
+    @Mapping(source = "lowPriority", target = "lowPriority", nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
     Source toEntity(SourceDto sourceDto);
 
     @Mapping(ignore = true, target = "createdAt")
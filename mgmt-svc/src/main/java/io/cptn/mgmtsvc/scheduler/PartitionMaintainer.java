@@ -0,0 +1,76 @@
+package io.cptn.mgmtsvc.scheduler;
+
+import io.cptn.common.repositories.DBMaintenanceRepository;
+import io.cptn.mgmtsvc.services.SettingsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/* @author: kc, created on 10/18/26 */
+
+/*
+    Keeps daily partitions of the queues ready ahead of time and applies the data storage interval by dropping the
+    partitions of days that are entirely past it, so purging costs the same regardless of volume. A partition is
+    dropped once its last row is past the interval, so events are kept for up to a day longer than the interval. The
+    partition with the rows from before partitioning is dropped the same way once its end is past the interval.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PartitionMaintainer {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("inbound_queue", "outbound_queue");
+
+    //partitions are created this many days ahead, so inserts keep landing in daily partitions if a few runs fail
+    private static final int DAYS_AHEAD = 3;
+
+    private final DBMaintenanceRepository dbMaintenanceRepository;
+
+    private final SettingsService settingsService;
+
+    @Scheduled(cron = "0 */15 * * * *")
+    @SchedulerLock(name = "partitionMaintainer", lockAtLeastFor = "5m", lockAtMostFor = "10m")
+    public void run() {
+        Long storageInterval = settingsService.getDataStorageInterval();
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        ZonedDateTime createdBefore = now.minus(storageInterval, ChronoUnit.MILLIS);
+        log.info("Running Partition Maintainer to drop data older than: " + createdBefore + ", interval(ms): " +
+                storageInterval);
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                maintain(table, now.toLocalDate(), createdBefore);
+            } catch (Exception e) {
+                //the other table is still maintained, a failed step is retried on the next run
+                log.error("Failed to maintain partitions of " + table + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public void maintain(String table, LocalDate today, ZonedDateTime createdBefore) {
+        List<String> partitions = dbMaintenanceRepository.getPartitions(table);
+
+        for (int i = 0; i <= DAYS_AHEAD; i++) {
+            LocalDate day = today.plusDays(i);
+            if (!partitions.contains(DBMaintenanceRepository.getPartitionName(table, day))) {
+                log.info("Creating partition of " + table + " for " + day);
+                dbMaintenanceRepository.createDailyPartition(table, day);
+            }
+        }
+
+        for (String partition : partitions) {
+            LocalDate end = DBMaintenanceRepository.getPartitionEnd(table, partition);
+            if (end != null && !end.atStartOfDay(ZoneOffset.UTC).isAfter(createdBefore)) {
+                log.info("Dropping partition " + partition);
+                dbMaintenanceRepository.dropPartition(table, partition);
+            }
+        }
+    }
+}
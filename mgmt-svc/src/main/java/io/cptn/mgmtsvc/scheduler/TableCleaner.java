@@ -1,8 +1,6 @@
 package io.cptn.mgmtsvc.scheduler;
 
-import io.cptn.common.entities.Settings;
-import io.cptn.common.repositories.InboundEventRepository;
-import io.cptn.common.repositories.OutboundEventRepository;
+import io.cptn.common.repositories.QuarantinedEventRepository;
 import io.cptn.mgmtsvc.services.SettingsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,46 +12,30 @@ import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 
 /* @author: kc, created on 5/5/23 */
+
+/*
+    Purges quarantined events. The inbound and outbound queues are partitioned, their retention is applied by the
+    PartitionMaintainer by dropping whole partitions.
+ */
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class TableCleaner {
 
-    private static final String DATA_STORAGE_INTERVAL_KEY = "data.storage.interval";
-
-    private static final Long DEFAULT_DATA_STORAGE_INTERVAL = 3 * 24 * 60 * 60 * 1000L;
-
     private final SettingsService settingsService;
 
-    private final InboundEventRepository inboundEventRepository;
-
-    private final OutboundEventRepository outboundEventRepository;
+    private final QuarantinedEventRepository quarantinedEventRepository;
 
     @Scheduled(cron = "0 */15 * * * *")
     @SchedulerLock(name = "tableCleaner", lockAtLeastFor = "5m", lockAtMostFor = "10m")
     public void run() {
         try {
-            Long storageInterval = getStorageInterval();
+            Long storageInterval = settingsService.getDataStorageInterval();
             ZonedDateTime createdBefore = ZonedDateTime.now().minus(storageInterval, ChronoUnit.MILLIS);
             log.info("Running Table Cleaner to purge data older than: " + createdBefore + ", interval(ms): " + storageInterval);
-            inboundEventRepository.purgeStaleDataInInboundQueue(createdBefore);
-            outboundEventRepository.purgeStaleDataInOutboundQueue(createdBefore);
+            quarantinedEventRepository.purgeStaleDataInQuarantine(createdBefore);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
     }
-
-    private Long getStorageInterval() {
-        Long interval = DEFAULT_DATA_STORAGE_INTERVAL;
-        Settings storageInterval = settingsService.get(DATA_STORAGE_INTERVAL_KEY);
-        if (storageInterval != null) {
-            String intervalString = storageInterval.getValue();
-            try {
-                interval = Long.parseLong(intervalString);
-            } catch (Exception e) {
-                log.warn("Invalid data storage interval: " + intervalString + ", using default: " + interval);
-            }
-        }
-        return interval;
-    }
 }
@@ -53,7 +53,7 @@ public class InboundEventService extends CommonService {
     public InboundWriteEvent resendEvent(InboundEvent inboundEvent) {
         InboundWriteEvent event = new InboundWriteEvent();
         event.setSource(inboundEvent.getSource());
-        event.setPayload(inboundEvent.getPayload());
+        event.setSerializedPayload(inboundEvent.getSerializedPayload());
         return inboundWriteEventRepository.save(event);
     }
 }
@@ -3,13 +3,19 @@ package io.cptn.mgmtsvc.services;
 import io.cptn.common.entities.Settings;
 import io.cptn.common.repositories.SettingsRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 /* @author: kc, created on 5/1/23 */
 @Service
+@Slf4j
 @RequiredArgsConstructor
 public class SettingsService {
 
+    private static final String DATA_STORAGE_INTERVAL_KEY = "data.storage.interval";
+
+    private static final Long DEFAULT_DATA_STORAGE_INTERVAL = 3 * 24 * 60 * 60 * 1000L;
+
     private final SettingsRepository settingsRepository;
 
     public Settings upsert(String key, String value, Boolean systemManaged) {
@@ -29,4 +35,21 @@ public class SettingsService {
     public void delete(String key) {
         settingsRepository.deleteById(key);
     }
+
+    /**
+     * How long events are kept, in milliseconds
+     */
+    public Long getDataStorageInterval() {
+        Long interval = DEFAULT_DATA_STORAGE_INTERVAL;
+        Settings storageInterval = get(DATA_STORAGE_INTERVAL_KEY);
+        if (storageInterval != null) {
+            String intervalString = storageInterval.getValue();
+            try {
+                interval = Long.parseLong(intervalString);
+            } catch (Exception e) {
+                log.warn("Invalid data storage interval: " + intervalString + ", using default: " + interval);
+            }
+        }
+        return interval;
+    }
 }
@@ -6,10 +6,13 @@ import io.cptn.common.repositories.SourceRepository;
 import io.cptn.common.services.CommonService;
 import io.cptn.common.web.ListEntitiesParam;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,18 +22,21 @@ import java.util.UUID;
 /* @author: kc, created on 2/7/23 */
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
 public class SourceService extends CommonService {
 
     private final SourceRepository sourceRepository;
 
+    private final StringRedisTemplate redisTemplate;
+
     @CachePut(value = "sources", key = "#source.id")
     public Source create(Source source) {
 
         if (Boolean.TRUE.equals(source.getSecured())) {
             source.setupNewKeys();
         }
-        return sourceRepository.save(source);
+        return publishChange(sourceRepository.save(source));
     }
 
     @Cacheable(value = "sources", key = "#id")
@@ -43,13 +49,13 @@ public class SourceService extends CommonService {
         if (Boolean.TRUE.equals(source.getSecured()) && !source.hasAnyKeysSetup()) {
             source.setupNewKeys();
         }
-        return sourceRepository.save(source);
+        return publishChange(sourceRepository.save(source));
     }
 
     @CachePut(value = "sources", key = "#source.id")
     public Source rotateKeys(Source source) {
         source.rotateKeys();
-        return sourceRepository.save(source);
+        return publishChange(sourceRepository.save(source));
     }
 
     public List<Source> getAll(ListEntitiesParam param, Predicate predicate) {
@@ -77,7 +83,20 @@ public class SourceService extends CommonService {
     @CacheEvict(value = "sources", key = "#source.id")
     public void delete(Source source) {
         sourceRepository.delete(source);
+        publishChange(source);
     }
 
+    /*
+        Sent once the change is saved. Ingestion replicas reload the source on their next request, and fall back to
+        their cache TTL if the message is lost.
+     */
+    private Source publishChange(Source source) {
+        try {
+            redisTemplate.convertAndSend(Source.CHANGES_CHANNEL, source.getId().toString());
+        } catch (DataAccessException e) {
+            log.warn("Failed to publish change of source {}: {}", source.getId(), e.getMessage());
+        }
+        return source;
+    }
 
 }
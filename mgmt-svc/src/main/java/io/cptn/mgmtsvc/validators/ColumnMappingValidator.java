@@ -0,0 +1,31 @@
+package io.cptn.mgmtsvc.validators;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.exceptions.BadRequestException;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import lombok.extern.slf4j.Slf4j;
+
+/* @author: kc, created on 10/18/26 */
+@Slf4j
+public class ColumnMappingValidator implements ConstraintValidator<ColumnMapping, JsonNode> {
+
+    @Override
+    public boolean isValid(JsonNode mapping, ConstraintValidatorContext constraintValidatorContext) {
+        if (mapping == null || mapping.isNull()) {
+            //no mapping turns every column into a field
+            return true;
+        }
+
+        try {
+            //compiled the same way ingestion does, so it cannot fail there
+            io.cptn.common.pojos.ColumnMapping.compile(mapping);
+        } catch (BadRequestException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Invalid column mapping: {}", e.getMessage());
+            }
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package io.cptn.mgmtsvc.validators;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cptn.common.exceptions.BadRequestException;
+import io.cptn.common.helpers.SchemaHelper;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import lombok.extern.slf4j.Slf4j;
+
+/* @author: kc, created on 10/18/26 */
+@Slf4j
+public class JsonSchemaValidator implements ConstraintValidator<JsonSchema, JsonNode> {
+
+    @Override
+    public boolean isValid(JsonNode schema, ConstraintValidatorContext constraintValidatorContext) {
+        if (schema == null || schema.isNull()) {
+            //no schema turns validation off
+            return true;
+        }
+
+        try {
+            //the schema is compiled the same way ingestion does, so it cannot fail there
+            SchemaHelper.compile(schema);
+        } catch (BadRequestException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to compile JSON Schema", e);
+            }
+            return false;
+        }
+        return true;
+    }
+}
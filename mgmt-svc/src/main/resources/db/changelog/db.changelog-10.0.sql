@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset kcthota:10
+
+ALTER TABLE source
+    ADD COLUMN low_priority BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- indexes are not inherited, so every table holding inbound events gets its own
+CREATE INDEX idx_inbound_queue_queued ON inbound_queue (created_at) WHERE state = 'QUEUED';
+CREATE INDEX idx_inbound_write_queue_queued ON inbound_write_queue (created_at) WHERE state = 'QUEUED';
+CREATE INDEX idx_inbound_rotated_1_queued ON inbound_rotated_1 (created_at) WHERE state = 'QUEUED';
+CREATE INDEX idx_inbound_rotated_2_queued ON inbound_rotated_2 (created_at) WHERE state = 'QUEUED';
\ No newline at end of file
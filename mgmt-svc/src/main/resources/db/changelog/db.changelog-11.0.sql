@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset kcthota:11
+
+ALTER TABLE source
+    ADD COLUMN response_mode VARCHAR(16);
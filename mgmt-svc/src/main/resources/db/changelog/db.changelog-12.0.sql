@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset kcthota:12
+
+ALTER TABLE source
+    ADD COLUMN dedup_window INTEGER,
+    ADD COLUMN idempotency_key_pointer VARCHAR(256);
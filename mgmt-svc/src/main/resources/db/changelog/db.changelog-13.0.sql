@@ -0,0 +1,26 @@
+--liquibase formatted sql
+
+--changeset kcthota:13
+
+ALTER TABLE source
+    ADD COLUMN json_schema JSONB,
+    ADD COLUMN schema_violation_action VARCHAR(16);
+
+CREATE TABLE inbound_quarantine
+(
+    id         UUID    NOT NULL,
+    version    INTEGER NOT NULL,
+    created_at TIMESTAMP with time zone,
+    updated_at TIMESTAMP with time zone,
+    created_by VARCHAR(36),
+    updated_by VARCHAR(36),
+    payload    JSONB,
+    source_id  UUID,
+    errors     VARCHAR(1000),
+    CONSTRAINT pk_inbound_quarantine PRIMARY KEY (id)
+);
+
+ALTER TABLE inbound_quarantine
+    ADD CONSTRAINT FK_INBOUND_QUARANTINE_ON_SOURCE FOREIGN KEY (source_id) REFERENCES source (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_inbound_quarantine_source ON inbound_quarantine (source_id, created_at);
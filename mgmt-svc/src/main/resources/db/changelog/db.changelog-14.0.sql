@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset kcthota:14
+
+ALTER TABLE source
+    ADD COLUMN column_mapping JSONB;
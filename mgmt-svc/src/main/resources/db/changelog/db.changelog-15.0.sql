@@ -0,0 +1,106 @@
+--liquibase formatted sql
+
+--changeset kcthota:15 splitStatements:false
+
+-- the queues move from inheritance children rotated by renaming them to tables partitioned by range on created_at.
+-- the partition maintainer creates a partition per UTC day ahead of time and drops them once past the data storage
+-- interval. Existing rows from before today go into one <table>_until_<day> partition bounded by the start of today,
+-- which is dropped as a whole once past the interval. Today's partition and the days ahead are created here, so the
+-- default partition stays empty and attaching later partitions never has to scan it.
+
+-- unique constraints of a partitioned table must include created_at, so outbound events can no longer reference
+-- inbound events by a foreign key
+ALTER TABLE outbound_queue
+    DROP CONSTRAINT fk_outbound_queue_on_inbound_event;
+
+ALTER TABLE inbound_queue RENAME TO inbound_queue_inherited;
+ALTER TABLE inbound_queue_inherited RENAME CONSTRAINT pk_event TO pk_inbound_queue_inherited;
+ALTER TABLE outbound_queue RENAME TO outbound_queue_inherited;
+ALTER TABLE outbound_queue_inherited RENAME CONSTRAINT pk_outbound_queue TO pk_outbound_queue_inherited;
+
+CREATE TABLE inbound_queue
+(
+    id         UUID                     NOT NULL,
+    version    INTEGER                  NOT NULL,
+    created_at TIMESTAMP with time zone NOT NULL,
+    updated_at TIMESTAMP with time zone,
+    created_by VARCHAR(36),
+    updated_by VARCHAR(36),
+    payload    JSON,
+    source_id  UUID,
+    state      VARCHAR(25) DEFAULT 'QUEUED',
+    CONSTRAINT pk_inbound_queue PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE inbound_queue_default PARTITION OF inbound_queue DEFAULT;
+
+CREATE TABLE outbound_queue
+(
+    id               UUID                     NOT NULL,
+    payload          JSONB,
+    pipeline_id      UUID,
+    state            VARCHAR(25),
+    version          INTEGER                  NOT NULL,
+    created_at       TIMESTAMP with time zone NOT NULL,
+    updated_at       TIMESTAMP with time zone,
+    created_by       VARCHAR(36),
+    updated_by       VARCHAR(36),
+    steps            JSONB,
+    inbound_event_id UUID,
+    console_log      VARCHAR(4000),
+    CONSTRAINT pk_outbound_queue PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE outbound_queue_default PARTITION OF outbound_queue DEFAULT;
+
+DO
+$$
+    DECLARE
+        cutover_day   date := (now() AT TIME ZONE 'UTC')::date;
+        partition_day date;
+        queue_table   text;
+    BEGIN
+        FOREACH queue_table IN ARRAY ARRAY ['inbound_queue', 'outbound_queue']
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (MINVALUE) TO (%L)',
+                               queue_table || '_until_' || to_char(cutover_day, 'YYYYMMDD'), queue_table,
+                               cutover_day::timestamp AT TIME ZONE 'UTC');
+                -- same look-ahead as the partition maintainer
+                FOR i IN 0..3
+                    LOOP
+                        partition_day := cutover_day + i;
+                        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                                       queue_table || '_p' || to_char(partition_day, 'YYYYMMDD'), queue_table,
+                                       partition_day::timestamp AT TIME ZONE 'UTC',
+                                       (partition_day + 1)::timestamp AT TIME ZONE 'UTC');
+                    END LOOP;
+            END LOOP;
+    END
+$$;
+
+-- selecting from the old parents includes the rows of all their children. The history is copied once, as it is
+-- spread over the old parent and its rotated children and can not be attached as it is
+INSERT INTO inbound_queue (id, version, created_at, updated_at, created_by, updated_by, payload, source_id, state)
+SELECT id, version, COALESCE(created_at, updated_at, now()), updated_at, created_by, updated_by, payload, source_id,
+       state
+FROM inbound_queue_inherited;
+
+INSERT INTO outbound_queue (id, payload, pipeline_id, state, version, created_at, updated_at, created_by, updated_by,
+                            steps, inbound_event_id, console_log)
+SELECT id, payload, pipeline_id, state, version, COALESCE(created_at, updated_at, now()), updated_at, created_by,
+       updated_by, steps, inbound_event_id, console_log
+FROM outbound_queue_inherited;
+
+DROP TABLE inbound_write_queue, inbound_rotated_1, inbound_rotated_2, inbound_queue_inherited;
+DROP TABLE outbound_write_queue, outbound_rotated_1, outbound_rotated_2, outbound_queue_inherited;
+
+ALTER TABLE inbound_queue
+    ADD CONSTRAINT FK_INBOUND_QUEUE_ON_SOURCE FOREIGN KEY (source_id) REFERENCES source (id) ON DELETE CASCADE;
+
+ALTER TABLE outbound_queue
+    ADD CONSTRAINT FK_OUTBOUND_QUEUE_ON_PIPELINE FOREIGN KEY (pipeline_id) REFERENCES pipeline (id) ON DELETE CASCADE;
+
+-- indexes of a partitioned table are created on each of its partitions
+CREATE INDEX idx_inbound_queue_queued ON inbound_queue (created_at) WHERE state = 'QUEUED';
+
+DELETE FROM settings WHERE key IN ('table.rotation.interval', 'next.rotation.timestamp');
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset kcthota:8
+
+ALTER TABLE source
+    ADD COLUMN max_decompressed_size BIGINT;
\ No newline at end of file
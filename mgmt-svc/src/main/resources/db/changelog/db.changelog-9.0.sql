@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset kcthota:9
+
+ALTER TABLE source
+    ADD COLUMN rate_limit_events_per_second INTEGER,
+    ADD COLUMN rate_limit_bytes_per_second BIGINT,
+    ADD COLUMN rate_limit_burst INTEGER;
\ No newline at end of file
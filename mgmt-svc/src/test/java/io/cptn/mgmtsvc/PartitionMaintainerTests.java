@@ -0,0 +1,90 @@
+package io.cptn.mgmtsvc;
+
+import io.cptn.common.repositories.DBMaintenanceRepository;
+import io.cptn.mgmtsvc.scheduler.PartitionMaintainer;
+import io.cptn.mgmtsvc.services.SettingsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* @author: kc, created on 10/18/26 */
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintainerTests {
+
+    private static final String TABLE = "inbound_queue";
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @Mock
+    private DBMaintenanceRepository dbMaintenanceRepository;
+
+    @Mock
+    private SettingsService settingsService;
+
+    private PartitionMaintainer partitionMaintainer;
+
+    @BeforeEach
+    void setUp() {
+        partitionMaintainer = new PartitionMaintainer(dbMaintenanceRepository, settingsService);
+    }
+
+    @Test
+    void createsMissingPartitionsAheadTest() {
+        when(dbMaintenanceRepository.getPartitions(TABLE)).thenReturn(List.of("inbound_queue_default",
+                "inbound_queue_p20261018", "inbound_queue_p20261019"));
+
+        partitionMaintainer.maintain(TABLE, TODAY, TODAY.minusDays(3).atStartOfDay(ZoneOffset.UTC));
+
+        verify(dbMaintenanceRepository, never()).createDailyPartition(TABLE, TODAY);
+        verify(dbMaintenanceRepository, never()).createDailyPartition(TABLE, TODAY.plusDays(1));
+        verify(dbMaintenanceRepository).createDailyPartition(TABLE, TODAY.plusDays(2));
+        verify(dbMaintenanceRepository).createDailyPartition(TABLE, TODAY.plusDays(3));
+        verify(dbMaintenanceRepository, never()).dropPartition(anyString(), anyString());
+    }
+
+    @Test
+    void dropsPartitionsPastStorageIntervalTest() {
+        when(dbMaintenanceRepository.getPartitions(TABLE)).thenReturn(List.of("inbound_queue_default",
+                "inbound_queue_until_20261014", "inbound_queue_p20261014", "inbound_queue_p20261015",
+                "inbound_queue_p20261016", "inbound_queue_p20261018", "inbound_queue_p20261019", "inbound_queue_p20261020",
+                "inbound_queue_p20261021"));
+        ZonedDateTime createdBefore = ZonedDateTime.of(2026, 10, 16, 6, 0, 0, 0, ZoneOffset.UTC);
+
+        partitionMaintainer.maintain(TABLE, TODAY, createdBefore);
+
+        verify(dbMaintenanceRepository).dropPartition(TABLE, "inbound_queue_until_20261014");
+        verify(dbMaintenanceRepository).dropPartition(TABLE, "inbound_queue_p20261014");
+        verify(dbMaintenanceRepository).dropPartition(TABLE, "inbound_queue_p20261015");
+        //still holds rows within the interval
+        verify(dbMaintenanceRepository, never()).dropPartition(TABLE, "inbound_queue_p20261016");
+        verify(dbMaintenanceRepository, never()).dropPartition(TABLE, "inbound_queue_default");
+        verify(dbMaintenanceRepository, never()).createDailyPartition(anyString(), any());
+    }
+
+    @Test
+    void partitionNameTest() {
+        assertEquals("outbound_queue_p20261018", DBMaintenanceRepository.getPartitionName("outbound_queue", TODAY));
+        assertEquals(TODAY, DBMaintenanceRepository.getPartitionDay("outbound_queue", "outbound_queue_p20261018"));
+        assertNull(DBMaintenanceRepository.getPartitionDay("outbound_queue", "outbound_queue_default"));
+        assertNull(DBMaintenanceRepository.getPartitionDay("outbound_queue", "inbound_queue_p20261018"));
+        assertEquals(TODAY.plusDays(1), DBMaintenanceRepository.getPartitionEnd("outbound_queue",
+                "outbound_queue_p20261018"));
+        assertEquals(TODAY, DBMaintenanceRepository.getPartitionEnd("outbound_queue", "outbound_queue_until_20261018"));
+        assertNull(DBMaintenanceRepository.getPartitionEnd("outbound_queue", "outbound_queue_default"));
+    }
+}